@@ -0,0 +1,97 @@
+package com.payment.admission;
+
+import com.payment.admission.model.AdmissionStats;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AdaptiveConcurrencyLimiter: gradient-based limit on in-flight requests, driven by observed latency.
+ *
+ * A slow exponential average of response times tracks the "healthy" latency. Each sample compares it with
+ * the latest response time: while they match, the limit grows by sqrt(limit); when latency rises (requests
+ * start queueing inside the service) the limit shrinks in proportion, down to half per step. Excess requests
+ * are rejected instead of queueing, so latency of the admitted ones stays bounded.
+ */
+public class AdaptiveConcurrencyLimiter {
+    private static final double LONG_WINDOW_ALPHA = 2.0 / (600 + 1);
+    private static final double SMOOTHING = 0.2;
+    private static final double TOLERANCE = 1.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double reservedFraction;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile double limit;
+    private double longRttNanos; // guarded by this
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double reservedFraction) {
+        if (minLimit <= 0 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("require 0 < minLimit <= initialLimit <= maxLimit");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.reservedFraction = reservedFraction;
+        this.limit = initialLimit;
+    }
+
+    public boolean tryAcquire(RequestPriority priority) {
+        int allowed = allowedFor(priority);
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // true when new work would currently be rejected, i.e. classifying a request is worth its cost
+    public boolean isSaturatedForNewWork() {
+        return inFlight.get() >= allowedFor(RequestPriority.NEW_WORK);
+    }
+
+    // sample=false for requests whose latency says nothing about capacity (e.g. server errors)
+    public void release(long rttNanos, boolean sample) {
+        int inFlightAtRelease = inFlight.getAndDecrement();
+        if (sample && rttNanos > 0) {
+            update(rttNanos, inFlightAtRelease);
+        }
+    }
+
+    public AdmissionStats stats() {
+        return new AdmissionStats((int) limit, allowedFor(RequestPriority.NEW_WORK), inFlight.get(), rejected.sum());
+    }
+
+    private int allowedFor(RequestPriority priority) {
+        int current = (int) limit;
+        return priority == RequestPriority.PRIORITY ? current : Math.max(1, (int) (current * (1 - reservedFraction)));
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtRelease) {
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+            return;
+        }
+        longRttNanos += (rttNanos - longRttNanos) * LONG_WINDOW_ALPHA;
+        // after a sustained slowdown ends, let the baseline come back down quickly
+        if (longRttNanos > 2 * rttNanos) {
+            longRttNanos *= 0.95;
+        }
+
+        double current = limit;
+        // not using the capacity we have: latency says nothing about whether the limit is right
+        if (inFlightAtRelease < current / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / rttNanos));
+        double target = current * gradient + Math.sqrt(current);
+        double next = current * (1 - SMOOTHING) + target * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+}
@@ -0,0 +1,48 @@
+package com.payment.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.idempotency.repository.IdempotencyRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Admission control in front of /v1/payments (Spring MVC), enabled with payment.admission.enabled=true.
+// payment.admission.initial-limit / min-limit / max-limit   adaptive in-flight limit
+// payment.admission.reserved-fraction                        share of the limit kept for GETs and replays
+// payment.admission.client.rate-per-second / burst           per-client token buckets (off unless rate is set)
+// payment.admission.client.header                            header carrying the client id
+@Configuration
+@ConditionalOnProperty(name = "payment.admission.enabled", havingValue = "true")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class AdmissionConfig {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(
+            @Value("${payment.admission.initial-limit:100}") int initialLimit,
+            @Value("${payment.admission.min-limit:10}") int minLimit,
+            @Value("${payment.admission.max-limit:1000}") int maxLimit,
+            @Value("${payment.admission.reserved-fraction:0.2}") double reservedFraction) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, reservedFraction);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "payment.admission.client.rate-per-second")
+    public ClientRateLimiter clientRateLimiter(
+            @Value("${payment.admission.client.rate-per-second}") double ratePerSecond,
+            @Value("${payment.admission.client.burst:0}") double burst,
+            @Value("${payment.admission.client.max-clients:100000}") int maxClients) {
+        return new ClientRateLimiter(ratePerSecond, burst > 0 ? burst : ratePerSecond, maxClients);
+    }
+
+    @Bean
+    public AdmissionControlFilter admissionControlFilter(AdaptiveConcurrencyLimiter limiter,
+                                                         ObjectProvider<ClientRateLimiter> clientRateLimiter,
+                                                         @Value("${payment.admission.client.header:X-Client-Id}") String clientIdHeader,
+                                                         IdempotencyRepository idempotencyRepository,
+                                                         ObjectMapper objectMapper) {
+        return new AdmissionControlFilter(limiter, clientRateLimiter.getIfAvailable(), clientIdHeader, idempotencyRepository, objectMapper);
+    }
+}
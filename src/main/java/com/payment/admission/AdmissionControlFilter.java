@@ -0,0 +1,107 @@
+package com.payment.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.dto.ErrorResponse;
+import com.payment.idempotency.repository.IdempotencyRepository;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+// AdmissionControlFilter: rejects excess /v1/payments traffic up front instead of letting it queue in Tomcat.
+// 429 when a client exceeds its token bucket, 503 when the service is at its concurrency limit; both with Retry-After
+// and the same ErrorResponse body as every other refused payment request.
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    private static final String PAYMENTS_PATH = "/v1/payments";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final ClientRateLimiter clientRateLimiter; // null when per-client limits are off
+    private final String clientIdHeader;
+    private final IdempotencyRepository idempotencyRepository;
+    private final ObjectMapper objectMapper;
+
+    public AdmissionControlFilter(AdaptiveConcurrencyLimiter limiter,
+                                  ClientRateLimiter clientRateLimiter,
+                                  String clientIdHeader,
+                                  IdempotencyRepository idempotencyRepository,
+                                  ObjectMapper objectMapper) {
+        this.limiter = limiter;
+        this.clientRateLimiter = clientRateLimiter;
+        this.clientIdHeader = clientIdHeader;
+        this.idempotencyRepository = idempotencyRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(PAYMENTS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (clientRateLimiter != null) {
+            String clientId = request.getHeader(clientIdHeader);
+            if (clientId != null) {
+                long waitNanos = clientRateLimiter.tryAcquire(clientId);
+                if (waitNanos > 0) {
+                    reject(request, response, HttpStatus.TOO_MANY_REQUESTS, retryAfterSeconds(waitNanos), "Client rate limit exceeded");
+                    return;
+                }
+            }
+        }
+
+        if (!limiter.tryAcquire(classify(request))) {
+            reject(request, response, HttpStatus.SERVICE_UNAVAILABLE, 1, "Service overloaded, retry later");
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            chain.doFilter(request, response);
+            completed = true;
+        } finally {
+            limiter.release(System.nanoTime() - start, completed && response.getStatus() < 500);
+        }
+    }
+
+    RequestPriority classify(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method)) {
+            return RequestPriority.PRIORITY;
+        }
+        // looking the key up costs a repository read, so only pay for it when it changes the outcome
+        String idempotencyKey = request.getHeader("Idempotency-Key");
+        if (idempotencyKey == null || !limiter.isSaturatedForNewWork()) {
+            return RequestPriority.NEW_WORK;
+        }
+        try {
+            return idempotencyRepository.findByIdempotency(idempotencyKey).isPresent()
+                    ? RequestPriority.PRIORITY
+                    : RequestPriority.NEW_WORK;
+        } catch (RuntimeException e) {
+            return RequestPriority.NEW_WORK;
+        }
+    }
+
+    private static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, HttpStatus status,
+                        long retryAfterSeconds, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+        response.setContentType("application/json");
+        objectMapper.writeValue(response.getOutputStream(),
+                new ErrorResponse(Instant.now(), status.value(), status.getReasonPhrase(), message, request.getRequestURI()));
+    }
+}
@@ -0,0 +1,80 @@
+package com.payment.admission;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// ClientRateLimiter: one token bucket per client id, for about maxClients clients at a time. When the table is
+// full, buckets that have refilled completely (idle clients) are swept out; they would start full again anyway.
+// A sweep runs at most once per refill period, so a table of active clients does not cost a full scan per new
+// client. Between sweeps a new client evicts the next bucket of a rotating cursor instead; that client starts
+// over with a full bucket, so eviction can grant at most one extra burst.
+public class ClientRateLimiter {
+    private final double ratePerSecond;
+    private final double burst;
+    private final int maxClients;
+    private final long sweepIntervalNanos;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepNanos = new AtomicLong(System.nanoTime());
+    private final LongAdder rejected = new LongAdder();
+    private Iterator<TokenBucket> evictionCursor; // guarded by this
+
+    public ClientRateLimiter(double ratePerSecond, double burst, int maxClients) {
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.maxClients = maxClients;
+        // an emptied bucket is full again after this long
+        this.sweepIntervalNanos = (long) (burst / ratePerSecond * 1_000_000_000L);
+    }
+
+    // returns 0 if admitted, otherwise the nanos until the client may retry
+    public long tryAcquire(String clientId) {
+        return tryAcquire(clientId, System.nanoTime());
+    }
+
+    long tryAcquire(String clientId, long now) {
+        TokenBucket bucket = buckets.get(clientId);
+        if (bucket == null) {
+            if (buckets.size() >= maxClients) {
+                makeRoom(now);
+            }
+            bucket = buckets.computeIfAbsent(clientId, k -> new TokenBucket(ratePerSecond, burst, now));
+        }
+        long waitNanos = bucket.tryAcquire(now);
+        if (waitNanos > 0) {
+            rejected.increment();
+        }
+        return waitNanos;
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    int clientCount() {
+        return buckets.size();
+    }
+
+    private void makeRoom(long now) {
+        long next = nextSweepNanos.get();
+        if (now - next >= 0 && nextSweepNanos.compareAndSet(next, now + sweepIntervalNanos)) {
+            buckets.values().removeIf(b -> b.isFull(now));
+        }
+        if (buckets.size() >= maxClients) {
+            evictOne();
+        }
+    }
+
+    // the cursor carries on where the last eviction stopped, so evictions walk the table once per cycle
+    private synchronized void evictOne() {
+        if (evictionCursor == null || !evictionCursor.hasNext()) {
+            evictionCursor = buckets.values().iterator();
+        }
+        if (evictionCursor.hasNext()) {
+            evictionCursor.next();
+            evictionCursor.remove();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.payment.admission;
+
+// RequestPriority: under saturation only PRIORITY requests may use the reserved share of the concurrency limit
+public enum RequestPriority {
+    PRIORITY,   // reads and idempotent replays: cheap and what retrying clients are waiting on
+    NEW_WORK    // new creates and cancels
+}
@@ -0,0 +1,24 @@
+package com.payment.admission.model;
+
+public class AdmissionStats {
+    private final int limit;
+    private final int newWorkLimit;
+    private final int inFlight;
+    private final long shed;          // rejected with 503 by the concurrency limiter
+    private long rateLimited;         // rejected with 429 by per-client token buckets
+
+    public AdmissionStats(int limit, int newWorkLimit, int inFlight, long shed) {
+        this.limit = limit;
+        this.newWorkLimit = newWorkLimit;
+        this.inFlight = inFlight;
+        this.shed = shed;
+    }
+
+    public int getLimit() { return limit; }
+    public int getNewWorkLimit() { return newWorkLimit; }
+    public int getInFlight() { return inFlight; }
+    public long getShed() { return shed; }
+    public long getRateLimited() { return rateLimited; }
+
+    public void setRateLimited(long rateLimited) { this.rateLimited = rateLimited; }
+}
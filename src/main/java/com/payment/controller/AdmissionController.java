@@ -0,0 +1,37 @@
+package com.payment.controller;
+
+import com.payment.admission.AdaptiveConcurrencyLimiter;
+import com.payment.admission.ClientRateLimiter;
+import com.payment.admission.model.AdmissionStats;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+// Controller: current concurrency limit, in-flight requests and rejection counters of admission control
+@RestController
+@RequestMapping("/v1/ops")
+@ConditionalOnProperty(name = "payment.admission.enabled", havingValue = "true")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class AdmissionController {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final ObjectProvider<ClientRateLimiter> clientRateLimiter;
+
+    public AdmissionController(AdaptiveConcurrencyLimiter limiter, ObjectProvider<ClientRateLimiter> clientRateLimiter) {
+        this.limiter = limiter;
+        this.clientRateLimiter = clientRateLimiter;
+    }
+
+    @GetMapping("/admission")
+    public AdmissionStats getAdmissionStats() {
+        AdmissionStats stats = limiter.stats();
+        ClientRateLimiter clients = clientRateLimiter.getIfAvailable();
+        if (clients != null) {
+            stats.setRateLimited(clients.rejectedCount());
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,26 @@
+package com.payment.controller;
+
+import com.payment.event.publisher.HandlerStats;
+import com.payment.event.publisher.InMemoryPaymentEventPublisher;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+// Controller: per-handler queue depth, lag and failure counters of the event publisher
+@RestController
+@RequestMapping("/v1/ops")
+public class EventHandlerStatsController {
+
+    private final InMemoryPaymentEventPublisher publisher;
+
+    public EventHandlerStatsController(InMemoryPaymentEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @GetMapping("/event-handlers")
+    public List<HandlerStats> getEventHandlerStats() {
+        return publisher.stats();
+    }
+}
@@ -0,0 +1,27 @@
+package com.payment.controller;
+
+import com.payment.hotkey.HotKeyTracker;
+import com.payment.hotkey.model.HotKeySnapshot;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+// Controller: fingerprints of the idempotency keys, payment ids and conflict sources with the most recent traffic,
+// enabled with payment.hotkeys.endpoint.enabled=true
+@RestController
+@RequestMapping("/v1/ops")
+@ConditionalOnProperty(name = "payment.hotkeys.endpoint.enabled", havingValue = "true")
+public class HotKeyController {
+
+    private final HotKeyTracker hotKeyTracker;
+
+    public HotKeyController(HotKeyTracker hotKeyTracker) {
+        this.hotKeyTracker = hotKeyTracker;
+    }
+
+    @GetMapping("/hot-keys")
+    public HotKeySnapshot getHotKeys() {
+        return hotKeyTracker.snapshot();
+    }
+}
@@ -2,10 +2,12 @@ package com.payment.controller;
 
 import com.payment.dto.CancelPaymentRequest;
 import com.payment.dto.CreatePaymentRequest;
-import com.payment.dto.PaymentResponse;
 import com.payment.event.model.PaymentEvent;
 import com.payment.event.store.PaymentEventStore;
 import com.payment.service.PaymentService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -14,6 +16,7 @@ import java.util.List;
 // Controller: Handles HTTP request and response from clients and delegates payment operation to the service layer
 @RestController
 @RequestMapping("/v1/payments")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class PaymentController {
 
     private final PaymentService service;
@@ -24,24 +27,27 @@ public class PaymentController {
         this.eventStore = eventStore;
     }
 
+    // responses carry a PaymentResponse, or an ErrorResponse with 202/404/409
     @PostMapping
-    public PaymentResponse createPayment(
+    public ResponseEntity<Object> createPayment(
             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
-            @RequestBody CreatePaymentRequest request) {
-        return service.createPayment(request, idempotencyKey);
+            @RequestBody CreatePaymentRequest request,
+            HttpServletRequest http) {
+        return PaymentResultResponses.toResponseEntity(service.tryCreatePayment(request, idempotencyKey), http.getRequestURI());
     }
 
     @PostMapping("/{id}/cancel")
-    public PaymentResponse cancelPayment (
+    public ResponseEntity<Object> cancelPayment (
             @PathVariable String id,
             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
-            @RequestBody(required = false) CancelPaymentRequest request) {
-        return service.cancelPayment(id, idempotencyKey, request);
+            @RequestBody(required = false) CancelPaymentRequest request,
+            HttpServletRequest http) {
+        return PaymentResultResponses.toResponseEntity(service.tryCancelPayment(id, idempotencyKey, request), http.getRequestURI());
     }
 
     @GetMapping("/{id}")
-    public PaymentResponse getPayment(@PathVariable String id) {
-        return service.getPayment(id);
+    public ResponseEntity<Object> getPayment(@PathVariable String id, HttpServletRequest http) {
+        return PaymentResultResponses.toResponseEntity(service.tryGetPayment(id), http.getRequestURI());
     }
 
     @GetMapping("/{id}/events")
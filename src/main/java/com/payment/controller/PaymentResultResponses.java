@@ -0,0 +1,23 @@
+package com.payment.controller;
+
+import com.payment.dto.ErrorResponse;
+import com.payment.service.PaymentResult;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Instant;
+
+// Maps a PaymentResult straight to a response entity, so refusals skip exception resolution and the /error dispatch
+final class PaymentResultResponses {
+    private PaymentResultResponses() {
+    }
+
+    static ResponseEntity<Object> toResponseEntity(PaymentResult result, String path) {
+        if (result.isOk()) {
+            return ResponseEntity.ok(result.getResponse());
+        }
+        HttpStatus status = result.getStatus().getHttpStatus();
+        return ResponseEntity.status(status)
+                .body(new ErrorResponse(Instant.now(), status.value(), status.getReasonPhrase(), result.getMessage(), path));
+    }
+}
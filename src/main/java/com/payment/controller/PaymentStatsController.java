@@ -0,0 +1,24 @@
+package com.payment.controller;
+
+import com.payment.stats.PaymentStatsAggregator;
+import com.payment.stats.model.PaymentStatsSnapshot;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+// Controller: exposes the incrementally maintained payment aggregates for ops dashboards
+@RestController
+@RequestMapping("/v1/stats")
+public class PaymentStatsController {
+
+    private final PaymentStatsAggregator aggregator;
+
+    public PaymentStatsController(PaymentStatsAggregator aggregator) {
+        this.aggregator = aggregator;
+    }
+
+    @GetMapping("/payments")
+    public PaymentStatsSnapshot getPaymentStats() {
+        return aggregator.snapshot();
+    }
+}
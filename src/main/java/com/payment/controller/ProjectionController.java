@@ -0,0 +1,29 @@
+package com.payment.controller;
+
+import com.payment.projection.ProjectionRebuilder;
+import com.payment.projection.model.RebuildProgress;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+// Controller: triggers projection rebuilds from the event store and reports their progress
+@RestController
+@RequestMapping("/v1/projections")
+public class ProjectionController {
+
+    private final ProjectionRebuilder rebuilder;
+
+    public ProjectionController(ProjectionRebuilder rebuilder) {
+        this.rebuilder = rebuilder;
+    }
+
+    @PostMapping("/{name}/rebuild")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public RebuildProgress rebuild(@PathVariable String name) {
+        return rebuilder.start(name);
+    }
+
+    @GetMapping("/{name}/rebuild")
+    public RebuildProgress getRebuildProgress(@PathVariable String name) {
+        return rebuilder.progress(name);
+    }
+}
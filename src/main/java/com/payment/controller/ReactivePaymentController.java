@@ -0,0 +1,60 @@
+package com.payment.controller;
+
+import com.payment.dto.CancelPaymentRequest;
+import com.payment.dto.CreatePaymentRequest;
+import com.payment.event.model.PaymentEvent;
+import com.payment.service.ReactivePaymentService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+
+// Controller: WebFlux counterpart of PaymentController, active when started with spring.main.web-application-type=reactive
+@RestController
+@RequestMapping("/v1/payments")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePaymentController {
+
+    private final ReactivePaymentService service;
+
+    public ReactivePaymentController(ReactivePaymentService service) {
+        this.service = service;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Object>> createPayment(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody Mono<CreatePaymentRequest> request,
+            ServerHttpRequest http) {
+        return request.flatMap(body -> service.tryCreatePayment(body, idempotencyKey))
+                .map(result -> PaymentResultResponses.toResponseEntity(result, http.getPath().value()));
+    }
+
+    @PostMapping("/{id}/cancel")
+    public Mono<ResponseEntity<Object>> cancelPayment(
+            @PathVariable String id,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody(required = false) Mono<CancelPaymentRequest> request,
+            ServerHttpRequest http) {
+        return request
+                .defaultIfEmpty(new CancelPaymentRequest())
+                .flatMap(body -> service.tryCancelPayment(id, idempotencyKey, body))
+                .map(result -> PaymentResultResponses.toResponseEntity(result, http.getPath().value()));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Object>> getPayment(@PathVariable String id, ServerHttpRequest http) {
+        return service.tryGetPayment(id)
+                .map(result -> PaymentResultResponses.toResponseEntity(result, http.getPath().value()));
+    }
+
+    // application/x-ndjson streams one event per line; application/json still returns a single array
+    @GetMapping(value = "/{id}/events", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<PaymentEvent> getPaymentEvents(@PathVariable String id) {
+        return service.listEvents(id);
+    }
+}
@@ -0,0 +1,30 @@
+package com.payment.controller;
+
+import com.payment.reconciliation.PaymentReconciler;
+import com.payment.reconciliation.model.ReconciliationReport;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+// Controller: open mismatches between stored payments and the event store, and an on-demand reconciliation run
+@RestController
+@RequestMapping("/v1/ops/reconciliation")
+public class ReconciliationController {
+
+    private final PaymentReconciler reconciler;
+
+    public ReconciliationController(PaymentReconciler reconciler) {
+        this.reconciler = reconciler;
+    }
+
+    @GetMapping
+    public ReconciliationReport getReport() {
+        return reconciler.report();
+    }
+
+    @PostMapping("/run")
+    public ReconciliationReport run() {
+        return reconciler.reconcile();
+    }
+}
@@ -0,0 +1,44 @@
+package com.payment.controller;
+
+import com.payment.replication.ReplicationFollower;
+import com.payment.replication.ReplicationLog;
+import com.payment.replication.ReplicationServer;
+import com.payment.replication.model.ReplicationStatus;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+// Controller: replication role of this node and, on followers, how far behind the leader it is
+@RestController
+@RequestMapping("/v1/ops")
+public class ReplicationController {
+
+    private final ObjectProvider<ReplicationLog> log;
+    private final ObjectProvider<ReplicationServer> server;
+    private final ObjectProvider<ReplicationFollower> follower;
+
+    public ReplicationController(ObjectProvider<ReplicationLog> log,
+                                 ObjectProvider<ReplicationServer> server,
+                                 ObjectProvider<ReplicationFollower> follower) {
+        this.log = log;
+        this.server = server;
+        this.follower = follower;
+    }
+
+    @GetMapping("/replication")
+    public ReplicationStatus getReplicationStatus() {
+        ReplicationFollower replica = follower.getIfAvailable();
+        if (replica != null) {
+            return replica.status();
+        }
+
+        ReplicationLog leaderLog = log.getIfAvailable();
+        ReplicationServer leaderServer = server.getIfAvailable();
+        if (leaderLog != null && leaderServer != null) {
+            long sequence = leaderLog.lastSequence();
+            return new ReplicationStatus("leader", true, sequence, sequence, 0, 0, leaderServer.followerCount());
+        }
+        return new ReplicationStatus("standalone", false, 0, 0, 0, 0, 0);
+    }
+}
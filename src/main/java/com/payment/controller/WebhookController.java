@@ -0,0 +1,48 @@
+package com.payment.controller;
+
+import com.payment.dto.CreateWebhookSubscriptionRequest;
+import com.payment.dto.WebhookSubscriptionResponse;
+import com.payment.webhook.WebhookDeliveryHandler;
+import com.payment.webhook.model.WebhookEndpointStats;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+// Controller: manages webhook subscriptions and reports per-endpoint delivery state (payment.webhooks.enabled)
+@RestController
+@ConditionalOnProperty(name = "payment.webhooks.enabled", havingValue = "true")
+public class WebhookController {
+
+    private final WebhookDeliveryHandler webhooks;
+
+    public WebhookController(WebhookDeliveryHandler webhooks) {
+        this.webhooks = webhooks;
+    }
+
+    @PostMapping("/v1/webhooks/subscriptions")
+    @ResponseStatus(HttpStatus.CREATED)
+    public WebhookSubscriptionResponse subscribe(@RequestBody CreateWebhookSubscriptionRequest request) {
+        // the only time the signing secret is shown
+        return new WebhookSubscriptionResponse(webhooks.subscribe(request), true);
+    }
+
+    @GetMapping("/v1/webhooks/subscriptions")
+    public List<WebhookSubscriptionResponse> getSubscriptions() {
+        return webhooks.subscriptions().stream()
+                .map(subscription -> new WebhookSubscriptionResponse(subscription, false))
+                .toList();
+    }
+
+    @DeleteMapping("/v1/webhooks/subscriptions/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void unsubscribe(@PathVariable String id) {
+        webhooks.unsubscribe(id);
+    }
+
+    @GetMapping("/v1/ops/webhooks")
+    public List<WebhookEndpointStats> getDeliveryStats() {
+        return webhooks.stats();
+    }
+}
@@ -9,6 +9,7 @@ public class Payment {
     private PaymentStatus status;
     private final Instant createdAt;
     private Instant updatedAt;
+    private long version; // 0 until first stored; checked by repositories with optimistic locking
 
     public Payment(String id, long amount, String currency, PaymentStatus status, Instant createdAt, Instant updatedAt) {
         this.id = id;
@@ -25,7 +26,9 @@ public class Payment {
     public PaymentStatus getStatus() { return status; }
     public Instant getCreatedAt() { return createdAt; }
     public Instant getUpdatedAt() {return updatedAt;}
+    public long getVersion() { return version; }
 
     public void setStatus(PaymentStatus status) {this.status = status;}
     public void setUpdatedAt(Instant updatedAt) {this.updatedAt = updatedAt;}
+    public void setVersion(long version) {this.version = version;}
 }
@@ -0,0 +1,35 @@
+package com.payment.dto;
+
+import com.payment.event.model.PaymentEventType;
+
+import java.util.Set;
+
+public class CreateWebhookSubscriptionRequest {
+    private String url;
+    private Set<PaymentEventType> eventTypes;
+    private Integer maxConcurrency;
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public Set<PaymentEventType> getEventTypes() {
+        return eventTypes;
+    }
+
+    public void setEventTypes(Set<PaymentEventType> eventTypes) {
+        this.eventTypes = eventTypes;
+    }
+
+    public Integer getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(Integer maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+}
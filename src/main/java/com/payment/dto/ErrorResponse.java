@@ -0,0 +1,26 @@
+package com.payment.dto;
+
+import java.time.Instant;
+
+// Body of a refused payment request; same fields as Spring Boot's default error body, plus the reason
+public class ErrorResponse {
+    private final Instant timestamp;
+    private final int status;
+    private final String error;
+    private final String message;
+    private final String path;
+
+    public ErrorResponse(Instant timestamp, int status, String error, String message, String path) {
+        this.timestamp = timestamp;
+        this.status = status;
+        this.error = error;
+        this.message = message;
+        this.path = path;
+    }
+
+    public Instant getTimestamp() { return timestamp; }
+    public int getStatus() { return status; }
+    public String getError() { return error; }
+    public String getMessage() { return message; }
+    public String getPath() { return path; }
+}
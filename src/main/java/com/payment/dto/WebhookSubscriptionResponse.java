@@ -0,0 +1,37 @@
+package com.payment.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.payment.event.model.PaymentEventType;
+import com.payment.webhook.model.WebhookSubscription;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.Set;
+
+// A webhook subscription as the API shows it. The signing secret is only included in the response to the
+// request that created the subscription.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class WebhookSubscriptionResponse {
+    private final String id;
+    private final URI url;
+    private final Set<PaymentEventType> eventTypes;
+    private final int maxConcurrency;
+    private final Instant createdAt;
+    private final String signingSecret;
+
+    public WebhookSubscriptionResponse(WebhookSubscription subscription, boolean withSecret) {
+        this.id = subscription.getId();
+        this.url = subscription.getUrl();
+        this.eventTypes = subscription.getEventTypes();
+        this.maxConcurrency = subscription.getMaxConcurrency();
+        this.createdAt = subscription.getCreatedAt();
+        this.signingSecret = withSecret ? subscription.getSigningSecret() : null;
+    }
+
+    public String getId() { return id; }
+    public URI getUrl() { return url; }
+    public Set<PaymentEventType> getEventTypes() { return eventTypes; }
+    public int getMaxConcurrency() { return maxConcurrency; }
+    public Instant getCreatedAt() { return createdAt; }
+    public String getSigningSecret() { return signingSecret; }
+}
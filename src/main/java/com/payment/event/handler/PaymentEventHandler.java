@@ -4,4 +4,10 @@ import com.payment.event.model.PaymentEvent;
 
 public interface PaymentEventHandler {
     void handle(PaymentEvent paymentEvent);
+
+    // synchronous handlers run on the publishing thread and their failures propagate to the caller;
+    // all others get their own bounded queue and worker (see InMemoryPaymentEventPublisher)
+    default boolean isSynchronous() {
+        return false;
+    }
 }
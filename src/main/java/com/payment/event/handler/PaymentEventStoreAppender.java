@@ -16,4 +16,10 @@ public class PaymentEventStoreAppender implements PaymentEventHandler{
     public void handle(PaymentEvent paymentEvent) {
         eventStore.append(paymentEvent);
     }
+
+    // the event store is the source of truth for /events, so it stays on the write path
+    @Override
+    public boolean isSynchronous() {
+        return true;
+    }
 }
@@ -1,15 +1,28 @@
 package com.payment.event.model;
 
 import java.time.Instant;
+import java.util.UUID;
 
 public class PaymentCanceledEvent extends PaymentEvent{
+    private final long amount;
+    private final String currency;
     private final String reason; // nullable
 
-    public PaymentCanceledEvent(String aggregateId, Instant occurredAt, String idempotencyKey, String reason) {
-        super(PaymentEventType.PAYMENT_CANCELED, aggregateId, occurredAt, idempotencyKey);
+    public PaymentCanceledEvent(UUID eventId, String aggregateId, Instant occurredAt, String idempotencyKey, long amount, String currency, String reason) {
+        super(eventId, PaymentEventType.PAYMENT_CANCELED, aggregateId, occurredAt, idempotencyKey);
+        this.amount = amount;
+        this.currency = currency;
         this.reason = reason;
     }
 
+    public long getAmount() {
+        return amount;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
     public String getReason() {
         return reason;
     }
@@ -1,13 +1,14 @@
 package com.payment.event.model;
 
 import java.time.Instant;
+import java.util.UUID;
 
 public class PaymentCreatedEvent extends PaymentEvent{
     private final long amount;
     private final String currency;
 
-    public PaymentCreatedEvent(String aggregateId, Instant occurredAt, String idempotencyKey, long amount, String currency) {
-        super(PaymentEventType.PAYMENT_CREATED, aggregateId, occurredAt, idempotencyKey);
+    public PaymentCreatedEvent(UUID eventId, String aggregateId, Instant occurredAt, String idempotencyKey, long amount, String currency) {
+        super(eventId, PaymentEventType.PAYMENT_CREATED, aggregateId, occurredAt, idempotencyKey);
 
         this.amount = amount;
         this.currency = currency;
@@ -4,15 +4,15 @@ import java.time.Instant;
 import java.util.UUID;
 
 public abstract class PaymentEvent {
-    private final UUID eventId; // UUID
+    private final UUID eventId; // time-ordered UUID, see IdGenerator
     private final PaymentEventType eventType;
     private final AggregateType aggregateType;
     private final String aggregateId; // paymentId
     private final Instant occurredAt;
     private final String idempotencyKey; // nullable
 
-    protected PaymentEvent(PaymentEventType eventType, String aggregateId, Instant occurredAt, String idempotencyKey) {
-        this.eventId = UUID.randomUUID();
+    protected PaymentEvent(UUID eventId, PaymentEventType eventType, String aggregateId, Instant occurredAt, String idempotencyKey) {
+        this.eventId = eventId;
         this.eventType = eventType;
         this.aggregateType = AggregateType.PAYMENT;
         this.aggregateId = aggregateId;
@@ -0,0 +1,85 @@
+package com.payment.event.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * PaymentEventCodec: explicit binary form of a PaymentEvent, used wherever events leave the heap (replication
+ * stream, handler spill files).
+ *
+ *   byte kind | long eventIdMsb | long eventIdLsb | UTF aggregateId | long occurredAtSeconds | int occurredAtNanos
+ *   | nullable UTF idempotencyKey | long amount | UTF currency [| nullable UTF reason (canceled only)]
+ *
+ * Fields are written one by one, so the format does not depend on class layout and nothing read back is handed
+ * to Java deserialization. New event kinds get a new kind byte; existing kinds never change shape.
+ */
+public final class PaymentEventCodec {
+    private static final byte CREATED = 1;
+    private static final byte CANCELED = 2;
+
+    private PaymentEventCodec() {
+    }
+
+    public static byte[] encode(PaymentEvent event) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(buffer);
+        if (event instanceof PaymentCreatedEvent created) {
+            out.writeByte(CREATED);
+            writeCommon(out, event);
+            out.writeLong(created.getAmount());
+            out.writeUTF(created.getCurrency());
+        } else if (event instanceof PaymentCanceledEvent canceled) {
+            out.writeByte(CANCELED);
+            writeCommon(out, event);
+            out.writeLong(canceled.getAmount());
+            out.writeUTF(canceled.getCurrency());
+            writeNullable(out, canceled.getReason());
+        } else {
+            throw new IOException("Cannot encode event type " + event.getClass().getName());
+        }
+        return buffer.toByteArray();
+    }
+
+    public static PaymentEvent decode(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        byte kind = in.readByte();
+        UUID eventId = new UUID(in.readLong(), in.readLong());
+        String aggregateId = in.readUTF();
+        Instant occurredAt = Instant.ofEpochSecond(in.readLong(), in.readInt());
+        String idempotencyKey = readNullable(in);
+        long amount = in.readLong();
+        String currency = in.readUTF();
+        return switch (kind) {
+            case CREATED -> new PaymentCreatedEvent(eventId, aggregateId, occurredAt, idempotencyKey, amount, currency);
+            case CANCELED -> new PaymentCanceledEvent(eventId, aggregateId, occurredAt, idempotencyKey, amount, currency, readNullable(in));
+            default -> throw new IOException("Unknown event kind=" + kind);
+        };
+    }
+
+    private static void writeCommon(DataOutput out, PaymentEvent event) throws IOException {
+        out.writeLong(event.getEventId().getMostSignificantBits());
+        out.writeLong(event.getEventId().getLeastSignificantBits());
+        out.writeUTF(event.getAggregateId());
+        out.writeLong(event.getOccurredAt().getEpochSecond());
+        out.writeInt(event.getOccurredAt().getNano());
+        writeNullable(out, event.getIdempotencyKey());
+    }
+
+    private static void writeNullable(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
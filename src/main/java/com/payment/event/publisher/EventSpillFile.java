@@ -0,0 +1,210 @@
+package com.payment.event.publisher;
+
+import com.payment.event.model.PaymentEvent;
+import com.payment.event.model.PaymentEventCodec;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// EventSpillFile: append-only overflow file for one handler, read back in write order.
+// The file is deleted as soon as the reader catches up with the writer. Callers synchronize on this
+// object when they need "check pending, then append" to be atomic.
+// Events still undelivered at close() stay in the file, and recover() hands them out again after a restart,
+// ahead of anything spilled since. Delivery across a crash is at least once: events delivered since the last
+// close() are read again.
+// Records are int length | PaymentEventCodec bytes, so the file does not depend on the event classes' layout.
+public class EventSpillFile {
+    // far above any real event: a longer length can only be a damaged record
+    private static final int MAX_RECORD_BYTES = 1024 * 1024;
+
+    private final Path path;
+    private DataOutputStream out;
+    private DataInputStream in;
+    private long written;
+    private long read;
+
+    public EventSpillFile(Path path) {
+        this.path = path;
+    }
+
+    // counts the events an earlier run left behind; a torn last record (crash mid-append) is cut off
+    public synchronized long recover() throws IOException {
+        if (!Files.exists(path) || Files.size(path) == 0) {
+            Files.deleteIfExists(path);
+            return 0;
+        }
+        long recovered;
+        try (DataInputStream from = open()) {
+            recovered = copy(from, Long.MAX_VALUE);
+        }
+        if (recovered == 0) {
+            Files.deleteIfExists(tmp());
+            Files.deleteIfExists(path);
+        } else {
+            Files.move(tmp(), path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        written = recovered;
+        read = 0;
+        return recovered;
+    }
+
+    public synchronized long pending() {
+        return written - read;
+    }
+
+    public synchronized void append(PaymentEvent event) throws IOException {
+        byte[] record = PaymentEventCodec.encode(event);
+        if (out == null) {
+            Files.createDirectories(path.getParent());
+            // recovered events are still in the file: append behind them instead of starting over
+            out = new DataOutputStream(new BufferedOutputStream(written > 0
+                    ? Files.newOutputStream(path, StandardOpenOption.APPEND)
+                    : Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)));
+        }
+        out.writeInt(record.length);
+        out.write(record);
+        out.flush();
+        written++;
+    }
+
+    public synchronized List<PaymentEvent> drain(int max) throws IOException {
+        if (written == read) {
+            return List.of();
+        }
+        if (in == null) {
+            in = open();
+        }
+
+        List<PaymentEvent> events = new ArrayList<>((int) Math.min(max, written - read));
+        while (read < written && events.size() < max) {
+            events.add(PaymentEventCodec.decode(readBytes(in)));
+            read++;
+        }
+
+        if (read == written) {
+            discard();
+        }
+        return events;
+    }
+
+    // keeps the undelivered events, and only those, for recover() in the next run
+    public synchronized void close() throws IOException {
+        if (written == read) {
+            discard();
+            return;
+        }
+        try {
+            if (out != null) {
+                out.close();
+            }
+            if (in == null) {
+                in = open();
+            }
+            copy(in, written - read);
+            in.close();
+            Files.move(tmp(), path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            if (in != null) {
+                in.close();
+            }
+            in = null;
+            out = null;
+            written = 0;
+            read = 0;
+        }
+    }
+
+    // gives up on a file that can no longer be read: it is set aside as <name>.failed for inspection, and never
+    // replayed. Returns the number of undelivered events left in it.
+    public synchronized long abandon() {
+        long undelivered = written - read;
+        try {
+            if (in != null) {
+                in.close();
+            }
+            if (out != null) {
+                out.close();
+            }
+            if (Files.exists(path)) {
+                Files.move(path, path.resolveSibling(path.getFileName() + ".failed"), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            System.err.println("[WARN] setting aside broken spill file failed. file=" + path + ", error=" + e.getMessage());
+        } finally {
+            in = null;
+            out = null;
+            written = 0;
+            read = 0;
+        }
+        return undelivered;
+    }
+
+    private void discard() throws IOException {
+        try {
+            if (in != null) {
+                in.close();
+            }
+            if (out != null) {
+                out.close();
+            }
+        } finally {
+            in = null;
+            out = null;
+            written = 0;
+            read = 0;
+            Files.deleteIfExists(path);
+        }
+    }
+
+    // copies up to max events from `from` into tmp(), stopping at the end of the file or at an unreadable record
+    private long copy(DataInputStream from, long max) throws IOException {
+        long copied = 0;
+        try (DataOutputStream copy = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp())))) {
+            while (copied < max) {
+                byte[] record;
+                try {
+                    record = readBytes(from);
+                    PaymentEventCodec.decode(record);
+                } catch (EOFException e) {
+                    // the end, or a record torn by a crash mid-append
+                    break;
+                } catch (IOException e) {
+                    System.err.println("[WARN] unreadable record in spill file, keeping " + copied + " events. file=" + path + ", error=" + e);
+                    break;
+                }
+                copy.writeInt(record.length);
+                copy.write(record);
+                copied++;
+            }
+        }
+        return copied;
+    }
+
+    private DataInputStream open() throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(path)));
+    }
+
+    private byte[] readBytes(DataInputStream from) throws IOException {
+        int length = from.readInt();
+        if (length <= 0 || length > MAX_RECORD_BYTES) {
+            throw new IOException("Corrupt spill file " + path + ", record length=" + length);
+        }
+        byte[] record = new byte[length];
+        from.readFully(record);
+        return record;
+    }
+
+    private Path tmp() {
+        return path.resolveSibling(path.getFileName() + ".tmp");
+    }
+}
@@ -0,0 +1,43 @@
+package com.payment.event.publisher;
+
+public class HandlerStats {
+    private final String handler;
+    private final boolean synchronous;
+    private final OverflowPolicy overflowPolicy; // null for synchronous handlers
+    private final int queueDepth;
+    private final int capacity;
+    private final long spilled;   // events currently waiting on disk
+    private final long handled;
+    private final long failed;
+    private final long dropped;
+    private final long lagMillis; // age of the oldest pending event, 0 when caught up
+    private final String spillError; // why spilling was disabled, null while it works
+
+    public HandlerStats(String handler, boolean synchronous, OverflowPolicy overflowPolicy, int queueDepth, int capacity,
+                        long spilled, long handled, long failed, long dropped, long lagMillis,
+                        String spillError) {
+        this.handler = handler;
+        this.synchronous = synchronous;
+        this.overflowPolicy = overflowPolicy;
+        this.queueDepth = queueDepth;
+        this.capacity = capacity;
+        this.spilled = spilled;
+        this.handled = handled;
+        this.failed = failed;
+        this.dropped = dropped;
+        this.lagMillis = lagMillis;
+        this.spillError = spillError;
+    }
+
+    public String getHandler() { return handler; }
+    public boolean isSynchronous() { return synchronous; }
+    public OverflowPolicy getOverflowPolicy() { return overflowPolicy; }
+    public int getQueueDepth() { return queueDepth; }
+    public int getCapacity() { return capacity; }
+    public long getSpilled() { return spilled; }
+    public long getHandled() { return handled; }
+    public long getFailed() { return failed; }
+    public long getDropped() { return dropped; }
+    public long getLagMillis() { return lagMillis; }
+    public String getSpillError() { return spillError; }
+}
@@ -0,0 +1,179 @@
+package com.payment.event.publisher;
+
+import com.payment.event.handler.PaymentEventHandler;
+import com.payment.event.model.PaymentEvent;
+import com.payment.jfr.EventHandlerEvent;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// HandlerWorker: one bounded queue and one thread per async handler, so a slow or failing handler only
+// delays (and fails) itself.
+// A spill file that fails is not retried: after a failed append nothing more is spilled, and after a failed
+// read its undelivered events are counted as dropped and the file is set aside. Either way new events go
+// through the in-memory queue only (dropped when it is full) and stats() reports the error.
+public class HandlerWorker {
+    private static final int SPILL_BATCH = 256;
+    private static final long POLL_MILLIS = 100;
+
+    private final String name;
+    private final PaymentEventHandler handler;
+    private final BlockingQueue<PaymentEvent> queue;
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    private final EventSpillFile spill; // only for SPILL
+    private final Thread thread;
+    private final LongAdder handled = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private volatile String spillError; // set once the spill file has failed
+    private volatile Instant lastHandledOccurredAt;
+    private volatile boolean running = true;
+
+    public HandlerWorker(String name, PaymentEventHandler handler, int capacity, OverflowPolicy overflowPolicy, Path spillDir) {
+        this.name = name;
+        this.handler = handler;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.spill = overflowPolicy == OverflowPolicy.SPILL ? new EventSpillFile(spillDir.resolve(name + ".spill")) : null;
+        if (spill != null) {
+            // events spilled but not delivered before the last shutdown go first
+            try {
+                long recovered = spill.recover();
+                if (recovered > 0) {
+                    System.err.println("[WARN] replaying spilled events from a previous run. handler=" + name + ", events=" + recovered);
+                }
+            } catch (IOException e) {
+                failSpill("recovering spill file failed", e);
+            }
+        }
+        this.thread = new Thread(this::run, "event-handler-" + name);
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    public void submit(PaymentEvent event) {
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                try {
+                    queue.put(event);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped.increment();
+                }
+            }
+            case DROP -> {
+                if (!queue.offer(event)) {
+                    dropped.increment();
+                }
+            }
+            case SPILL -> {
+                // once anything is on disk, later events follow it there so the handler still sees them in order
+                synchronized (spill) {
+                    if (spillError != null) {
+                        if (!queue.offer(event)) {
+                            dropped.increment();
+                        }
+                        return;
+                    }
+                    if (spill.pending() == 0 && queue.offer(event)) {
+                        return;
+                    }
+                    try {
+                        spill.append(event);
+                    } catch (IOException e) {
+                        dropped.increment();
+                        // events appended before this one are still read back; nothing is appended after it
+                        failSpill("spill failed, event dropped", e);
+                    }
+                }
+            }
+        }
+    }
+
+    public HandlerStats stats() {
+        long spilled = spill == null ? 0 : spill.pending();
+        PaymentEvent head = queue.peek();
+        long lagMillis = 0;
+        if (head != null) {
+            lagMillis = Duration.between(head.getOccurredAt(), Instant.now()).toMillis();
+        } else if (spilled > 0 && lastHandledOccurredAt != null) {
+            lagMillis = Duration.between(lastHandledOccurredAt, Instant.now()).toMillis();
+        }
+        return new HandlerStats(name, false, overflowPolicy, queue.size(), capacity, spilled,
+                handled.sum(), failed.sum(), dropped.sum(), Math.max(0, lagMillis), spillError);
+    }
+
+    // stops accepting work only after the backlog is drained or the timeout passes
+    public void stop(Duration timeout) {
+        running = false;
+        try {
+            thread.join(timeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            thread.interrupt();
+        }
+        if (spill != null) {
+            try {
+                spill.close();
+            } catch (IOException e) {
+                System.err.println("[WARN] closing spill file failed. handler=" + name + ", error=" + e.getMessage());
+            }
+        }
+    }
+
+    private void run() {
+        while (running || !queue.isEmpty() || (spill != null && spill.pending() > 0)) {
+            try {
+                PaymentEvent event = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (event != null) {
+                    deliver(event);
+                } else if (spill != null) {
+                    for (PaymentEvent spilled : spill.drain(SPILL_BATCH)) {
+                        deliver(spilled);
+                    }
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                synchronized (spill) {
+                    failSpill("reading spill file failed", e);
+                    long lost = spill.abandon();
+                    dropped.add(lost);
+                    System.err.println("[WARN] spill file set aside, undelivered events dropped. handler=" + name + ", events=" + lost);
+                }
+            }
+        }
+    }
+
+    private void failSpill(String what, IOException e) {
+        if (spillError == null) {
+            spillError = what + ": " + e.getMessage();
+        }
+        System.err.println("[WARN] " + what + ", spilling disabled. handler=" + name + ", error=" + e.getMessage());
+    }
+
+    private void deliver(PaymentEvent event) {
+        try {
+            EventHandlerEvent.invoke(name, handler, event);
+            handled.increment();
+        } catch (RuntimeException ex) {
+            failed.increment();
+            System.err.println("[WARN] event handler failed. handler=" + name + ", eventId=" + event.getEventId() + ", error=" + ex.getMessage());
+        }
+        lastHandledOccurredAt = event.getOccurredAt();
+    }
+}
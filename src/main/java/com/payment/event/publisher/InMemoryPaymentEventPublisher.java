@@ -2,23 +2,88 @@ package com.payment.event.publisher;
 
 import com.payment.event.handler.PaymentEventHandler;
 import com.payment.event.model.PaymentEvent;
+import com.payment.jfr.EventHandlerEvent;
+import com.payment.jfr.EventPublishEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * InMemoryPaymentEventPublisher: runs synchronous handlers on the caller's thread, in order, then hands the
+ * event to every async handler's own bounded queue.
+ *
+ * Async handlers are configured with
+ *   payment.events.queue-capacity / payment.events.overflow-policy (defaults for all handlers)
+ *   payment.events.handlers.[HandlerClassName].queue-capacity / .overflow-policy (per handler)
+ *   payment.events.spill-dir (where SPILL handlers keep their overflow files; undelivered events survive a restart)
+ */
 @Component
 public class InMemoryPaymentEventPublisher implements PaymentEventPublisher{
-    private final List<PaymentEventHandler> handlers;
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(5);
 
-    public InMemoryPaymentEventPublisher(List<PaymentEventHandler> handlers) {
-        this.handlers = handlers;
+    private final List<PaymentEventHandler> synchronousHandlers = new ArrayList<>();
+    private final List<String> synchronousHandlerNames = new ArrayList<>();
+    private final List<HandlerWorker> workers = new ArrayList<>();
+
+    public InMemoryPaymentEventPublisher(List<PaymentEventHandler> handlers, Environment environment) {
+        int defaultCapacity = environment.getProperty("payment.events.queue-capacity", Integer.class, 10_000);
+        OverflowPolicy defaultPolicy = environment.getProperty("payment.events.overflow-policy", OverflowPolicy.class, OverflowPolicy.BLOCK);
+        Path spillDir = Path.of(environment.getProperty("payment.events.spill-dir", "data/event-spill"));
+
+        for (PaymentEventHandler handler : handlers) {
+            String name = ClassUtils.getUserClass(handler).getSimpleName();
+            if (handler.isSynchronous()) {
+                synchronousHandlers.add(handler);
+                synchronousHandlerNames.add(name);
+                continue;
+            }
+            String prefix = "payment.events.handlers." + name + ".";
+            int capacity = environment.getProperty(prefix + "queue-capacity", Integer.class, defaultCapacity);
+            OverflowPolicy policy = environment.getProperty(prefix + "overflow-policy", OverflowPolicy.class, defaultPolicy);
+            workers.add(new HandlerWorker(name, handler, capacity, policy, spillDir));
+        }
+        workers.forEach(HandlerWorker::start);
     }
 
 
     @Override
     public void publish(PaymentEvent paymentEvent) {
-        for (PaymentEventHandler handler: handlers) {
-            handler.handle(paymentEvent);
+        EventPublishEvent event = new EventPublishEvent();
+        event.begin();
+        for (int i = 0; i < synchronousHandlers.size(); i++) {
+            EventHandlerEvent.invoke(synchronousHandlerNames.get(i), synchronousHandlers.get(i), paymentEvent);
         }
+        for (HandlerWorker worker : workers) {
+            worker.submit(paymentEvent);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.eventId = paymentEvent.getEventId().toString();
+            event.eventType = paymentEvent.getEventType().name();
+            event.paymentId = paymentEvent.getAggregateId();
+            event.commit();
+        }
+    }
+
+    public List<HandlerStats> stats() {
+        List<HandlerStats> stats = new ArrayList<>();
+        for (PaymentEventHandler handler : synchronousHandlers) {
+            stats.add(new HandlerStats(ClassUtils.getUserClass(handler).getSimpleName(), true, null, 0, 0, 0, 0, 0, 0, 0, null));
+        }
+        for (HandlerWorker worker : workers) {
+            stats.add(worker.stats());
+        }
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.forEach(worker -> worker.stop(SHUTDOWN_TIMEOUT));
     }
 }
@@ -0,0 +1,8 @@
+package com.payment.event.publisher;
+
+// OverflowPolicy: what an async handler's queue does when it is full
+public enum OverflowPolicy {
+    BLOCK,  // publisher waits for space: no loss, but a stuck handler slows the caller
+    DROP,   // event is discarded and counted in HandlerStats.dropped
+    SPILL   // event is appended to a per-handler file and replayed in order once the queue drains
+}
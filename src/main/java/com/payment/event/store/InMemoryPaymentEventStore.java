@@ -3,22 +3,28 @@ package com.payment.event.store;
 import com.payment.event.model.PaymentEvent;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 @Component
 public class InMemoryPaymentEventStore implements  PaymentEventStore{
-    private final Map<String, List<PaymentEvent>> store = new HashMap<>();
+    // per-aggregate lists are copy-on-write: few events per payment, and readers (API, projection rebuild) never lock
+    private final Map<String, List<PaymentEvent>> store = new ConcurrentHashMap<>();
 
     @Override
     public void append(PaymentEvent event) {
-        store.computeIfAbsent(event.getAggregateId(), k -> new ArrayList<>()).add(event);
+        store.computeIfAbsent(event.getAggregateId(), k -> new CopyOnWriteArrayList<>()).add(event);
     }
 
     @Override
     public List<PaymentEvent> listByPaymentId(String paymentId) {
         return store.getOrDefault(paymentId, List.of());
     }
+
+    @Override
+    public List<String> listAggregateIds() {
+        return List.copyOf(store.keySet());
+    }
 }
@@ -7,4 +7,10 @@ import java.util.List;
 public interface PaymentEventStore {
     void append(PaymentEvent event);
     List<PaymentEvent> listByPaymentId(String paymentId);
+    List<String> listAggregateIds();
+
+    // true if events survive a restart; an in-memory store starts empty while durable payment stores do not
+    default boolean isDurable() {
+        return false;
+    }
 }
@@ -0,0 +1,11 @@
+package com.payment.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ClusterUnavailableException extends RuntimeException {
+    public ClusterUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
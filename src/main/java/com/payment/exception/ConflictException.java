@@ -6,6 +6,6 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 @ResponseStatus(HttpStatus.CONFLICT)
 public class ConflictException extends RuntimeException {
     public ConflictException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -6,6 +6,6 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 @ResponseStatus(HttpStatus.ACCEPTED)
 public class IdempotencyInProgressException extends RuntimeException {
     public IdempotencyInProgressException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
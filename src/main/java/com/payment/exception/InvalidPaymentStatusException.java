@@ -6,6 +6,6 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 @ResponseStatus(HttpStatus.CONFLICT)
 public class InvalidPaymentStatusException extends  RuntimeException{
     public  InvalidPaymentStatusException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
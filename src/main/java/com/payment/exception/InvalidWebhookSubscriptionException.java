@@ -0,0 +1,11 @@
+package com.payment.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidWebhookSubscriptionException extends RuntimeException {
+    public InvalidWebhookSubscriptionException(String message) {
+        super(message);
+    }
+}
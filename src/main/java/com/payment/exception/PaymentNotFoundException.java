@@ -6,6 +6,6 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 @ResponseStatus(HttpStatus.NOT_FOUND)
 public class PaymentNotFoundException extends  RuntimeException{
     public PaymentNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -0,0 +1,12 @@
+package com.payment.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// thrown when a payment was changed by someone else between being read and being saved; no stack trace, it is an expected race
+@ResponseStatus(HttpStatus.CONFLICT)
+public class PaymentVersionConflictException extends RuntimeException {
+    public PaymentVersionConflictException(String message) {
+        super(message, null, false, false);
+    }
+}
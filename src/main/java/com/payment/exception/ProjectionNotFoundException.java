@@ -0,0 +1,11 @@
+package com.payment.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class ProjectionNotFoundException extends RuntimeException {
+    public ProjectionNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,127 @@
+package com.payment.expiry;
+
+import com.payment.domain.PaymentStatus;
+import com.payment.event.handler.PaymentEventHandler;
+import com.payment.event.model.PaymentCanceledEvent;
+import com.payment.event.model.PaymentCreatedEvent;
+import com.payment.event.model.PaymentEvent;
+import com.payment.repository.PaymentRepository;
+import com.payment.service.PaymentService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * PaymentExpiryScheduler: cancels payments still CREATED once payment.expiry.ttl-seconds have passed.
+ *
+ * Each PaymentCreated event registers the payment's deadline in a {@link TimingWheel} and each PaymentCanceled
+ * event removes it, both in O(1). A single timer thread advances the wheel once per tick. It hands each batch of
+ * due ids to a worker thread, which expires them through PaymentService, so slow saves never hold up the wheel.
+ * Payments still CREATED in the repository at startup (recovered from the WAL or the database) have no event in
+ * this process, so they are registered from the repository before the timer starts.
+ * Expiry and a client cancel may race; the repository's version check lets only one of them save the cancel.
+ * A ttl of 0 (the default) turns expiry off; no threads are started.
+ */
+@Component
+public class PaymentExpiryScheduler implements PaymentEventHandler {
+    private final ObjectProvider<PaymentService> paymentService;
+    private final Duration ttl;
+    private final long tickMillis;
+    private final TimingWheel wheel;
+    private final Thread timer;
+    private final ExecutorService worker;
+    private volatile boolean running = true;
+
+    public PaymentExpiryScheduler(ObjectProvider<PaymentService> paymentService,
+                                  PaymentRepository paymentRepository,
+                                  @Value("${payment.expiry.ttl-seconds:0}") long ttlSeconds,
+                                  @Value("${payment.expiry.tick-ms:1000}") long tickMillis,
+                                  @Value("${payment.expiry.batch-size:500}") int batchSize) {
+        // PaymentService publishes to this handler, so it is looked up lazily
+        this.paymentService = paymentService;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.tickMillis = tickMillis;
+
+        if (ttlSeconds > 0) {
+            this.wheel = new TimingWheel(tickMillis, System.currentTimeMillis(), batchSize, this::submit);
+            paymentRepository.findByStatus(PaymentStatus.CREATED)
+                    .forEach(payment -> wheel.schedule(payment.getId(), payment.getCreatedAt().plus(ttl).toEpochMilli()));
+            this.worker = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "payment-expiry-worker");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.timer = new Thread(this::timerLoop, "payment-expiry-timer");
+            this.timer.setDaemon(true);
+            this.timer.start();
+        } else {
+            this.wheel = null;
+            this.worker = null;
+            this.timer = null;
+        }
+    }
+
+    @Override
+    public void handle(PaymentEvent paymentEvent) {
+        if (wheel == null) {
+            return;
+        }
+        if (paymentEvent instanceof PaymentCreatedEvent) {
+            wheel.schedule(paymentEvent.getAggregateId(), paymentEvent.getOccurredAt().plus(ttl).toEpochMilli());
+        } else if (paymentEvent instanceof PaymentCanceledEvent) {
+            wheel.cancel(paymentEvent.getAggregateId());
+        }
+    }
+
+    // two queue offers; cheaper inline than through a handler queue
+    @Override
+    public boolean isSynchronous() {
+        return true;
+    }
+
+    public int pendingCount() {
+        return wheel == null ? 0 : wheel.size();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (timer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(timer);
+        timer.join();
+        worker.shutdown();
+        worker.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private void timerLoop() {
+        long tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        while (running) {
+            try {
+                wheel.advanceTo(System.currentTimeMillis());
+            } catch (RuntimeException ex) {
+                System.err.println("[WARN] payment expiry tick failed. error=" + ex.getMessage());
+            }
+            LockSupport.parkNanos(tickNanos);
+        }
+    }
+
+    private void submit(List<String> paymentIds) {
+        worker.execute(() -> {
+            try {
+                paymentService.getObject().expirePayments(paymentIds);
+            } catch (RuntimeException ex) {
+                System.err.println("[WARN] payment expiry batch failed. size=" + paymentIds.size() + ", error=" + ex.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,202 @@
+package com.payment.expiry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * TimingWheel: hierarchical timing wheel of deadlines keyed by id.
+ *
+ * Four levels of 256 slots, each level's slot spanning 256 ticks of the level below, cover 2^32 ticks. An entry
+ * sits in the lowest level whose span reaches its deadline and is moved down (cascaded) when the wheel reaches
+ * the start of its slot. Slots are doubly linked lists, so an entry is linked and unlinked in O(1), and each
+ * tick only touches the entries due in it plus the slot being cascaded.
+ *
+ * Any thread may call schedule() and cancel(): they update the id index and queue the entry. Only the timer
+ * thread calls advanceTo(), which applies the queued changes and then walks the wheel up to the current time.
+ * Expired ids are handed to the consumer in batches of at most batchSize, on the timer thread.
+ */
+public class TimingWheel {
+    private static final int SLOT_BITS = 8;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELTA = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private final long tickMillis;
+    private final int batchSize;
+    private final Consumer<List<String>> expired;
+    private final Map<String, Entry> pending = new ConcurrentHashMap<>();
+    private final Queue<Entry> additions = new ConcurrentLinkedQueue<>();
+    private final Queue<Entry> cancellations = new ConcurrentLinkedQueue<>();
+
+    // owned by the timer thread
+    private final Entry[][] slots = new Entry[LEVELS][SLOTS];
+    private long currentTick;
+    private List<String> batch;
+
+    public TimingWheel(long tickMillis, long startMillis, int batchSize, Consumer<List<String>> expired) {
+        if (tickMillis <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("tick and batch size must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.batchSize = batchSize;
+        this.expired = expired;
+        this.currentTick = startMillis / tickMillis;
+        this.batch = new ArrayList<>(batchSize);
+    }
+
+    // replaces an earlier deadline for the same id
+    public void schedule(String id, long deadlineMillis) {
+        // rounded up, so an entry never fires before its deadline
+        Entry entry = new Entry(id, Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis));
+        Entry previous = pending.put(id, entry);
+        if (previous != null) {
+            discard(previous);
+        }
+        additions.add(entry);
+    }
+
+    public boolean cancel(String id) {
+        Entry entry = pending.remove(id);
+        if (entry == null) {
+            return false;
+        }
+        discard(entry);
+        return true;
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    // timer thread only
+    public void advanceTo(long nowMillis) {
+        Entry entry;
+        while ((entry = additions.poll()) != null) {
+            if (!entry.cancelled) {
+                link(entry);
+            }
+        }
+        while ((entry = cancellations.poll()) != null) {
+            unlink(entry);
+        }
+
+        long target = nowMillis / tickMillis;
+        while (currentTick < target) {
+            currentTick++;
+            if ((currentTick & MASK) == 0) {
+                cascade(1);
+            }
+            int slot = (int) (currentTick & MASK);
+            Entry due = slots[0][slot];
+            slots[0][slot] = null;
+            while (due != null) {
+                Entry next = due.next;
+                due.prev = due.next = null;
+                due.level = -1;
+                link(due); // due now, or relinked if its deadline lay beyond the wheel's range
+                due = next;
+            }
+        }
+        flush();
+    }
+
+    private void discard(Entry entry) {
+        entry.cancelled = true;
+        cancellations.add(entry);
+    }
+
+    private void cascade(int level) {
+        int slot = (int) ((currentTick >>> (SLOT_BITS * level)) & MASK);
+        if (slot == 0 && level + 1 < LEVELS) {
+            cascade(level + 1);
+        }
+        Entry entry = slots[level][slot];
+        slots[level][slot] = null;
+        while (entry != null) {
+            Entry next = entry.next;
+            entry.prev = entry.next = null;
+            entry.level = -1;
+            link(entry);
+            entry = next;
+        }
+    }
+
+    private void link(Entry entry) {
+        if (entry.deadlineTick <= currentTick) {
+            expire(entry);
+            return;
+        }
+        long delta = Math.min(entry.deadlineTick - currentTick, MAX_DELTA);
+        int level = 0;
+        while (delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        int slot = (int) (((currentTick + delta) >>> (SLOT_BITS * level)) & MASK);
+
+        Entry head = slots[level][slot];
+        entry.next = head;
+        if (head != null) {
+            head.prev = entry;
+        }
+        slots[level][slot] = entry;
+        entry.level = level;
+        entry.slot = slot;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.level < 0) {
+            return;
+        }
+        if (entry.prev == null) {
+            slots[entry.level][entry.slot] = entry.next;
+        } else {
+            entry.prev.next = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = entry.next = null;
+        entry.level = -1;
+    }
+
+    private void expire(Entry entry) {
+        // a concurrent cancel() or schedule() that already took the id wins
+        if (!pending.remove(entry.id, entry)) {
+            return;
+        }
+        batch.add(entry.id);
+        if (batch.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<String> full = batch;
+        batch = new ArrayList<>(batchSize);
+        expired.accept(full);
+    }
+
+    private static final class Entry {
+        private final String id;
+        private final long deadlineTick;
+        private volatile boolean cancelled;
+        private Entry prev;
+        private Entry next;
+        private int level = -1;
+        private int slot;
+
+        private Entry(String id, long deadlineTick) {
+            this.id = id;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.payment.hotkey;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * CountMinSketch: fixed-size frequency estimator. Each key increments one counter per row; its estimate is the
+ * smallest of those counters, which can only over-count (by colliding keys), never under-count.
+ *
+ * Rows are indexed from a 64-bit hash of the key's characters, seeded randomly per sketch, rather than from
+ * String.hashCode(): keys sharing a 32-bit hashCode (which are easy to craft) would otherwise collide in every
+ * row and inflate each other's estimates without bound. Row i indexes with bits 16i..16i+15 of the hash, so the
+ * rows are independent as long as the 64-bit hashes differ.
+ *
+ * Counters are updated without synchronization: under contention an increment can be lost, which slightly
+ * under-counts the very keys that are hot. That is acceptable for spotting heavy hitters and keeps an update
+ * to four array writes.
+ */
+public class CountMinSketch {
+    private static final int DEPTH = 4;
+
+    private final int[] table;
+    private final int width;
+    private final int mask;
+    private final long seed = ThreadLocalRandom.current().nextLong();
+
+    // width: counters per row, a power of two up to 65536 (each row indexes with its own 16 bits of the hash)
+    public CountMinSketch(int width) {
+        if (width <= 0 || width > 1 << 16 || Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("width must be a power of two <= 65536");
+        }
+        this.width = width;
+        this.mask = width - 1;
+        this.table = new int[DEPTH * width];
+    }
+
+    // adds one to the key's counters and returns its new estimate
+    public long increment(String key) {
+        long hash = hash(key);
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = row * width + ((int) (hash >>> (row * 16)) & mask);
+            int count = table[index];
+            if (count != Integer.MAX_VALUE) {
+                table[index] = ++count;
+            }
+            estimate = Math.min(estimate, count);
+        }
+        return estimate;
+    }
+
+    public long estimate(String key) {
+        long hash = hash(key);
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, table[row * width + ((int) (hash >>> (row * 16)) & mask)]);
+        }
+        return estimate;
+    }
+
+    // ages every counter so the sketch reflects recent traffic
+    public void halve() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] >>>= 1;
+        }
+    }
+
+    // reads the characters in place, so recording a key allocates nothing
+    private long hash(String key) {
+        long h = seed ^ key.length();
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x100000001B3L;
+            h ^= h >>> 31;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC2B2AE3D27D4EB4FL;
+        return h ^ (h >>> 29);
+    }
+}
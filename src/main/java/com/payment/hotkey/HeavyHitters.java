@@ -0,0 +1,96 @@
+package com.payment.hotkey;
+
+import com.payment.hotkey.model.HotKey;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * HeavyHitters: approximate top-K keys of a stream in fixed memory.
+ *
+ * Every key is counted in a count-min sketch; only keys whose estimate beats the weakest of the current top-K
+ * members take a lock to compete for a slot. Members keep no counts of their own - their counts are read from
+ * the sketch - so a key already in the top-K costs one map lookup on top of the sketch update.
+ */
+public class HeavyHitters {
+    private final int capacity;
+    private final CountMinSketch sketch;
+    private final Map<String, Boolean> members = new ConcurrentHashMap<>();
+    private volatile long admissionThreshold;
+
+    public HeavyHitters(int capacity, int sketchWidth) {
+        this.capacity = capacity;
+        this.sketch = new CountMinSketch(sketchWidth);
+    }
+
+    public void record(String key) {
+        long estimate = sketch.increment(key);
+        if (estimate <= admissionThreshold || members.containsKey(key)) {
+            return;
+        }
+        admit(key, estimate);
+    }
+
+    public List<HotKey> top() {
+        List<HotKey> result = new ArrayList<>(members.size());
+        for (String key : members.keySet()) {
+            long count = sketch.estimate(key);
+            if (count > 0) {
+                result.add(new HotKey(key, count));
+            }
+        }
+        result.sort(Comparator.comparingLong(HotKey::getEstimatedCount).reversed());
+        return result;
+    }
+
+    public synchronized void decay() {
+        sketch.halve();
+        members.keySet().removeIf(key -> sketch.estimate(key) == 0);
+        admissionThreshold = weakestMember();
+    }
+
+    private synchronized void admit(String key, long estimate) {
+        if (members.containsKey(key)) {
+            return;
+        }
+        if (members.size() < capacity) {
+            members.put(key, Boolean.TRUE);
+            if (members.size() == capacity) {
+                admissionThreshold = weakestMember();
+            }
+            return;
+        }
+
+        String weakest = null;
+        long weakestCount = Long.MAX_VALUE;
+        for (String member : members.keySet()) {
+            long count = sketch.estimate(member);
+            if (count < weakestCount) {
+                weakest = member;
+                weakestCount = count;
+            }
+        }
+        if (estimate > weakestCount) {
+            members.remove(weakest);
+            members.put(key, Boolean.TRUE);
+            admissionThreshold = weakestMember();
+        } else {
+            admissionThreshold = weakestCount;
+        }
+    }
+
+    // only meaningful once the top-K is full; until then every key may enter
+    private long weakestMember() {
+        if (members.size() < capacity) {
+            return 0;
+        }
+        long weakest = Long.MAX_VALUE;
+        for (String member : members.keySet()) {
+            weakest = Math.min(weakest, sketch.estimate(member));
+        }
+        return weakest;
+    }
+}
@@ -0,0 +1,100 @@
+package com.payment.hotkey;
+
+import com.payment.hotkey.model.HotKey;
+import com.payment.hotkey.model.HotKeySnapshot;
+import com.payment.security.SharedSecret;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// HotKeyTracker: heavy hitters among idempotency keys, payment ids and conflict sources seen by PaymentService.
+// Counts are halved every decay interval, so they reflect roughly the last two intervals of traffic.
+// Snapshots never carry the keys themselves: idempotency keys and payment ids are client data, so each key is
+// reported as a fingerprint, the first 16 hex digits of HMAC-SHA256(fingerprint-secret, key). With the secret
+// configured, an operator can fingerprint a suspect key and match it; without one, a random per-process secret
+// still tells the hot keys apart.
+@Component
+public class HotKeyTracker {
+    private static final int FINGERPRINT_BYTES = 8;
+
+    private final HeavyHitters idempotencyKeys;
+    private final HeavyHitters paymentIds;
+    private final HeavyHitters conflictSources;
+    private final long decayIntervalSeconds;
+    private final byte[] fingerprintSecret;
+    private final ScheduledExecutorService decayTimer;
+
+    public HotKeyTracker(@Value("${payment.hotkeys.top-k:20}") int topK,
+                         @Value("${payment.hotkeys.sketch-width:4096}") int sketchWidth,
+                         @Value("${payment.hotkeys.decay-interval-seconds:10}") long decayIntervalSeconds,
+                         @Value("${payment.hotkeys.fingerprint-secret:}") String fingerprintSecret) {
+        this.idempotencyKeys = new HeavyHitters(topK, sketchWidth);
+        this.paymentIds = new HeavyHitters(topK, sketchWidth);
+        this.conflictSources = new HeavyHitters(topK, sketchWidth);
+        this.decayIntervalSeconds = decayIntervalSeconds;
+        if (fingerprintSecret.isBlank()) {
+            this.fingerprintSecret = new byte[32];
+            new SecureRandom().nextBytes(this.fingerprintSecret);
+        } else {
+            this.fingerprintSecret = fingerprintSecret.getBytes(StandardCharsets.UTF_8);
+        }
+
+        if (decayIntervalSeconds > 0) {
+            decayTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "hot-key-decay");
+                thread.setDaemon(true);
+                return thread;
+            });
+            decayTimer.scheduleAtFixedRate(this::decay, decayIntervalSeconds, decayIntervalSeconds, TimeUnit.SECONDS);
+        } else {
+            decayTimer = null;
+        }
+    }
+
+    public void recordIdempotencyKey(String idempotencyKey) {
+        idempotencyKeys.record(idempotencyKey);
+    }
+
+    public void recordPaymentId(String paymentId) {
+        paymentIds.record(paymentId);
+    }
+
+    public void recordConflict(String source) {
+        conflictSources.record(source);
+    }
+
+    public HotKeySnapshot snapshot() {
+        return new HotKeySnapshot(decayIntervalSeconds,
+                fingerprinted(idempotencyKeys.top()), fingerprinted(paymentIds.top()), fingerprinted(conflictSources.top()));
+    }
+
+    public String fingerprint(String key) {
+        byte[] mac = SharedSecret.hmac(fingerprintSecret, key.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(mac, 0, FINGERPRINT_BYTES);
+    }
+
+    private List<HotKey> fingerprinted(List<HotKey> top) {
+        return top.stream().map(hot -> new HotKey(fingerprint(hot.getKey()), hot.getEstimatedCount())).toList();
+    }
+
+    void decay() {
+        idempotencyKeys.decay();
+        paymentIds.decay();
+        conflictSources.decay();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (decayTimer != null) {
+            decayTimer.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.payment.hotkey.model;
+
+public class HotKey {
+    private final String key;
+    private final long estimatedCount;
+
+    public HotKey(String key, long estimatedCount) {
+        this.key = key;
+        this.estimatedCount = estimatedCount;
+    }
+
+    public String getKey() { return key; }
+    public long getEstimatedCount() { return estimatedCount; }
+}
@@ -0,0 +1,22 @@
+package com.payment.hotkey.model;
+
+import java.util.List;
+
+public class HotKeySnapshot {
+    private final long decayIntervalSeconds;
+    private final List<HotKey> idempotencyKeys;
+    private final List<HotKey> paymentIds;
+    private final List<HotKey> conflictSources;
+
+    public HotKeySnapshot(long decayIntervalSeconds, List<HotKey> idempotencyKeys, List<HotKey> paymentIds, List<HotKey> conflictSources) {
+        this.decayIntervalSeconds = decayIntervalSeconds;
+        this.idempotencyKeys = idempotencyKeys;
+        this.paymentIds = paymentIds;
+        this.conflictSources = conflictSources;
+    }
+
+    public long getDecayIntervalSeconds() { return decayIntervalSeconds; }
+    public List<HotKey> getIdempotencyKeys() { return idempotencyKeys; }
+    public List<HotKey> getPaymentIds() { return paymentIds; }
+    public List<HotKey> getConflictSources() { return conflictSources; }
+}
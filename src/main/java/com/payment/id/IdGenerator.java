@@ -0,0 +1,8 @@
+package com.payment.id;
+
+import java.util.UUID;
+
+// IdGenerator: source of payment and event ids
+public interface IdGenerator {
+    UUID nextId();
+}
@@ -0,0 +1,16 @@
+package com.payment.id;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+// RandomIdGenerator: random (v4) UUIDs, enabled with payment.id.generator=random
+@Component
+@ConditionalOnProperty(name = "payment.id.generator", havingValue = "random")
+public class RandomIdGenerator implements IdGenerator {
+    @Override
+    public UUID nextId() {
+        return UUID.randomUUID();
+    }
+}
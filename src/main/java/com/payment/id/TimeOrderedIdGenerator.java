@@ -0,0 +1,65 @@
+package com.payment.id;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * TimeOrderedIdGenerator: UUIDv7-layout ids that sort by creation time.
+ *
+ * Layout: 48-bit unix millis | version 7 | 26-bit per-thread counter (12 bits in rand_a, 14 bits in rand_b)
+ * | variant | 48 random bits drawn per id.
+ * Each thread keeps its own last-millis and counter, so generation takes no shared lock and never touches
+ * SecureRandom. The counter only orders ids within a millisecond; the low 48 bits are fresh for every id, so
+ * knowing one id does not give away its neighbours. Ids from one thread are strictly increasing; ids from
+ * different threads are ordered by millisecond and kept apart by their random bits.
+ */
+@Component
+@ConditionalOnProperty(name = "payment.id.generator", havingValue = "time-ordered", matchIfMissing = true)
+public class TimeOrderedIdGenerator implements IdGenerator {
+    private static final int COUNTER_BITS = 26;
+    private static final int COUNTER_LOW_BITS = 14;
+    private static final long COUNTER_MAX = (1L << COUNTER_BITS) - 1;
+    private static final long COUNTER_LOW_MASK = (1L << COUNTER_LOW_BITS) - 1;
+    private static final long RANDOM_MASK = (1L << 48) - 1;
+    private static final long VERSION_7 = 0x7000L;
+    private static final long VARIANT_RFC4122 = 0x8000000000000000L;
+
+    private final LongSupplier clock;
+    private final ThreadLocal<State> state = ThreadLocal.withInitial(State::new);
+
+    public TimeOrderedIdGenerator() {
+        this(System::currentTimeMillis);
+    }
+
+    TimeOrderedIdGenerator(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public UUID nextId() {
+        State s = state.get();
+        long now = clock.getAsLong();
+
+        if (now > s.lastMillis) {
+            s.lastMillis = now;
+            s.counter = 0;
+        } else if (++s.counter > COUNTER_MAX) {
+            // counter exhausted within one millisecond (or the clock went backwards): borrow the next millisecond
+            s.lastMillis++;
+            s.counter = 0;
+        }
+
+        long msb = (s.lastMillis << 16) | VERSION_7 | (s.counter >>> COUNTER_LOW_BITS);
+        long lsb = VARIANT_RFC4122 | ((s.counter & COUNTER_LOW_MASK) << 48) | (ThreadLocalRandom.current().nextLong() & RANDOM_MASK);
+        return new UUID(msb, lsb);
+    }
+
+    private static final class State {
+        private long lastMillis = -1;
+        private long counter;
+    }
+}
@@ -0,0 +1,46 @@
+package com.payment.idempotency.cluster;
+
+import java.util.Objects;
+
+// ClusterNode: one member of the idempotency cluster and the address of its RPC listener
+public class ClusterNode {
+    private final String id;
+    private final String host;
+    private final int port;
+
+    public ClusterNode(String id, String host, int port) {
+        this.id = id;
+        this.host = host;
+        this.port = port;
+    }
+
+    // e.g. "n1@127.0.0.1:9101"
+    public static ClusterNode parse(String spec) {
+        int at = spec.indexOf('@');
+        int colon = spec.lastIndexOf(':');
+        if (at <= 0 || colon <= at + 1) {
+            throw new IllegalArgumentException("Expected id@host:port but got: " + spec);
+        }
+        return new ClusterNode(spec.substring(0, at).trim(), spec.substring(at + 1, colon).trim(),
+                Integer.parseInt(spec.substring(colon + 1).trim()));
+    }
+
+    public String getId() { return id; }
+    public String getHost() { return host; }
+    public int getPort() { return port; }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ClusterNode other && id.equals(other.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return id + "@" + host + ":" + port;
+    }
+}
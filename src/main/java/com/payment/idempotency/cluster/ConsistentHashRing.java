@@ -0,0 +1,71 @@
+package com.payment.idempotency.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+// ConsistentHashRing: maps idempotency keys to owner nodes. Each node is placed on the ring many times
+// (virtual nodes) so keys spread evenly and adding a node only moves ~1/N of the keys.
+// The ring is immutable and kept as sorted parallel arrays, so a lookup is one hash plus a binary search.
+public class ConsistentHashRing {
+    private final long[] points;
+    private final ClusterNode[] owners;
+
+    public ConsistentHashRing(Collection<ClusterNode> nodes, int virtualNodes) {
+        if (nodes.isEmpty() || virtualNodes <= 0) {
+            throw new IllegalArgumentException("ring needs at least one node and one virtual node per node");
+        }
+
+        int size = nodes.size() * virtualNodes;
+        long[] hashes = new long[size];
+        ClusterNode[] nodeAt = new ClusterNode[size];
+        int i = 0;
+        for (ClusterNode node : nodes) {
+            for (int v = 0; v < virtualNodes; v++) {
+                hashes[i] = hash(node.getId() + "#" + v);
+                nodeAt[i] = node;
+                i++;
+            }
+        }
+
+        Integer[] order = IntStream.range(0, size).boxed().toArray(Integer[]::new);
+        Arrays.sort(order, Comparator.comparingLong(idx -> hashes[idx]));
+        this.points = new long[size];
+        this.owners = new ClusterNode[size];
+        for (int k = 0; k < size; k++) {
+            points[k] = hashes[order[k]];
+            owners[k] = nodeAt[order[k]];
+        }
+    }
+
+    public ClusterNode ownerOf(String key) {
+        int idx = Arrays.binarySearch(points, hash(key));
+        if (idx < 0) {
+            idx = -idx - 1;
+        }
+        // wrap around: keys past the last point belong to the first one
+        return owners[idx == points.length ? 0 : idx];
+    }
+
+    public List<ClusterNode> nodes() {
+        return Arrays.stream(owners).distinct().toList();
+    }
+
+    // FNV-1a over the UTF-8 bytes, finished with the murmur3 fmix64 avalanche step
+    static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
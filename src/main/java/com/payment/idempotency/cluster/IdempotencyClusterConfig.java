@@ -0,0 +1,56 @@
+package com.payment.idempotency.cluster;
+
+import com.payment.idempotency.repository.InMemoryIdempotencyRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+// Cluster mode for idempotency keys, enabled with payment.cluster.enabled=true. Every node lists the same
+// payment.cluster.nodes (id@host:port of each node's RPC listener) and names itself with payment.cluster.node-id.
+// payment.cluster.secret is required: peers authenticate each other with it before any RPC.
+@Configuration
+@ConditionalOnProperty(name = "payment.cluster.enabled", havingValue = "true")
+public class IdempotencyClusterConfig {
+
+    @Bean
+    public ConsistentHashRing idempotencyRing(@Value("${payment.cluster.nodes}") String nodes,
+                                              @Value("${payment.cluster.virtual-nodes:128}") int virtualNodes) {
+        List<ClusterNode> members = Arrays.stream(nodes.split(","))
+                .map(String::trim)
+                .filter(spec -> !spec.isEmpty())
+                .map(ClusterNode::parse)
+                .toList();
+        return new ConsistentHashRing(members, virtualNodes);
+    }
+
+    @Bean
+    public ClusterNode selfNode(ConsistentHashRing idempotencyRing, @Value("${payment.cluster.node-id}") String nodeId) {
+        return idempotencyRing.nodes().stream()
+                .filter(node -> node.getId().equals(nodeId))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("payment.cluster.node-id=" + nodeId + " is not in payment.cluster.nodes"));
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public IdempotencyRpcServer idempotencyRpcServer(ClusterNode selfNode, InMemoryIdempotencyRepository local,
+                                                     @Value("${payment.cluster.secret:}") String secret) {
+        return new IdempotencyRpcServer(new InetSocketAddress(selfNode.getHost(), selfNode.getPort()), local, secret);
+    }
+
+    @Bean
+    @Primary
+    public PartitionedIdempotencyRepository partitionedIdempotencyRepository(ClusterNode selfNode,
+                                                                             ConsistentHashRing idempotencyRing,
+                                                                             InMemoryIdempotencyRepository local,
+                                                                             @Value("${payment.cluster.rpc-timeout-ms:2000}") long rpcTimeoutMillis,
+                                                                             @Value("${payment.cluster.secret:}") String secret) {
+        return new PartitionedIdempotencyRepository(selfNode, idempotencyRing, local, Duration.ofMillis(rpcTimeoutMillis), secret);
+    }
+}
@@ -0,0 +1,117 @@
+package com.payment.idempotency.cluster;
+
+import com.payment.domain.PaymentStatus;
+import com.payment.dto.PaymentResponse;
+import com.payment.idempotency.model.IdempotencyRecord;
+import com.payment.idempotency.model.RecordStatus;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Instant;
+
+/**
+ * IdempotencyRpc: wire format shared by the RPC server and client.
+ *
+ *   handshake: server -> client: byte[16] serverNonce
+ *              client -> server: byte[16] clientNonce | byte[32] proof("client", serverNonce)
+ *              server -> client: byte[32] proof("server", clientNonce)
+ *   request  = int length | byte op     | long requestId | payload
+ *   response = int length | long requestId | byte status  | payload
+ *
+ * Proofs are HMAC-SHA256 keyed with payment.cluster.secret, so only nodes that know the secret can claim,
+ * complete or read keys; a peer that fails is disconnected before its first request. A frame longer than
+ * MAX_FRAME_BYTES is refused before anything is allocated for it.
+ *
+ * A record travels with its completed response, if any (boolean present | id | amount | currency | status | times).
+ *
+ * Every request carries its own id, so a client may keep many requests in flight on one connection
+ * (pipelining); the server answers them in arrival order.
+ */
+final class IdempotencyRpc {
+    static final byte OP_SAVE = 1;
+    static final byte OP_FIND = 2;
+    static final byte OP_MARK_COMPLETED = 3;
+    static final byte OP_MARK_EXPIRED = 4;
+
+    static final byte STATUS_OK = 0;
+    static final byte STATUS_ABSENT = 1;
+    static final byte STATUS_ERROR = 2;
+
+    static final String CLIENT = "client";
+    static final String SERVER = "server";
+    // a record is at most five modified-UTF strings (64 KiB each) plus fixed-size fields
+    static final int MAX_FRAME_BYTES = 384 * 1024;
+    static final int HANDSHAKE_TIMEOUT_MILLIS = 3_000;
+
+    private IdempotencyRpc() {
+    }
+
+    static byte[] readFrame(DataInput in, int length) throws IOException {
+        if (length < 0 || length > MAX_FRAME_BYTES) {
+            throw new IOException("Idempotency rpc frame too large. length=" + length);
+        }
+        byte[] frame = new byte[length];
+        in.readFully(frame);
+        return frame;
+    }
+
+    static void writeRecord(DataOutput out, IdempotencyRecord record) throws IOException {
+        out.writeUTF(record.getIdempotencyKey());
+        out.writeUTF(record.getRequestHash());
+        out.writeUTF(record.getPaymentId());
+        out.writeLong(record.getCreatedAt().getEpochSecond());
+        out.writeInt(record.getCreatedAt().getNano());
+        out.writeByte(record.getRecordStatus().ordinal());
+        writeResponse(out, record.getResponse());
+    }
+
+    static IdempotencyRecord readRecord(DataInput in) throws IOException {
+        String key = in.readUTF();
+        String requestHash = in.readUTF();
+        String paymentId = in.readUTF();
+        Instant createdAt = Instant.ofEpochSecond(in.readLong(), in.readInt());
+        RecordStatus status = RecordStatus.values()[in.readByte()];
+        PaymentResponse response = readResponse(in);
+        IdempotencyRecord record = new IdempotencyRecord(key, requestHash, paymentId, createdAt, status);
+        if (response != null) {
+            record.complete(response);
+        }
+        return record;
+    }
+
+    static void writeResponse(DataOutput out, PaymentResponse response) throws IOException {
+        out.writeBoolean(response != null);
+        if (response == null) {
+            return;
+        }
+        out.writeUTF(response.getId());
+        out.writeLong(response.getAmount());
+        out.writeUTF(response.getCurrency());
+        out.writeByte(response.getStatus().ordinal());
+        writeInstant(out, response.getCreatedAt());
+        writeInstant(out, response.getUpdatedAt());
+    }
+
+    static PaymentResponse readResponse(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        String id = in.readUTF();
+        long amount = in.readLong();
+        String currency = in.readUTF();
+        PaymentStatus status = PaymentStatus.values()[in.readByte()];
+        Instant createdAt = readInstant(in);
+        Instant updatedAt = readInstant(in);
+        return new PaymentResponse(id, amount, currency, status, createdAt, updatedAt);
+    }
+
+    private static void writeInstant(DataOutput out, Instant instant) throws IOException {
+        out.writeLong(instant.getEpochSecond());
+        out.writeInt(instant.getNano());
+    }
+
+    private static Instant readInstant(DataInput in) throws IOException {
+        return Instant.ofEpochSecond(in.readLong(), in.readInt());
+    }
+}
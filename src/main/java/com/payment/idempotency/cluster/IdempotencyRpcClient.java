@@ -0,0 +1,231 @@
+package com.payment.idempotency.cluster;
+
+import com.payment.exception.ClusterUnavailableException;
+import com.payment.dto.PaymentResponse;
+import com.payment.idempotency.model.IdempotencyRecord;
+import com.payment.idempotency.model.IdempotencySaveResult;
+import com.payment.security.SharedSecret;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+// IdempotencyRpcClient: one pipelined connection to a peer. Callers on any thread write their request and
+// wait on their own future; a single reader thread matches responses back by request id.
+// A broken connection fails its in-flight calls and is replaced on the next call. Each connection proves
+// payment.cluster.secret to the owner, and checks the owner's proof, before sending anything.
+public class IdempotencyRpcClient implements Closeable {
+    private static final int CONNECT_TIMEOUT_MILLIS = 1_000;
+
+    private final ClusterNode node;
+    private final Duration timeout;
+    private final byte[] secret;
+    private final AtomicLong nextRequestId = new AtomicLong();
+    private volatile Connection connection;
+
+    public IdempotencyRpcClient(ClusterNode node, Duration timeout, String secret) {
+        this.node = node;
+        this.timeout = timeout;
+        this.secret = SharedSecret.secretBytes("payment.cluster.secret", secret);
+    }
+
+    public IdempotencySaveResult save(IdempotencyRecord record) {
+        DataInputStream response = call(IdempotencyRpc.OP_SAVE, out -> IdempotencyRpc.writeRecord(out, record));
+        return read(() -> IdempotencySaveResult.values()[response.readByte()]);
+    }
+
+    public Optional<IdempotencyRecord> findByIdempotency(String idempotencyKey) {
+        DataInputStream response = call(IdempotencyRpc.OP_FIND, out -> out.writeUTF(idempotencyKey));
+        return response == null ? Optional.empty() : Optional.of(read(() -> IdempotencyRpc.readRecord(response)));
+    }
+
+    public void markCompleted(String idempotencyKey, PaymentResponse paymentResponse) {
+        call(IdempotencyRpc.OP_MARK_COMPLETED, out -> {
+            out.writeUTF(idempotencyKey);
+            IdempotencyRpc.writeResponse(out, paymentResponse);
+        });
+    }
+
+    public void markExpired(String idempotencyKey) {
+        call(IdempotencyRpc.OP_MARK_EXPIRED, out -> out.writeUTF(idempotencyKey));
+    }
+
+    @Override
+    public void close() {
+        Connection current = connection;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    // returns the response payload, or null for STATUS_ABSENT
+    private DataInputStream call(byte op, PayloadWriter writer) {
+        long requestId = nextRequestId.incrementAndGet();
+        CompletableFuture<DataInputStream> future = new CompletableFuture<>();
+        Connection connection = null;
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+            DataOutputStream request = new DataOutputStream(buffer);
+            request.writeByte(op);
+            request.writeLong(requestId);
+            writer.write(request);
+            request.flush();
+            if (buffer.size() > IdempotencyRpc.MAX_FRAME_BYTES) {
+                // the owner would drop the connection over it, failing every other call in flight
+                throw new IllegalArgumentException("Idempotency rpc request too large. length=" + buffer.size());
+            }
+
+            connection = connection();
+            connection.pending.put(requestId, future);
+            connection.send(buffer);
+
+            DataInputStream response = future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            byte status = response.readByte();
+            if (status == IdempotencyRpc.STATUS_ERROR) {
+                throw new IllegalStateException(response.readUTF());
+            }
+            return status == IdempotencyRpc.STATUS_ABSENT ? null : response;
+        } catch (IOException | ExecutionException | TimeoutException e) {
+            throw new ClusterUnavailableException("Idempotency owner unavailable: " + node, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ClusterUnavailableException("Interrupted waiting for idempotency owner: " + node, e);
+        } finally {
+            if (connection != null) {
+                connection.pending.remove(requestId);
+            }
+        }
+    }
+
+    private Connection connection() throws IOException {
+        Connection current = connection;
+        if (current != null && !current.closed) {
+            return current;
+        }
+        synchronized (this) {
+            if (connection == null || connection.closed) {
+                connection = new Connection();
+            }
+            return connection;
+        }
+    }
+
+    private static <T> T read(PayloadReader<T> reader) {
+        try {
+            return reader.read();
+        } catch (IOException e) {
+            throw new IllegalStateException("Malformed idempotency rpc response", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface PayloadWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface PayloadReader<T> {
+        T read() throws IOException;
+    }
+
+    private class Connection {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+        private final Map<Long, CompletableFuture<DataInputStream>> pending = new ConcurrentHashMap<>();
+        private volatile boolean closed;
+
+        Connection() throws IOException {
+            socket = new Socket();
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(node.getHost(), node.getPort()), CONNECT_TIMEOUT_MILLIS);
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            try {
+                handshake();
+            } catch (IOException e) {
+                socket.close();
+                throw e;
+            }
+
+            Thread reader = new Thread(this::readLoop, "idempotency-rpc-client-" + node.getId());
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        private void handshake() throws IOException {
+            socket.setSoTimeout(IdempotencyRpc.HANDSHAKE_TIMEOUT_MILLIS);
+            byte[] serverNonce = new byte[SharedSecret.NONCE_BYTES];
+            in.readFully(serverNonce);
+            byte[] clientNonce = SharedSecret.nonce();
+            out.write(clientNonce);
+            out.write(SharedSecret.proof(secret, IdempotencyRpc.CLIENT, serverNonce));
+            out.flush();
+
+            byte[] proof = new byte[SharedSecret.PROOF_BYTES];
+            in.readFully(proof);
+            if (!SharedSecret.verify(secret, IdempotencyRpc.SERVER, clientNonce, proof)) {
+                throw new IOException("idempotency owner " + node + " failed authentication");
+            }
+            socket.setSoTimeout(0);
+        }
+
+        void send(ByteArrayOutputStream frame) throws IOException {
+            synchronized (out) {
+                try {
+                    out.writeInt(frame.size());
+                    frame.writeTo(out);
+                    out.flush();
+                } catch (IOException e) {
+                    close();
+                    throw e;
+                }
+            }
+        }
+
+        private void readLoop() {
+            try (in) {
+                while (true) {
+                    byte[] frame = IdempotencyRpc.readFrame(in, in.readInt());
+                    DataInputStream response = new DataInputStream(new ByteArrayInputStream(frame));
+                    CompletableFuture<DataInputStream> future = pending.get(response.readLong());
+                    if (future != null) {
+                        future.complete(response);
+                    }
+                }
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // already broken
+            }
+            IOException failure = new IOException("connection to " + node + " closed");
+            pending.values().forEach(future -> future.completeExceptionally(failure));
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.payment.idempotency.cluster;
+
+import com.payment.idempotency.model.IdempotencyRecord;
+import com.payment.idempotency.model.IdempotencySaveResult;
+import com.payment.idempotency.repository.IdempotencyRepository;
+import com.payment.security.SharedSecret;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// IdempotencyRpcServer: answers claims forwarded by other nodes for the keys this node owns.
+// One thread per peer connection; peers keep a single long-lived connection each, and must prove they know
+// payment.cluster.secret before their first request (see IdempotencyRpc). A request that fails, however
+// it fails, gets an error frame: frames are length-prefixed, so the connection stays usable for the next one.
+public class IdempotencyRpcServer implements Closeable {
+    private final InetSocketAddress address;
+    private final IdempotencyRepository local;
+    private final byte[] secret;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private volatile ServerSocket serverSocket;
+
+    public IdempotencyRpcServer(InetSocketAddress address, IdempotencyRepository local, String secret) {
+        this.address = address;
+        this.local = local;
+        this.secret = SharedSecret.secretBytes("payment.cluster.secret", secret);
+    }
+
+    public void start() throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(address);
+
+        Thread acceptor = new Thread(this::acceptLoop, "idempotency-rpc-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (serverSocket != null) {
+            serverSocket.close();
+        }
+        for (Socket socket : connections) {
+            socket.close();
+        }
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.add(socket);
+                Thread worker = new Thread(() -> serve(socket), "idempotency-rpc-" + socket.getRemoteSocketAddress());
+                worker.setDaemon(true);
+                worker.start();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.println("[WARN] idempotency rpc accept failed. error=" + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            if (!handshake(socket, in, out)) {
+                System.err.println("[WARN] idempotency rpc peer failed authentication. peer=" + socket.getRemoteSocketAddress());
+                return;
+            }
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                byte[] frame = IdempotencyRpc.readFrame(in, length);
+
+                byte[] response = handle(frame);
+                out.writeInt(response.length);
+                out.write(response);
+                // answer every pipelined request that is already buffered before paying for a flush
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            if (!socket.isClosed()) {
+                System.err.println("[WARN] idempotency rpc connection closed. error=" + e.getMessage());
+            }
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    private boolean handshake(Socket socket, DataInputStream in, DataOutputStream out) throws IOException {
+        socket.setSoTimeout(IdempotencyRpc.HANDSHAKE_TIMEOUT_MILLIS);
+        byte[] serverNonce = SharedSecret.nonce();
+        out.write(serverNonce);
+        out.flush();
+
+        byte[] clientNonce = new byte[SharedSecret.NONCE_BYTES];
+        byte[] proof = new byte[SharedSecret.PROOF_BYTES];
+        in.readFully(clientNonce);
+        in.readFully(proof);
+        if (!SharedSecret.verify(secret, IdempotencyRpc.CLIENT, serverNonce, proof)) {
+            return false;
+        }
+        out.write(SharedSecret.proof(secret, IdempotencyRpc.SERVER, clientNonce));
+        out.flush();
+        socket.setSoTimeout(0);
+        return true;
+    }
+
+    private byte[] handle(byte[] frame) throws IOException {
+        DataInputStream request = new DataInputStream(new ByteArrayInputStream(frame));
+        byte op = request.readByte();
+        long requestId = request.readLong();
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+        DataOutputStream response = new DataOutputStream(buffer);
+        response.writeLong(requestId);
+        try {
+            switch (op) {
+                case IdempotencyRpc.OP_SAVE -> {
+                    IdempotencySaveResult result = local.save(IdempotencyRpc.readRecord(request));
+                    response.writeByte(IdempotencyRpc.STATUS_OK);
+                    response.writeByte(result.ordinal());
+                }
+                case IdempotencyRpc.OP_FIND -> {
+                    Optional<IdempotencyRecord> record = local.findByIdempotency(request.readUTF());
+                    if (record.isPresent()) {
+                        response.writeByte(IdempotencyRpc.STATUS_OK);
+                        IdempotencyRpc.writeRecord(response, record.get());
+                    } else {
+                        response.writeByte(IdempotencyRpc.STATUS_ABSENT);
+                    }
+                }
+                case IdempotencyRpc.OP_MARK_COMPLETED -> {
+                    local.markCompleted(request.readUTF(), IdempotencyRpc.readResponse(request));
+                    response.writeByte(IdempotencyRpc.STATUS_OK);
+                }
+                case IdempotencyRpc.OP_MARK_EXPIRED -> {
+                    local.markExpired(request.readUTF());
+                    response.writeByte(IdempotencyRpc.STATUS_OK);
+                }
+                default -> throw new IllegalStateException("Unknown idempotency rpc op=" + op);
+            }
+        } catch (IOException | RuntimeException ex) {
+            // a malformed payload or a failing local store; only this request fails
+            buffer.reset();
+            response.writeLong(requestId);
+            response.writeByte(IdempotencyRpc.STATUS_ERROR);
+            response.writeUTF(ex.getClass().getSimpleName() + ": " + ex.getMessage());
+        }
+        response.flush();
+        return buffer.toByteArray();
+    }
+}
@@ -0,0 +1,74 @@
+package com.payment.idempotency.cluster;
+
+import com.payment.dto.PaymentResponse;
+import com.payment.idempotency.model.IdempotencyRecord;
+import com.payment.idempotency.model.IdempotencySaveResult;
+import com.payment.idempotency.repository.IdempotencyRepository;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// PartitionedIdempotencyRepository: every key has exactly one owner node on the hash ring. Keys owned by this
+// node go to the local repository; all others are forwarded to their owner, so a retry that lands on a
+// different instance still sees the original claim.
+public class PartitionedIdempotencyRepository implements IdempotencyRepository, Closeable {
+    private final ClusterNode self;
+    private final ConsistentHashRing ring;
+    private final IdempotencyRepository local;
+    private final Duration rpcTimeout;
+    private final String secret;
+    private final Map<String, IdempotencyRpcClient> clients = new ConcurrentHashMap<>();
+
+    public PartitionedIdempotencyRepository(ClusterNode self, ConsistentHashRing ring, IdempotencyRepository local,
+                                            Duration rpcTimeout, String secret) {
+        this.self = self;
+        this.ring = ring;
+        this.local = local;
+        this.rpcTimeout = rpcTimeout;
+        this.secret = secret;
+    }
+
+    @Override
+    public IdempotencySaveResult save(IdempotencyRecord idempotencyRecord) {
+        ClusterNode owner = ring.ownerOf(idempotencyRecord.getIdempotencyKey());
+        return owner.equals(self) ? local.save(idempotencyRecord) : client(owner).save(idempotencyRecord);
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> findByIdempotency(String idempotencyKey) {
+        ClusterNode owner = ring.ownerOf(idempotencyKey);
+        return owner.equals(self) ? local.findByIdempotency(idempotencyKey) : client(owner).findByIdempotency(idempotencyKey);
+    }
+
+    @Override
+    public void markCompleted(String idempotencyKey, PaymentResponse response) {
+        ClusterNode owner = ring.ownerOf(idempotencyKey);
+        if (owner.equals(self)) {
+            local.markCompleted(idempotencyKey, response);
+        } else {
+            client(owner).markCompleted(idempotencyKey, response);
+        }
+    }
+
+    @Override
+    public void markExpired(String idempotencyKey) {
+        ClusterNode owner = ring.ownerOf(idempotencyKey);
+        if (owner.equals(self)) {
+            local.markExpired(idempotencyKey);
+        } else {
+            client(owner).markExpired(idempotencyKey);
+        }
+    }
+
+    @Override
+    public void close() {
+        clients.values().forEach(IdempotencyRpcClient::close);
+    }
+
+    private IdempotencyRpcClient client(ClusterNode owner) {
+        return clients.computeIfAbsent(owner.getId(), id -> new IdempotencyRpcClient(owner, rpcTimeout, secret));
+    }
+}
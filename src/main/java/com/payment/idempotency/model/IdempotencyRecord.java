@@ -1,5 +1,7 @@
 package com.payment.idempotency.model;
 
+import com.payment.dto.PaymentResponse;
+
 import java.time.Instant;
 
 public class IdempotencyRecord {
@@ -7,7 +9,8 @@ public class IdempotencyRecord {
     private final String requestHash;
     private final String paymentId;
     private final Instant createdAt;
-    private RecordStatus recordStatus;
+    private volatile RecordStatus recordStatus;
+    private PaymentResponse response; // written before recordStatus becomes COMPLETED
 
     public IdempotencyRecord(String idempotencyKey, String requestHash, String paymentId, Instant createdAt, RecordStatus recordStatus) {
         this.idempotencyKey = idempotencyKey;
@@ -41,4 +44,14 @@ public class IdempotencyRecord {
     public void setRecordStatus(RecordStatus recordStatus) {
         this.recordStatus = recordStatus;
     }
+
+    // the response sent for the completed request, replayed as-is to retries; null until completed
+    public PaymentResponse getResponse() {
+        return response;
+    }
+
+    public void complete(PaymentResponse response) {
+        this.response = response;
+        this.recordStatus = RecordStatus.COMPLETED;
+    }
 }
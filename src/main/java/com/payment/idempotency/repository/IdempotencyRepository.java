@@ -1,5 +1,6 @@
 package com.payment.idempotency.repository;
 
+import com.payment.dto.PaymentResponse;
 import com.payment.idempotency.model.IdempotencyRecord;
 import com.payment.idempotency.model.IdempotencySaveResult;
 
@@ -8,6 +9,6 @@ import java.util.Optional;
 public interface IdempotencyRepository {
     IdempotencySaveResult save(IdempotencyRecord idempotencyRecord);
     Optional<IdempotencyRecord> findByIdempotency(String idempotencyKey);
-    void markCompleted(String idempotencyKey);
+    void markCompleted(String idempotencyKey, PaymentResponse response);
     void markExpired(String idempotencyKey);
 }
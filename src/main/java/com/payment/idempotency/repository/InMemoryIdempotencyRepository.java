@@ -1,5 +1,6 @@
 package com.payment.idempotency.repository;
 
+import com.payment.dto.PaymentResponse;
 import com.payment.idempotency.model.IdempotencyRecord;
 import com.payment.idempotency.model.IdempotencySaveResult;
 import com.payment.idempotency.model.RecordStatus;
@@ -25,14 +26,14 @@ public class InMemoryIdempotencyRepository implements IdempotencyRepository{
     }
 
     @Override
-    public void markCompleted(String idempotencyKey) {
+    public void markCompleted(String idempotencyKey, PaymentResponse response) {
         IdempotencyRecord record = store.get(idempotencyKey);
 
         if  (record == null) {
             throw new IllegalStateException("Idempotency record not found for key=" + idempotencyKey) ;
         }
 
-        record.setRecordStatus(RecordStatus.COMPLETED);
+        record.complete(response);
     }
 
     @Override
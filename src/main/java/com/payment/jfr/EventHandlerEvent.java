@@ -0,0 +1,55 @@
+package com.payment.jfr;
+
+import com.payment.event.handler.PaymentEventHandler;
+import com.payment.event.model.PaymentEvent;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("com.payment.EventHandler")
+@Label("Payment Event Handler")
+@Description("One handler's handle() call for one payment event")
+@Category({"Payment", "Events"})
+@Threshold("1 ms")
+@StackTrace(false)
+public class EventHandlerEvent extends Event {
+    @Label("Handler")
+    public String handler;
+
+    @Label("Event Id")
+    public String eventId;
+
+    @Label("Event Type")
+    public String eventType;
+
+    @Label("Payment Id")
+    public String paymentId;
+
+    @Label("Failed")
+    public boolean failed;
+
+    // runs handler.handle(event), recording it when enabled and over the threshold; exceptions propagate
+    public static void invoke(String handlerName, PaymentEventHandler handler, PaymentEvent paymentEvent) {
+        EventHandlerEvent event = new EventHandlerEvent();
+        event.begin();
+        boolean failed = true;
+        try {
+            handler.handle(paymentEvent);
+            failed = false;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.handler = handlerName;
+                event.eventId = paymentEvent.getEventId().toString();
+                event.eventType = paymentEvent.getEventType().name();
+                event.paymentId = paymentEvent.getAggregateId();
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    }
+}
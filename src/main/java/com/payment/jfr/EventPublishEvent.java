@@ -0,0 +1,26 @@
+package com.payment.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("com.payment.EventPublish")
+@Label("Payment Event Publish")
+@Description("Publishing a payment event: synchronous handlers plus enqueueing for the async ones")
+@Category({"Payment", "Events"})
+@Threshold("100 us")
+@StackTrace(false)
+public class EventPublishEvent extends Event {
+    @Label("Event Id")
+    public String eventId;
+
+    @Label("Event Type")
+    public String eventType;
+
+    @Label("Payment Id")
+    public String paymentId;
+}
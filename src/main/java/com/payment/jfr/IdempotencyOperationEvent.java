@@ -0,0 +1,29 @@
+package com.payment.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("com.payment.IdempotencyOperation")
+@Label("Idempotency Repository Operation")
+@Description("A lookup or write of an idempotency record")
+@Category({"Payment", "Repository"})
+@Threshold("100 us")
+@StackTrace(false)
+public class IdempotencyOperationEvent extends Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Idempotency Key")
+    public String idempotencyKey;
+
+    @Label("Result")
+    public String result;
+
+    @Label("Repository")
+    public String repository;
+}
@@ -0,0 +1,61 @@
+package com.payment.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("com.payment.PaymentOperation")
+@Label("Payment Operation")
+@Description("A createPayment or cancelPayment call and how its idempotency check ended")
+@Category({"Payment", "Service"})
+@Threshold("1 ms")
+@StackTrace(false)
+public class PaymentOperationEvent extends Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Payment Id")
+    public String paymentId;
+
+    @Label("Idempotency Key")
+    public String idempotencyKey;
+
+    @Label("Outcome")
+    public String outcome;
+
+    // what the call learns while it runs; copied into the recorded fields above only if the event is committed
+    private final transient String pendingOperation;
+    private transient String pendingPaymentId;
+    private final transient String pendingIdempotencyKey;
+    private transient PaymentOutcome pendingOutcome;
+
+    public PaymentOperationEvent(String operation, String paymentId, String idempotencyKey) {
+        this.pendingOperation = operation;
+        this.pendingPaymentId = paymentId;
+        this.pendingIdempotencyKey = idempotencyKey;
+    }
+
+    public void paymentId(String paymentId) {
+        this.pendingPaymentId = paymentId;
+    }
+
+    public void outcome(PaymentOutcome outcome) {
+        this.pendingOutcome = outcome;
+    }
+
+    // ends the event and records it when enabled and over the threshold
+    public void finish() {
+        end();
+        if (shouldCommit()) {
+            operation = pendingOperation;
+            paymentId = pendingPaymentId;
+            idempotencyKey = pendingIdempotencyKey;
+            outcome = pendingOutcome == null ? null : pendingOutcome.name();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.payment.jfr;
+
+import com.payment.exception.ConflictException;
+import com.payment.exception.IdempotencyInProgressException;
+import com.payment.exception.InvalidPaymentStatusException;
+import com.payment.exception.PaymentNotFoundException;
+import com.payment.exception.PaymentVersionConflictException;
+
+// PaymentOutcome: how a create or cancel ended, as recorded on PaymentOperationEvent
+public enum PaymentOutcome {
+    CREATED,
+    REPLAYED,            // answered from an existing idempotency record
+    CANCELED,
+    ALREADY_CANCELED,
+    EXPIRED,             // canceled by PaymentExpiryScheduler
+    CONFLICT,            // payload mismatch or expired idempotency key
+    IN_PROGRESS,
+    NOT_FOUND,
+    INVALID_STATUS,
+    INVALID_REQUEST,
+    ERROR;
+
+    public static PaymentOutcome of(RuntimeException ex) {
+        if (ex instanceof ConflictException || ex instanceof PaymentVersionConflictException) {
+            return CONFLICT;
+        }
+        if (ex instanceof IdempotencyInProgressException) {
+            return IN_PROGRESS;
+        }
+        if (ex instanceof PaymentNotFoundException) {
+            return NOT_FOUND;
+        }
+        if (ex instanceof InvalidPaymentStatusException) {
+            return INVALID_STATUS;
+        }
+        if (ex instanceof IllegalArgumentException) {
+            return INVALID_REQUEST;
+        }
+        return ERROR;
+    }
+}
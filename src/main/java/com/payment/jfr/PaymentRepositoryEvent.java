@@ -0,0 +1,32 @@
+package com.payment.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("com.payment.PaymentRepositoryOperation")
+@Label("Payment Repository Operation")
+@Description("A save or lookup of a payment")
+@Category({"Payment", "Repository"})
+@Threshold("100 us")
+@StackTrace(false)
+public class PaymentRepositoryEvent extends Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Payment Id")
+    public String paymentId;
+
+    @Label("Found")
+    public boolean found;
+
+    @Label("Failed")
+    public boolean failed;
+
+    @Label("Repository")
+    public String repository;
+}
@@ -0,0 +1,88 @@
+package com.payment.jfr;
+
+import com.payment.dto.PaymentResponse;
+import com.payment.idempotency.model.IdempotencyRecord;
+import com.payment.idempotency.model.IdempotencySaveResult;
+import com.payment.idempotency.repository.IdempotencyRepository;
+import org.springframework.util.ClassUtils;
+
+import java.util.Optional;
+
+// RecordingIdempotencyRepository: emits an IdempotencyOperationEvent around each call to the wrapped repository;
+// a call that throws is recorded with result FAILED
+public class RecordingIdempotencyRepository implements IdempotencyRepository {
+    private static final String FAILED = "FAILED";
+
+    private final IdempotencyRepository delegate;
+    private final String name;
+
+    public RecordingIdempotencyRepository(IdempotencyRepository delegate) {
+        this.delegate = delegate;
+        this.name = ClassUtils.getUserClass(delegate).getSimpleName();
+    }
+
+    @Override
+    public IdempotencySaveResult save(IdempotencyRecord idempotencyRecord) {
+        IdempotencyOperationEvent event = new IdempotencyOperationEvent();
+        event.begin();
+        String result = FAILED;
+        try {
+            IdempotencySaveResult saved = delegate.save(idempotencyRecord);
+            result = saved.name();
+            return saved;
+        } finally {
+            commit(event, "save", idempotencyRecord.getIdempotencyKey(), result);
+        }
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> findByIdempotency(String idempotencyKey) {
+        IdempotencyOperationEvent event = new IdempotencyOperationEvent();
+        event.begin();
+        String result = FAILED;
+        try {
+            Optional<IdempotencyRecord> record = delegate.findByIdempotency(idempotencyKey);
+            result = record.map(r -> r.getRecordStatus().name()).orElse("ABSENT");
+            return record;
+        } finally {
+            commit(event, "find", idempotencyKey, result);
+        }
+    }
+
+    @Override
+    public void markCompleted(String idempotencyKey, PaymentResponse response) {
+        IdempotencyOperationEvent event = new IdempotencyOperationEvent();
+        event.begin();
+        String result = FAILED;
+        try {
+            delegate.markCompleted(idempotencyKey, response);
+            result = "OK";
+        } finally {
+            commit(event, "markCompleted", idempotencyKey, result);
+        }
+    }
+
+    @Override
+    public void markExpired(String idempotencyKey) {
+        IdempotencyOperationEvent event = new IdempotencyOperationEvent();
+        event.begin();
+        String result = FAILED;
+        try {
+            delegate.markExpired(idempotencyKey);
+            result = "OK";
+        } finally {
+            commit(event, "markExpired", idempotencyKey, result);
+        }
+    }
+
+    private void commit(IdempotencyOperationEvent event, String operation, String idempotencyKey, String result) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.idempotencyKey = idempotencyKey;
+            event.result = result;
+            event.repository = name;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.payment.jfr;
+
+import com.payment.domain.Payment;
+import com.payment.domain.PaymentStatus;
+import com.payment.repository.PaymentRepository;
+import org.springframework.util.ClassUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+// RecordingPaymentRepository: emits a PaymentRepositoryEvent around each call to the wrapped repository,
+// including calls that throw (recorded with failed=true)
+public class RecordingPaymentRepository implements PaymentRepository {
+    private final PaymentRepository delegate;
+    private final String name;
+
+    public RecordingPaymentRepository(PaymentRepository delegate) {
+        this.delegate = delegate;
+        this.name = ClassUtils.getUserClass(delegate).getSimpleName();
+    }
+
+    @Override
+    public void save(Payment payment) {
+        PaymentRepositoryEvent event = new PaymentRepositoryEvent();
+        event.begin();
+        boolean failed = true;
+        try {
+            delegate.save(payment);
+            failed = false;
+        } finally {
+            commit(event, "save", payment.getId(), !failed, failed);
+        }
+    }
+
+    @Override
+    public Optional<Payment> findById(String id) {
+        PaymentRepositoryEvent event = new PaymentRepositoryEvent();
+        event.begin();
+        Optional<Payment> payment = Optional.empty();
+        boolean failed = true;
+        try {
+            payment = delegate.findById(id);
+            failed = false;
+            return payment;
+        } finally {
+            commit(event, "findById", id, payment.isPresent(), failed);
+        }
+    }
+
+    @Override
+    public List<Payment> findByStatus(PaymentStatus status) {
+        PaymentRepositoryEvent event = new PaymentRepositoryEvent();
+        event.begin();
+        List<Payment> payments = List.of();
+        boolean failed = true;
+        try {
+            payments = delegate.findByStatus(status);
+            failed = false;
+            return payments;
+        } finally {
+            commit(event, "findByStatus", null, !payments.isEmpty(), failed);
+        }
+    }
+
+    private void commit(PaymentRepositoryEvent event, String operation, String paymentId, boolean found, boolean failed) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.paymentId = paymentId;
+            event.found = found;
+            event.failed = failed;
+            event.repository = name;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.payment.projection;
+
+import com.payment.domain.Payment;
+import com.payment.domain.PaymentStatus;
+import com.payment.event.model.PaymentCanceledEvent;
+import com.payment.event.model.PaymentCreatedEvent;
+import com.payment.event.model.PaymentEvent;
+import com.payment.exception.PaymentVersionConflictException;
+import com.payment.repository.PaymentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// PaymentViewProjection: rebuilds the payments view in PaymentRepository from PaymentCreated/PaymentCanceled events.
+// The view is live while the rebuild runs, so install never overwrites a payment that changed after the replayed
+// state: a stored payment with a later updatedAt, or one saved concurrently (version conflict), is kept.
+// install saves from installConcurrency threads at once: both durable repositories batch concurrent saves (one
+// fsync per WAL group commit, one JDBC batch per writer round), while a single saving thread pays a full round
+// trip per payment. Partials are encoded field by field for the on-disk rebuild checkpoint.
+@Component
+public class PaymentViewProjection implements Projection<Map<String, Payment>> {
+    private static final PartialCodec<Map<String, Payment>> CODEC = new PaymentsCodec();
+
+    private final PaymentRepository paymentRepository;
+    private final int installConcurrency;
+
+    public PaymentViewProjection(PaymentRepository paymentRepository,
+                                 @Value("${payment.projection.install-concurrency:32}") int installConcurrency) {
+        if (installConcurrency <= 0) {
+            throw new IllegalArgumentException("install-concurrency must be positive");
+        }
+        this.paymentRepository = paymentRepository;
+        this.installConcurrency = installConcurrency;
+    }
+
+    @Override
+    public String name() {
+        return "payments";
+    }
+
+    @Override
+    public Map<String, Payment> emptyResult() {
+        return new HashMap<>();
+    }
+
+    @Override
+    public void apply(Map<String, Payment> result, PaymentEvent event) {
+        if (event instanceof PaymentCreatedEvent created) {
+            result.put(created.getAggregateId(), new Payment(
+                    created.getAggregateId(),
+                    created.getAmount(),
+                    created.getCurrency(),
+                    PaymentStatus.CREATED,
+                    created.getOccurredAt(),
+                    created.getOccurredAt()));
+        } else if (event instanceof PaymentCanceledEvent canceled) {
+            Payment payment = result.get(canceled.getAggregateId());
+            if (payment == null) {
+                System.err.println("[WARN] PaymentCanceled without PaymentCreated. paymentId=" + canceled.getAggregateId());
+                return;
+            }
+            payment.setStatus(PaymentStatus.CANCELED);
+            payment.setUpdatedAt(canceled.getOccurredAt());
+        }
+    }
+
+    @Override
+    public Map<String, Payment> merge(Map<String, Payment> left, Map<String, Payment> right) {
+        // partitions hold disjoint aggregates, so a plain putAll never overwrites
+        if (left.size() < right.size()) {
+            right.putAll(left);
+            return right;
+        }
+        left.putAll(right);
+        return left;
+    }
+
+    @Override
+    public PartialCodec<Map<String, Payment>> partialCodec() {
+        return CODEC;
+    }
+
+    @Override
+    public void install(Map<String, Payment> result) {
+        List<Payment> payments = new ArrayList<>(result.values());
+        int threads = Math.min(installConcurrency, payments.size());
+        if (threads <= 1) {
+            payments.forEach(this::installOne);
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "payment-view-install");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                int first = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = first; i < payments.size(); i += threads) {
+                        installOne(payments.get(i));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Payments view install interrupted", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void installOne(Payment payment) {
+        Optional<Payment> current = paymentRepository.findById(payment.getId());
+        if (current.isPresent() && current.get().getUpdatedAt().isAfter(payment.getUpdatedAt())) {
+            return;
+        }
+        // most payments are already stored; carry the stored version so the save updates the row instead of inserting it again
+        current.ifPresent(stored -> payment.setVersion(stored.getVersion()));
+        try {
+            paymentRepository.save(payment);
+        } catch (PaymentVersionConflictException ex) {
+            // changed by a live request since it was read, so it is newer than the replayed state
+        }
+    }
+
+    private static class PaymentsCodec implements PartialCodec<Map<String, Payment>> {
+        @Override
+        public void write(Map<String, Payment> partial, DataOutput out) throws IOException {
+            out.writeInt(partial.size());
+            for (Payment payment : partial.values()) {
+                out.writeUTF(payment.getId());
+                out.writeLong(payment.getAmount());
+                out.writeUTF(payment.getCurrency());
+                out.writeUTF(payment.getStatus().name());
+                writeInstant(out, payment.getCreatedAt());
+                writeInstant(out, payment.getUpdatedAt());
+            }
+        }
+
+        @Override
+        public Map<String, Payment> read(DataInput in) throws IOException {
+            int size = in.readInt();
+            Map<String, Payment> partial = new HashMap<>(Math.max(16, size * 2));
+            for (int i = 0; i < size; i++) {
+                String id = in.readUTF();
+                long amount = in.readLong();
+                String currency = in.readUTF();
+                PaymentStatus status;
+                try {
+                    status = PaymentStatus.valueOf(in.readUTF());
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Unknown payment status in checkpoint", e);
+                }
+                partial.put(id, new Payment(id, amount, currency, status, readInstant(in), readInstant(in)));
+            }
+            return partial;
+        }
+
+        private static void writeInstant(DataOutput out, Instant instant) throws IOException {
+            out.writeLong(instant.getEpochSecond());
+            out.writeInt(instant.getNano());
+        }
+
+        private static Instant readInstant(DataInput in) throws IOException {
+            return Instant.ofEpochSecond(in.readLong(), in.readInt());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.payment.projection;
+
+import com.payment.event.model.PaymentEvent;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Projection: derived state that can be rebuilt from the full event history.
+ *
+ * The rebuilder gives each partition of aggregates its own empty result, applies every aggregate's
+ * events to it in append order, and finally reduces the partials with {@link #merge}.
+ * merge may reuse and return {@code left}; partials are never shared across partitions.
+ * A projection that provides a {@link PartialCodec} gets its finished partitions written to the rebuild
+ * checkpoint on disk, so a rebuild can resume after a restart; without one the checkpoint stays in memory.
+ */
+public interface Projection<R> {
+    String name();
+    R emptyResult();
+    void apply(R result, PaymentEvent event);
+    R merge(R left, R right);
+    void install(R result);
+
+    default PartialCodec<R> partialCodec() {
+        return null;
+    }
+
+    interface PartialCodec<R> {
+        void write(R partial, DataOutput out) throws IOException;
+        R read(DataInput in) throws IOException;
+    }
+}
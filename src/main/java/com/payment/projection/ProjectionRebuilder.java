@@ -0,0 +1,249 @@
+package com.payment.projection;
+
+import com.payment.event.model.PaymentEvent;
+import com.payment.event.store.PaymentEventStore;
+import com.payment.exception.ConflictException;
+import com.payment.exception.ProjectionNotFoundException;
+import com.payment.projection.model.RebuildProgress;
+import com.payment.projection.model.RebuildStatus;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * ProjectionRebuilder: replays the full event history into a {@link Projection} on a fork-join pool.
+ *
+ * Aggregate ids are snapshotted, sorted and cut into fixed-size partitions. Phase one replays every partition
+ * independently (events of one aggregate always stay in one partition, so per-aggregate order is kept) and
+ * records each partial in a checkpoint. Phase two reduces the partials and installs the result.
+ * If phase one fails, the next rebuild of the same projection resumes from the checkpoint; aggregates created
+ * since then are added to it as extra partitions. For a projection with a {@link Projection.PartialCodec} the
+ * checkpoint is kept in {@code <checkpoint-dir>/<name>.checkpoint} as well, so the resume also works after a
+ * restart; an empty checkpoint-dir keeps every checkpoint in memory.
+ */
+@Component
+public class ProjectionRebuilder {
+    private final PaymentEventStore eventStore;
+    private final Map<String, Projection<?>> projections;
+    private final ForkJoinPool pool;
+    private final int partitionSize;
+    private final Path checkpointDir;
+    private final Map<String, RebuildCheckpoint<?>> checkpoints = new ConcurrentHashMap<>();
+    private final Map<String, RebuildJob> jobs = new ConcurrentHashMap<>();
+
+    public ProjectionRebuilder(PaymentEventStore eventStore,
+                               List<Projection<?>> projections,
+                               @Value("${payment.projection.parallelism:0}") int parallelism,
+                               @Value("${payment.projection.partition-size:1024}") int partitionSize,
+                               @Value("${payment.projection.checkpoint-dir:data/projection-checkpoints}") String checkpointDir) {
+        if (partitionSize <= 0) {
+            throw new IllegalArgumentException("partition-size must be positive");
+        }
+        this.eventStore = eventStore;
+        this.projections = projections.stream().collect(Collectors.toMap(Projection::name, Function.identity()));
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.partitionSize = partitionSize;
+        this.checkpointDir = checkpointDir.isBlank() ? null : Path.of(checkpointDir);
+    }
+
+    public RebuildProgress start(String name) {
+        Projection<?> projection = projections.get(name);
+        if (projection == null) {
+            throw new ProjectionNotFoundException("Projection Not Found: " + name);
+        }
+
+        RebuildJob job = register(projection);
+        pool.execute(() -> {
+            try {
+                run(projection, job);
+            } catch (RuntimeException ex) {
+                System.err.println("[WARN] projection rebuild failed. projection=" + name + ", error=" + ex.getMessage());
+            }
+        });
+        return job.progress();
+    }
+
+    public <R> R rebuild(Projection<R> projection) {
+        return run(projection, register(projection));
+    }
+
+    public RebuildProgress progress(String name) {
+        RebuildJob job = jobs.get(name);
+        if (job == null) {
+            throw new ProjectionNotFoundException("No rebuild recorded for projection: " + name);
+        }
+        return job.progress();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private RebuildJob register(Projection<?> projection) {
+        RebuildJob job = new RebuildJob(projection.name());
+        RebuildJob previous = jobs.compute(projection.name(), (k, existing) ->
+                existing != null && existing.status == RebuildStatus.RUNNING ? existing : job);
+        if (previous != job) {
+            throw new ConflictException("Projection rebuild already running: " + projection.name());
+        }
+        return job;
+    }
+
+    private <R> R run(Projection<R> projection, RebuildJob job) {
+        RebuildCheckpoint<R> checkpoint = checkpointFor(projection);
+        job.begin(checkpoint.partitionCount(), checkpoint.completedCount());
+
+        try {
+            pool.invoke(new ReplayAction<>(projection, checkpoint, job, 0, checkpoint.partitionCount()));
+        } catch (RuntimeException ex) {
+            // completed partitions stay in the checkpoint for the next attempt
+            job.fail(ex);
+            throw ex;
+        }
+
+        // merge may reuse partials, so past this point the checkpoint is no longer replayable
+        checkpoints.remove(projection.name());
+        checkpoint.delete();
+        try {
+            R result = checkpoint.partitionCount() == 0
+                    ? projection.emptyResult()
+                    : pool.invoke(new ReduceTask<>(projection, checkpoint, 0, checkpoint.partitionCount()));
+            projection.install(result);
+            job.complete();
+            return result;
+        } catch (RuntimeException ex) {
+            job.fail(ex);
+            throw ex;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R> RebuildCheckpoint<R> checkpointFor(Projection<R> projection) {
+        RebuildCheckpoint<R> checkpoint = (RebuildCheckpoint<R>) checkpoints.computeIfAbsent(projection.name(),
+                k -> new RebuildCheckpoint<R>(partitionSize,
+                        checkpointDir == null ? null : checkpointDir.resolve(k + ".checkpoint"),
+                        projection.partialCodec()));
+        checkpoint.addAggregates(eventStore.listAggregateIds());
+        return checkpoint;
+    }
+
+    private class ReplayAction<R> extends RecursiveAction {
+        private final Projection<R> projection;
+        private final RebuildCheckpoint<R> checkpoint;
+        private final RebuildJob job;
+        private final int from;
+        private final int to;
+
+        ReplayAction(Projection<R> projection, RebuildCheckpoint<R> checkpoint, RebuildJob job, int from, int to) {
+            this.projection = projection;
+            this.checkpoint = checkpoint;
+            this.job = job;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ReplayAction<>(projection, checkpoint, job, from, mid),
+                        new ReplayAction<>(projection, checkpoint, job, mid, to));
+                return;
+            }
+            if (from == to || checkpoint.completed(from) != null) {
+                return;
+            }
+
+            R partial = projection.emptyResult();
+            for (String aggregateId : checkpoint.partition(from)) {
+                List<PaymentEvent> events = eventStore.listByPaymentId(aggregateId);
+                for (PaymentEvent event : events) {
+                    projection.apply(partial, event);
+                }
+                job.aggregatesProcessed.increment();
+                job.eventsApplied.add(events.size());
+            }
+            checkpoint.markCompleted(from, partial);
+            job.completedPartitions.incrementAndGet();
+        }
+    }
+
+    private static class ReduceTask<R> extends RecursiveTask<R> {
+        private final Projection<R> projection;
+        private final RebuildCheckpoint<R> checkpoint;
+        private final int from;
+        private final int to;
+
+        ReduceTask(Projection<R> projection, RebuildCheckpoint<R> checkpoint, int from, int to) {
+            this.projection = projection;
+            this.checkpoint = checkpoint;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected R compute() {
+            if (to - from == 1) {
+                return checkpoint.completed(from);
+            }
+            int mid = (from + to) >>> 1;
+            ReduceTask<R> left = new ReduceTask<>(projection, checkpoint, from, mid);
+            left.fork();
+            R right = new ReduceTask<>(projection, checkpoint, mid, to).compute();
+            return projection.merge(left.join(), right);
+        }
+    }
+
+    private static class RebuildJob {
+        private final String projection;
+        private final Instant startedAt = Instant.now();
+        private final AtomicInteger completedPartitions = new AtomicInteger();
+        private final LongAdder aggregatesProcessed = new LongAdder();
+        private final LongAdder eventsApplied = new LongAdder();
+        private volatile RebuildStatus status = RebuildStatus.RUNNING;
+        private volatile int totalPartitions;
+        private volatile int resumedPartitions;
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        RebuildJob(String projection) {
+            this.projection = projection;
+        }
+
+        void begin(int totalPartitions, int resumedPartitions) {
+            this.totalPartitions = totalPartitions;
+            this.resumedPartitions = resumedPartitions;
+            this.completedPartitions.set(resumedPartitions);
+        }
+
+        void complete() {
+            finishedAt = Instant.now();
+            status = RebuildStatus.COMPLETED;
+        }
+
+        void fail(RuntimeException ex) {
+            error = ex.getMessage();
+            finishedAt = Instant.now();
+            status = RebuildStatus.FAILED;
+        }
+
+        RebuildProgress progress() {
+            return new RebuildProgress(projection, status, totalPartitions, completedPartitions.get(),
+                    resumedPartitions, aggregatesProcessed.sum(), eventsApplied.sum(), startedAt, finishedAt, error);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.payment.projection;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// RebuildCheckpoint: the aggregate ids a rebuild covers, cut into partitions, plus the partial result of every
+// partition that finished. A failed rebuild resumes from here and only replays the missing partitions.
+// Aggregates that appear between attempts are added as new partitions, so finished ones keep their index.
+// With a file and a codec, every new partition and every finished partial is appended to the file as it
+// happens (byte PARTITION | int n | n ids, byte COMPLETED | int index | int length | encoded partial), so the
+// checkpoint also survives a restart. Loading drops a torn last record and rewrites the file compactly.
+class RebuildCheckpoint<R> {
+    private static final byte PARTITION = 1;
+    private static final byte COMPLETED = 2;
+
+    private final int partitionSize;
+    private final List<List<String>> partitions = new ArrayList<>();
+    private final Set<String> aggregateIds = new HashSet<>();
+    private final Map<Integer, R> completed = new ConcurrentHashMap<>();
+    private final Path file;
+    private final Projection.PartialCodec<R> codec;
+    private DataOutputStream out; // guarded by this; null when the checkpoint is memory-only
+
+    RebuildCheckpoint(int partitionSize, Path file, Projection.PartialCodec<R> codec) {
+        this.partitionSize = partitionSize;
+        this.file = codec == null ? null : file;
+        this.codec = codec;
+        if (this.file != null) {
+            open();
+        }
+    }
+
+    // called by one rebuild at a time, before its partitions are replayed
+    void addAggregates(Collection<String> ids) {
+        List<String> added = new ArrayList<>();
+        for (String id : ids) {
+            if (aggregateIds.add(id)) {
+                added.add(id);
+            }
+        }
+        added.sort(null);
+        for (int from = 0; from < added.size(); from += partitionSize) {
+            List<String> partition = List.copyOf(added.subList(from, Math.min(from + partitionSize, added.size())));
+            partitions.add(partition);
+            persist(PARTITION, -1, partition, null);
+        }
+    }
+
+    int partitionCount() {
+        return partitions.size();
+    }
+
+    List<String> partition(int index) {
+        return partitions.get(index);
+    }
+
+    R completed(int index) {
+        return completed.get(index);
+    }
+
+    void markCompleted(int index, R partial) {
+        completed.put(index, partial);
+        persist(COMPLETED, index, null, partial);
+    }
+
+    int completedCount() {
+        return completed.size();
+    }
+
+    // the rebuild got past replaying: nothing to resume any more
+    synchronized void delete() {
+        closeFile();
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                System.err.println("[WARN] deleting rebuild checkpoint failed. file=" + file + ", error=" + e.getMessage());
+            }
+        }
+    }
+
+    private synchronized void persist(byte type, int index, List<String> partition, R partial) {
+        if (out == null) {
+            return;
+        }
+        try {
+            write(out, type, index, partition, partial);
+            out.flush();
+        } catch (IOException e) {
+            // a checkpoint missing records would resume wrongly: drop it and carry on in memory
+            System.err.println("[WARN] writing rebuild checkpoint failed, keeping it in memory only. file=" + file + ", error=" + e.getMessage());
+            delete();
+        }
+    }
+
+    private void write(DataOutputStream to, byte type, int index, List<String> partition, R partial) throws IOException {
+        to.writeByte(type);
+        if (type == PARTITION) {
+            to.writeInt(partition.size());
+            for (String id : partition) {
+                to.writeUTF(id);
+            }
+        } else {
+            ByteArrayOutputStream encoded = new ByteArrayOutputStream(1024);
+            codec.write(partial, new DataOutputStream(encoded));
+            to.writeInt(index);
+            to.writeInt(encoded.size());
+            encoded.writeTo(to);
+        }
+    }
+
+    private void open() {
+        try {
+            Files.createDirectories(file.getParent());
+            if (Files.exists(file)) {
+                load();
+            }
+            // rewrite what was loaded, without a torn tail, then append behind it
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream rewrite = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                for (List<String> partition : partitions) {
+                    write(rewrite, PARTITION, -1, partition, null);
+                }
+                for (Map.Entry<Integer, R> entry : completed.entrySet()) {
+                    write(rewrite, COMPLETED, entry.getKey(), null, entry.getValue());
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.APPEND)));
+        } catch (IOException e) {
+            System.err.println("[WARN] rebuild checkpoint unusable, keeping it in memory only. file=" + file + ", error=" + e.getMessage());
+            partitions.clear();
+            aggregateIds.clear();
+            completed.clear();
+            delete();
+        }
+    }
+
+    private void load() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            while (true) {
+                byte type;
+                try {
+                    type = in.readByte();
+                } catch (EOFException e) {
+                    return;
+                }
+                try {
+                    if (type == PARTITION) {
+                        int size = in.readInt();
+                        List<String> partition = new ArrayList<>(size);
+                        for (int i = 0; i < size; i++) {
+                            partition.add(in.readUTF());
+                        }
+                        partitions.add(List.copyOf(partition));
+                        aggregateIds.addAll(partition);
+                    } else if (type == COMPLETED) {
+                        int index = in.readInt();
+                        byte[] encoded = new byte[in.readInt()];
+                        in.readFully(encoded);
+                        completed.put(index, codec.read(new DataInputStream(new ByteArrayInputStream(encoded))));
+                    } else {
+                        throw new IOException("Unknown rebuild checkpoint record type=" + type);
+                    }
+                } catch (EOFException e) {
+                    // torn by a crash mid-append
+                    return;
+                }
+            }
+        }
+    }
+
+    private void closeFile() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                // the file is being discarded
+            }
+            out = null;
+        }
+    }
+}
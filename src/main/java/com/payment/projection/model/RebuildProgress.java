@@ -0,0 +1,42 @@
+package com.payment.projection.model;
+
+import java.time.Instant;
+
+public class RebuildProgress {
+    private final String projection;
+    private final RebuildStatus status;
+    private final int totalPartitions;
+    private final int completedPartitions;
+    private final int resumedPartitions; // taken from the checkpoint instead of being replayed
+    private final long aggregatesProcessed;
+    private final long eventsApplied;
+    private final Instant startedAt;
+    private final Instant finishedAt; // nullable
+    private final String error; // nullable
+
+    public RebuildProgress(String projection, RebuildStatus status, int totalPartitions, int completedPartitions,
+                           int resumedPartitions, long aggregatesProcessed, long eventsApplied,
+                           Instant startedAt, Instant finishedAt, String error) {
+        this.projection = projection;
+        this.status = status;
+        this.totalPartitions = totalPartitions;
+        this.completedPartitions = completedPartitions;
+        this.resumedPartitions = resumedPartitions;
+        this.aggregatesProcessed = aggregatesProcessed;
+        this.eventsApplied = eventsApplied;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.error = error;
+    }
+
+    public String getProjection() { return projection; }
+    public RebuildStatus getStatus() { return status; }
+    public int getTotalPartitions() { return totalPartitions; }
+    public int getCompletedPartitions() { return completedPartitions; }
+    public int getResumedPartitions() { return resumedPartitions; }
+    public long getAggregatesProcessed() { return aggregatesProcessed; }
+    public long getEventsApplied() { return eventsApplied; }
+    public Instant getStartedAt() { return startedAt; }
+    public Instant getFinishedAt() { return finishedAt; }
+    public String getError() { return error; }
+}
@@ -0,0 +1,7 @@
+package com.payment.projection.model;
+
+public enum RebuildStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,39 @@
+package com.payment.reconciliation;
+
+import com.payment.domain.Payment;
+import com.payment.domain.PaymentStatus;
+import com.payment.repository.PaymentRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+// ChangeTrackingPaymentRepository: marks every saved payment in the reconciliation change set
+public class ChangeTrackingPaymentRepository implements PaymentRepository {
+    private final PaymentRepository delegate;
+    private final ReconciliationChangeSet changes;
+
+    public ChangeTrackingPaymentRepository(PaymentRepository delegate, ReconciliationChangeSet changes) {
+        this.delegate = delegate;
+        this.changes = changes;
+    }
+
+    @Override
+    public void save(Payment payment) {
+        try {
+            delegate.save(payment);
+        } finally {
+            // a failed save may still have half-applied, so it is checked too
+            changes.mark(payment.getId());
+        }
+    }
+
+    @Override
+    public Optional<Payment> findById(String id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<Payment> findByStatus(PaymentStatus status) {
+        return delegate.findByStatus(status);
+    }
+}
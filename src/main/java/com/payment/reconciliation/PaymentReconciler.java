@@ -0,0 +1,281 @@
+package com.payment.reconciliation;
+
+import com.payment.domain.Payment;
+import com.payment.domain.PaymentStatus;
+import com.payment.event.model.PaymentEvent;
+import com.payment.event.model.PaymentEventType;
+import com.payment.event.store.PaymentEventStore;
+import com.payment.projection.PaymentViewProjection;
+import com.payment.reconciliation.model.MismatchType;
+import com.payment.reconciliation.model.ReconciliationMismatch;
+import com.payment.reconciliation.model.ReconciliationReport;
+import com.payment.repository.PaymentRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * PaymentReconciler: checks that stored payments match what the event store says happened.
+ *
+ * A run only looks at the payments in {@link ReconciliationChangeSet}, i.e. those saved or given an event since
+ * the previous run, so its cost follows the change rate rather than the number of payments. The drained ids are
+ * split into partitions and compared on a fork-join pool. Each payment is compared with the result of folding
+ * its events through {@link PaymentViewProjection}.
+ *
+ * A save and its event are not written atomically, so a payment changed within the settle window that does not
+ * match is put back into the change set and checked again on a later run. Mismatches stay open until a later
+ * check of the same payment comes out clean.
+ *
+ * The change set lives in memory, while the payment store may be durable, so changes made before a restart
+ * (or by a crash halfway through a save) would never be looked at again. The first run after startup therefore
+ * seeds the change set with every aggregate in the event store and, if the event store is durable, every
+ * payment, i.e. one full pass.
+ *
+ * An event store that is not durable has lost the history of every payment created before this process
+ * started, so such a payment is only compared when the store still holds its PaymentCreated event (e.g. a
+ * follower's replicated snapshot); otherwise it is skipped rather than reported as MISSING_EVENTS. At most
+ * max-mismatches mismatches are kept open; further ones are only counted.
+ */
+@Component
+public class PaymentReconciler {
+    private static final int REPORTED_MISMATCHES = 100;
+
+    private final ReconciliationChangeSet changes;
+    private final PaymentRepository paymentRepository;
+    private final PaymentEventStore eventStore;
+    private final PaymentViewProjection viewProjection;
+    private final Duration settle;
+    private final int partitionSize;
+    private final ForkJoinPool pool;
+    private final ScheduledExecutorService timer;
+    private final int maxMismatches;
+    private final Instant startedAt = Instant.now();
+    private final Map<String, ReconciliationMismatch> mismatches = new ConcurrentHashMap<>();
+    private final LongAdder totalChecked = new LongAdder();
+    private final LongAdder untrackedMismatches = new LongAdder();
+    private boolean seeded; // guarded by this
+    private volatile long runs;
+    private volatile Instant lastRunAt;
+    private volatile int lastRunChecked;
+    private volatile int lastRunDeferred;
+    private volatile int lastRunSkipped;
+    private volatile long lastRunMillis;
+
+    public PaymentReconciler(ReconciliationChangeSet changes,
+                             PaymentRepository paymentRepository,
+                             PaymentEventStore eventStore,
+                             PaymentViewProjection viewProjection,
+                             @Value("${payment.reconciliation.interval-ms:5000}") long intervalMillis,
+                             @Value("${payment.reconciliation.settle-ms:2000}") long settleMillis,
+                             @Value("${payment.reconciliation.parallelism:0}") int parallelism,
+                             @Value("${payment.reconciliation.partition-size:256}") int partitionSize,
+                             @Value("${payment.reconciliation.max-mismatches:10000}") int maxMismatches) {
+        if (partitionSize <= 0) {
+            throw new IllegalArgumentException("partition-size must be positive");
+        }
+        this.changes = changes;
+        this.paymentRepository = paymentRepository;
+        this.eventStore = eventStore;
+        this.viewProjection = viewProjection;
+        this.settle = Duration.ofMillis(settleMillis);
+        this.partitionSize = partitionSize;
+        this.maxMismatches = maxMismatches;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+
+        if (intervalMillis > 0) {
+            timer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "payment-reconciler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            timer.scheduleWithFixedDelay(this::runScheduled, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            timer = null;
+        }
+    }
+
+    // one run at a time, whether started by the timer or through the endpoint
+    public synchronized ReconciliationReport reconcile() {
+        long start = System.nanoTime();
+        Instant now = Instant.now();
+        if (!seeded) {
+            seedFullPass();
+            seeded = true;
+        }
+        List<String> ids = changes.drain();
+        LongAdder deferred = new LongAdder();
+        LongAdder skipped = new LongAdder();
+        if (!ids.isEmpty()) {
+            pool.invoke(new CompareAction(ids, 0, ids.size(), now, deferred, skipped));
+        }
+
+        totalChecked.add(ids.size());
+        lastRunChecked = ids.size();
+        lastRunDeferred = deferred.intValue();
+        lastRunSkipped = skipped.intValue();
+        lastRunMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        lastRunAt = now;
+        runs++;
+        return report();
+    }
+
+    public ReconciliationReport report() {
+        List<ReconciliationMismatch> open = mismatches.values().stream()
+                .sorted(Comparator.comparing(ReconciliationMismatch::getDetectedAt))
+                .limit(REPORTED_MISMATCHES)
+                .toList();
+        return new ReconciliationReport(runs, lastRunAt, lastRunChecked, lastRunDeferred, lastRunSkipped, lastRunMillis,
+                totalChecked.sum(), changes.size(), mismatches.size(), untrackedMismatches.sum(), open);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+        pool.shutdownNow();
+    }
+
+    private void seedFullPass() {
+        if (eventStore.isDurable()) {
+            // otherwise every payment from before the restart would be skipped by check() anyway
+            for (PaymentStatus status : PaymentStatus.values()) {
+                for (Payment payment : paymentRepository.findByStatus(status)) {
+                    changes.mark(payment.getId());
+                }
+            }
+        }
+        for (String paymentId : eventStore.listAggregateIds()) {
+            changes.mark(paymentId);
+        }
+    }
+
+    private void runScheduled() {
+        try {
+            reconcile();
+        } catch (RuntimeException ex) {
+            System.err.println("[WARN] reconciliation run failed. error=" + ex.getMessage());
+        }
+    }
+
+    private void check(String paymentId, Instant now, LongAdder deferred, LongAdder skipped) {
+        Payment stored = paymentRepository.findById(paymentId).orElse(null);
+        List<PaymentEvent> events = eventStore.listByPaymentId(paymentId);
+        if (stored != null && predatesEventHistory(stored, events)) {
+            mismatches.remove(paymentId);
+            skipped.increment();
+            return;
+        }
+        Map<String, Payment> view = viewProjection.emptyResult();
+        for (PaymentEvent event : events) {
+            viewProjection.apply(view, event);
+        }
+        Payment expected = view.get(paymentId);
+
+        ReconciliationMismatch mismatch = compare(paymentId, stored, expected, events, now);
+        if (mismatch == null) {
+            mismatches.remove(paymentId);
+            return;
+        }
+
+        Instant lastChange = events.isEmpty() ? Instant.MIN : events.get(events.size() - 1).getOccurredAt();
+        if (stored != null && stored.getUpdatedAt().isAfter(lastChange)) {
+            lastChange = stored.getUpdatedAt();
+        }
+        if (lastChange.plus(settle).isAfter(now)) {
+            // the matching save or event may still be on its way
+            changes.mark(paymentId);
+            deferred.increment();
+            return;
+        }
+        // partitions are checked in parallel: size check and insert together, or the cap is only approximate
+        synchronized (mismatches) {
+            if (mismatches.size() >= maxMismatches && !mismatches.containsKey(paymentId)) {
+                untrackedMismatches.increment();
+                return;
+            }
+            mismatches.merge(paymentId, mismatch, (previous, current) ->
+                    previous.getType() == current.getType() ? previous : current);
+        }
+    }
+
+    private boolean predatesEventHistory(Payment stored, List<PaymentEvent> events) {
+        if (eventStore.isDurable() || !stored.getCreatedAt().isBefore(startedAt)) {
+            return false;
+        }
+        for (PaymentEvent event : events) {
+            if (event.getEventType() == PaymentEventType.PAYMENT_CREATED) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ReconciliationMismatch compare(String paymentId, Payment stored, Payment expected, List<PaymentEvent> events, Instant now) {
+        if (stored == null && expected == null) {
+            return events.isEmpty() ? null
+                    : new ReconciliationMismatch(paymentId, MismatchType.MISSING_PAYMENT, "events=" + events.size() + " without PaymentCreated", now);
+        }
+        if (expected == null) {
+            return new ReconciliationMismatch(paymentId, MismatchType.MISSING_EVENTS,
+                    "repository=" + stored.getStatus() + ", events=" + events.size() + " without PaymentCreated", now);
+        }
+        if (stored == null) {
+            return new ReconciliationMismatch(paymentId, MismatchType.MISSING_PAYMENT, "events=" + expected.getStatus(), now);
+        }
+        if (stored.getStatus() != expected.getStatus()) {
+            return new ReconciliationMismatch(paymentId, MismatchType.STATUS_MISMATCH,
+                    "repository=" + stored.getStatus() + ", events=" + expected.getStatus(), now);
+        }
+        if (stored.getAmount() != expected.getAmount() || !stored.getCurrency().equals(expected.getCurrency())) {
+            return new ReconciliationMismatch(paymentId, MismatchType.DETAILS_MISMATCH,
+                    "repository=" + stored.getAmount() + " " + stored.getCurrency()
+                            + ", events=" + expected.getAmount() + " " + expected.getCurrency(), now);
+        }
+        return null;
+    }
+
+    private class CompareAction extends RecursiveAction {
+        private final List<String> ids;
+        private final int from;
+        private final int to;
+        private final Instant now;
+        private final LongAdder deferred;
+        private final LongAdder skipped;
+
+        CompareAction(List<String> ids, int from, int to, Instant now, LongAdder deferred, LongAdder skipped) {
+            this.ids = ids;
+            this.from = from;
+            this.to = to;
+            this.now = now;
+            this.deferred = deferred;
+            this.skipped = skipped;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > partitionSize) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new CompareAction(ids, from, mid, now, deferred, skipped),
+                        new CompareAction(ids, mid, to, now, deferred, skipped));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                check(ids.get(i), now, deferred, skipped);
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.payment.reconciliation;
+
+import com.payment.event.handler.PaymentEventHandler;
+import com.payment.event.model.PaymentEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// ReconciliationChangeSet: ids of payments touched since the last reconciliation run, from repository
+// writes (ChangeTrackingPaymentRepository) and from published events. Each id is held once however often it changes.
+@Component
+public class ReconciliationChangeSet implements PaymentEventHandler {
+    private final Set<String> changed = ConcurrentHashMap.newKeySet();
+
+    public void mark(String paymentId) {
+        changed.add(paymentId);
+    }
+
+    @Override
+    public void handle(PaymentEvent paymentEvent) {
+        mark(paymentEvent.getAggregateId());
+    }
+
+    // a set add, cheaper than a queue hand-off
+    @Override
+    public boolean isSynchronous() {
+        return true;
+    }
+
+    public int size() {
+        return changed.size();
+    }
+
+    // takes the current ids out of the set; an id marked again meanwhile stays for the next run
+    List<String> drain() {
+        List<String> ids = new ArrayList<>(changed.size());
+        Iterator<String> it = changed.iterator();
+        while (it.hasNext()) {
+            ids.add(it.next());
+            it.remove();
+        }
+        return ids;
+    }
+}
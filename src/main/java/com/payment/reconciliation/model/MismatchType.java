@@ -0,0 +1,8 @@
+package com.payment.reconciliation.model;
+
+public enum MismatchType {
+    MISSING_EVENTS,     // payment stored, but no PaymentCreated event for it
+    MISSING_PAYMENT,    // events recorded, but no payment stored
+    STATUS_MISMATCH,
+    DETAILS_MISMATCH    // amount or currency differ
+}
@@ -0,0 +1,22 @@
+package com.payment.reconciliation.model;
+
+import java.time.Instant;
+
+public class ReconciliationMismatch {
+    private final String paymentId;
+    private final MismatchType type;
+    private final String detail;
+    private final Instant detectedAt;
+
+    public ReconciliationMismatch(String paymentId, MismatchType type, String detail, Instant detectedAt) {
+        this.paymentId = paymentId;
+        this.type = type;
+        this.detail = detail;
+        this.detectedAt = detectedAt;
+    }
+
+    public String getPaymentId() { return paymentId; }
+    public MismatchType getType() { return type; }
+    public String getDetail() { return detail; }
+    public Instant getDetectedAt() { return detectedAt; }
+}
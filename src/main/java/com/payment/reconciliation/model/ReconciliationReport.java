@@ -0,0 +1,46 @@
+package com.payment.reconciliation.model;
+
+import java.time.Instant;
+import java.util.List;
+
+public class ReconciliationReport {
+    private final long runs;
+    private final Instant lastRunAt;
+    private final int lastRunChecked;
+    private final int lastRunDeferred;
+    private final int lastRunSkipped;       // created before this process, with no event history to compare
+    private final long lastRunMillis;
+    private final long totalChecked;
+    private final int pendingChanges;
+    private final int mismatchCount;
+    private final long untrackedMismatches; // found while max-mismatches were already open
+    private final List<ReconciliationMismatch> mismatches; // oldest first, capped
+
+    public ReconciliationReport(long runs, Instant lastRunAt, int lastRunChecked, int lastRunDeferred, int lastRunSkipped,
+                                long lastRunMillis, long totalChecked, int pendingChanges, int mismatchCount,
+                                long untrackedMismatches, List<ReconciliationMismatch> mismatches) {
+        this.runs = runs;
+        this.lastRunAt = lastRunAt;
+        this.lastRunChecked = lastRunChecked;
+        this.lastRunDeferred = lastRunDeferred;
+        this.lastRunSkipped = lastRunSkipped;
+        this.lastRunMillis = lastRunMillis;
+        this.totalChecked = totalChecked;
+        this.pendingChanges = pendingChanges;
+        this.mismatchCount = mismatchCount;
+        this.untrackedMismatches = untrackedMismatches;
+        this.mismatches = mismatches;
+    }
+
+    public long getRuns() { return runs; }
+    public Instant getLastRunAt() { return lastRunAt; }
+    public int getLastRunChecked() { return lastRunChecked; }
+    public int getLastRunDeferred() { return lastRunDeferred; }
+    public int getLastRunSkipped() { return lastRunSkipped; }
+    public long getLastRunMillis() { return lastRunMillis; }
+    public long getTotalChecked() { return totalChecked; }
+    public int getPendingChanges() { return pendingChanges; }
+    public int getMismatchCount() { return mismatchCount; }
+    public long getUntrackedMismatches() { return untrackedMismatches; }
+    public List<ReconciliationMismatch> getMismatches() { return mismatches; }
+}
@@ -0,0 +1,32 @@
+package com.payment.replication;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// ReadOnlyFollowerFilter: followers only serve reads; payment writes must go to the leader
+public class ReadOnlyFollowerFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (isPaymentWrite(request.getMethod(), request.getRequestURI())) {
+            response.setStatus(HttpStatus.METHOD_NOT_ALLOWED.value());
+            response.setHeader("Allow", "GET");
+            response.setContentType("application/json");
+            response.getWriter().write("{\"status\":405,\"error\":\"Read-only follower; send writes to the leader\"}");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    static boolean isPaymentWrite(String method, String path) {
+        return !HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method) && path.startsWith("/v1/payments");
+    }
+}
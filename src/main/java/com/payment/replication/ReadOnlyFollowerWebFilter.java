@@ -0,0 +1,29 @@
+package com.payment.replication;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+// ReadOnlyFollowerWebFilter: WebFlux counterpart of ReadOnlyFollowerFilter
+public class ReadOnlyFollowerWebFilter implements WebFilter {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String method = exchange.getRequest().getMethod().name();
+        String path = exchange.getRequest().getPath().value();
+        if (!ReadOnlyFollowerFilter.isPaymentWrite(method, path)) {
+            return chain.filter(exchange);
+        }
+
+        exchange.getResponse().setStatusCode(HttpStatus.METHOD_NOT_ALLOWED);
+        exchange.getResponse().getHeaders().set("Allow", "GET");
+        exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        byte[] body = "{\"status\":405,\"error\":\"Read-only follower; send writes to the leader\"}".getBytes(StandardCharsets.UTF_8);
+        return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(body)));
+    }
+}
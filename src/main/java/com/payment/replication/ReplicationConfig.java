@@ -0,0 +1,61 @@
+package com.payment.replication;
+
+import com.payment.event.store.PaymentEventStore;
+import com.payment.repository.PaymentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.InetSocketAddress;
+
+// Leader-to-follower replication of the payment event stream, selected with payment.replication.role.
+// leader:   payment.replication.port, payment.replication.bind-address (default loopback; followers connect here)
+// follower: payment.replication.leader=host:port
+// both:     payment.replication.secret, the shared secret each side must prove it knows
+// payment.replication.log-capacity bounds how many recent events the leader keeps for followers to catch up from.
+@Configuration
+public class ReplicationConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "payment.replication.role", havingValue = "leader")
+    public ReplicationLog replicationLog(@Value("${payment.replication.log-capacity:100000}") int capacity) {
+        return new ReplicationLog(capacity);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnProperty(name = "payment.replication.role", havingValue = "leader")
+    public ReplicationServer replicationServer(ReplicationLog replicationLog,
+                                               PaymentEventStore eventStore,
+                                               @Value("${payment.replication.bind-address:127.0.0.1}") String bindAddress,
+                                               @Value("${payment.replication.port:9201}") int port,
+                                               @Value("${payment.replication.secret:}") String secret) {
+        return new ReplicationServer(new InetSocketAddress(bindAddress, port), replicationLog, eventStore, secret);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnProperty(name = "payment.replication.role", havingValue = "follower")
+    public ReplicationFollower replicationFollower(@Value("${payment.replication.leader}") String leader,
+                                                   @Value("${payment.replication.secret:}") String secret,
+                                                   PaymentRepository paymentRepository,
+                                                   PaymentEventStore eventStore) {
+        int colon = leader.lastIndexOf(':');
+        InetSocketAddress address = new InetSocketAddress(leader.substring(0, colon), Integer.parseInt(leader.substring(colon + 1)));
+        return new ReplicationFollower(address, secret, paymentRepository, eventStore);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "payment.replication.role", havingValue = "follower")
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public ReadOnlyFollowerFilter readOnlyFollowerFilter() {
+        return new ReadOnlyFollowerFilter();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "payment.replication.role", havingValue = "follower")
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public ReadOnlyFollowerWebFilter readOnlyFollowerWebFilter() {
+        return new ReadOnlyFollowerWebFilter();
+    }
+}
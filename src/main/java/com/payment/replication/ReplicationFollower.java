@@ -0,0 +1,193 @@
+package com.payment.replication;
+
+import com.payment.domain.Payment;
+import com.payment.domain.PaymentStatus;
+import com.payment.event.model.PaymentCanceledEvent;
+import com.payment.event.model.PaymentCreatedEvent;
+import com.payment.event.model.PaymentEvent;
+import com.payment.event.model.PaymentEventCodec;
+import com.payment.event.store.PaymentEventStore;
+import com.payment.replication.model.ReplicationStatus;
+import com.payment.repository.PaymentRepository;
+import com.payment.security.SharedSecret;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.time.Instant;
+
+// ReplicationFollower: tails the leader's ReplicationLog and applies each event to this node's
+// PaymentEventStore and PaymentRepository, so the node can serve reads. Both ends prove they hold the
+// shared secret before any event is applied. Reconnects from the last applied sequence after any failure;
+// if the leader restarted (new epoch) or no longer holds that sequence, it resyncs from a leader snapshot.
+// Events already in the local event store are skipped, which keeps the overlap between snapshot and log harmless.
+public class ReplicationFollower implements Closeable {
+    private static final int CONNECT_TIMEOUT_MILLIS = 1_000;
+    private static final long RETRY_MILLIS = 1_000;
+    // heartbeats arrive every second; three missed ones mean the stream is dead
+    private static final int READ_TIMEOUT_MILLIS = 3_000;
+
+    private final InetSocketAddress leader;
+    private final byte[] secret;
+    private final PaymentRepository paymentRepository;
+    private final PaymentEventStore eventStore;
+    private final Thread thread;
+    private volatile Socket socket;
+    private volatile boolean running = true;
+    private volatile boolean connected;
+    private volatile long appliedSequence;
+    private volatile long epoch;
+    private volatile long leaderSequence;
+    private volatile PaymentEvent lastApplied;
+
+    public ReplicationFollower(InetSocketAddress leader, String secret, PaymentRepository paymentRepository, PaymentEventStore eventStore) {
+        this.leader = leader;
+        this.secret = SharedSecret.secretBytes("payment.replication.secret", secret);
+        this.paymentRepository = paymentRepository;
+        this.eventStore = eventStore;
+        this.thread = new Thread(this::run, "replication-follower");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        Socket current = socket;
+        if (current != null) {
+            current.close();
+        }
+        thread.interrupt();
+    }
+
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    public ReplicationStatus status() {
+        long lagEvents = Math.max(0, leaderSequence - appliedSequence);
+        PaymentEvent last = lastApplied;
+        // while behind, the age of the newest applied event is how far this replica trails the leader
+        long lagMillis = lagEvents == 0 || last == null
+                ? 0
+                : Math.max(0, Duration.between(last.getOccurredAt(), Instant.now()).toMillis());
+        return new ReplicationStatus("follower", connected, appliedSequence, leaderSequence, lagEvents, lagMillis, 0);
+    }
+
+    private void run() {
+        while (running) {
+            try (Socket s = new Socket()) {
+                socket = s;
+                s.setTcpNoDelay(true);
+                s.setSoTimeout(READ_TIMEOUT_MILLIS);
+                s.connect(leader, CONNECT_TIMEOUT_MILLIS);
+
+                DataOutputStream out = new DataOutputStream(s.getOutputStream());
+                DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+                long leaderEpoch = handshake(in, out);
+                connected = true;
+
+                while (running) {
+                    byte type = in.readByte();
+                    if (type == ReplicationProtocol.HEARTBEAT) {
+                        leaderSequence = in.readLong();
+                        in.readLong(); // leader clock, informational
+                    } else if (type == ReplicationProtocol.EVENT) {
+                        long sequence = in.readLong();
+                        leaderSequence = in.readLong();
+                        byte[] payload = readPayload(in);
+                        if (sequence == appliedSequence + 1) {
+                            apply(PaymentEventCodec.decode(payload));
+                            appliedSequence = sequence;
+                        }
+                    } else if (type == ReplicationProtocol.SNAPSHOT && epoch != 0) {
+                        System.err.println("[WARN] resyncing from leader snapshot. leader=" + leader + ", epoch=" + leaderEpoch + ", appliedSequence=" + appliedSequence);
+                    } else if (type == ReplicationProtocol.SNAPSHOT) {
+                        // first sync of a fresh follower, nothing to report
+                    } else if (type == ReplicationProtocol.SNAPSHOT_EVENT) {
+                        apply(PaymentEventCodec.decode(readPayload(in)));
+                    } else if (type == ReplicationProtocol.SNAPSHOT_END) {
+                        // only a complete snapshot moves this follower into the leader's epoch
+                        appliedSequence = in.readLong() - 1;
+                        epoch = leaderEpoch;
+                    } else {
+                        throw new IOException("Unknown replication frame type=" + type);
+                    }
+                }
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("[WARN] replication from leader " + leader + " interrupted. appliedSequence=" + appliedSequence + ", error=" + e.getMessage());
+                }
+            } finally {
+                connected = false;
+            }
+
+            try {
+                Thread.sleep(RETRY_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    // returns the leader's epoch
+    private long handshake(DataInputStream in, DataOutputStream out) throws IOException {
+        byte[] leaderNonce = new byte[SharedSecret.NONCE_BYTES];
+        in.readFully(leaderNonce);
+        byte[] followerNonce = SharedSecret.nonce();
+        out.write(followerNonce);
+        out.write(SharedSecret.proof(secret, ReplicationProtocol.FOLLOWER, leaderNonce));
+        out.writeLong(epoch);
+        out.writeLong(appliedSequence + 1);
+        out.flush();
+
+        byte[] proof = new byte[SharedSecret.PROOF_BYTES];
+        in.readFully(proof);
+        if (!SharedSecret.verify(secret, ReplicationProtocol.LEADER, followerNonce, proof)) {
+            throw new IOException("leader failed authentication");
+        }
+        return in.readLong();
+    }
+
+    private static byte[] readPayload(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > ReplicationProtocol.MAX_EVENT_BYTES) {
+            throw new IOException("Replicated event too large. length=" + length);
+        }
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        return payload;
+    }
+
+    private void apply(PaymentEvent event) {
+        if (eventStore.listByPaymentId(event.getAggregateId()).stream().anyMatch(e -> e.getEventId().equals(event.getEventId()))) {
+            return;
+        }
+        // a payment that already exists was created here before a resync; saving it as new would insert its id twice
+        if (event instanceof PaymentCreatedEvent created && paymentRepository.findById(created.getAggregateId()).isEmpty()) {
+            paymentRepository.save(new Payment(
+                    created.getAggregateId(),
+                    created.getAmount(),
+                    created.getCurrency(),
+                    PaymentStatus.CREATED,
+                    created.getOccurredAt(),
+                    created.getOccurredAt()));
+        } else if (event instanceof PaymentCanceledEvent canceled) {
+            paymentRepository.findById(canceled.getAggregateId()).ifPresent(payment -> {
+                payment.setStatus(PaymentStatus.CANCELED);
+                payment.setUpdatedAt(canceled.getOccurredAt());
+                paymentRepository.save(payment);
+            });
+        }
+        eventStore.append(event);
+        lastApplied = event;
+    }
+}
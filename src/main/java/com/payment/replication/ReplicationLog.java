@@ -0,0 +1,106 @@
+package com.payment.replication;
+
+import com.payment.event.handler.PaymentEventHandler;
+import com.payment.event.model.PaymentEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// ReplicationLog: leader-side, totally ordered log of the most recent published events. Sequence numbers
+// start at 1 and are only meaningful within this log's epoch (its creation time), so followers notice a
+// restarted leader. The newest `capacity` events are kept in a ring; a follower further behind than that is
+// resynced from the event store instead (see ReplicationServer).
+// Runs synchronously so an event is in the log (and visible to followers) once publish returns;
+// the append itself is an array store, serialization happens later on each follower's stream thread.
+public class ReplicationLog implements PaymentEventHandler {
+    private final PaymentEvent[] ring;
+    private final long epoch = System.currentTimeMillis();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private long lastSequence; // guarded by lock
+
+    public ReplicationLog(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("replication log capacity must be positive");
+        }
+        this.ring = new PaymentEvent[capacity];
+    }
+
+    @Override
+    public void handle(PaymentEvent paymentEvent) {
+        lock.lock();
+        try {
+            lastSequence++;
+            ring[slot(lastSequence)] = paymentEvent;
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isSynchronous() {
+        return true;
+    }
+
+    public long epoch() {
+        return epoch;
+    }
+
+    public long lastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // the oldest sequence still held
+    public long firstSequence() {
+        lock.lock();
+        try {
+            return firstRetained();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // returns up to max events starting at fromSequence, waiting up to timeoutMillis for the first one;
+    // null if fromSequence has already been overwritten
+    public List<PaymentEvent> read(long fromSequence, int max, long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        lock.lock();
+        try {
+            while (lastSequence < fromSequence) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return List.of();
+                }
+                appended.awaitNanos(remaining);
+            }
+            if (fromSequence < firstRetained()) {
+                return null;
+            }
+            long to = Math.min(lastSequence, fromSequence + max - 1);
+            List<PaymentEvent> events = new ArrayList<>((int) (to - fromSequence + 1));
+            for (long sequence = fromSequence; sequence <= to; sequence++) {
+                events.add(ring[slot(sequence)]);
+            }
+            return events;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long firstRetained() {
+        return Math.max(1, lastSequence - ring.length + 1);
+    }
+
+    private int slot(long sequence) {
+        return (int) ((sequence - 1) % ring.length);
+    }
+}
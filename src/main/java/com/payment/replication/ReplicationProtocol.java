@@ -0,0 +1,38 @@
+package com.payment.replication;
+
+import com.payment.event.model.PaymentEventCodec;
+import com.payment.security.SharedSecret;
+
+/**
+ * ReplicationProtocol: leader-to-follower stream format.
+ *
+ *   handshake: leader -> follower: byte[16] leaderNonce
+ *              follower -> leader: byte[16] followerNonce | byte[32] proof("follower", leaderNonce) | long epoch | long nextSequence
+ *              leader -> follower: byte[32] proof("leader", followerNonce) | long epoch
+ *   leader -> follower: byte EVENT          | long sequence | long leaderSequence | int length | encoded PaymentEvent
+ *                       byte HEARTBEAT      | long leaderSequence | long leaderTimeMillis
+ *                       byte SNAPSHOT, then byte SNAPSHOT_EVENT | int length | encoded PaymentEvent (repeated),
+ *                       then byte SNAPSHOT_END | long resumeSequence
+ *
+ * Sequences belong to the leader's epoch. A follower whose epoch differs (the leader restarted) or whose next
+ * sequence has been dropped from the capped log gets a snapshot before the stream resumes.
+ *
+ * A proof is HMAC-SHA256 over role and nonce ({@link SharedSecret}), keyed with payment.replication.secret, so
+ * each side shows it knows the secret before any event flows; a peer that cannot is disconnected. Events are
+ * written field by field with {@link PaymentEventCodec}; nothing read from the socket is ever handed to Java
+ * deserialization.
+ */
+final class ReplicationProtocol {
+    static final byte EVENT = 1;
+    static final byte HEARTBEAT = 2;
+    static final byte SNAPSHOT = 3;
+    static final byte SNAPSHOT_EVENT = 4;
+    static final byte SNAPSHOT_END = 5;
+
+    static final int MAX_EVENT_BYTES = 64 * 1024;
+    static final String LEADER = "leader";
+    static final String FOLLOWER = "follower";
+
+    private ReplicationProtocol() {
+    }
+}
@@ -0,0 +1,173 @@
+package com.payment.replication;
+
+import com.payment.event.model.PaymentEvent;
+import com.payment.event.model.PaymentEventCodec;
+import com.payment.event.store.PaymentEventStore;
+import com.payment.security.SharedSecret;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// ReplicationServer: leader-side listener. Each follower connection gets a thread that checks the follower
+// knows the shared secret, then tails the ReplicationLog from the sequence the follower asked for; idle
+// streams carry heartbeats so followers can tell "caught up" from "disconnected". A follower from another
+// epoch, or one asking for a sequence the log no longer holds, first gets a snapshot of the event store.
+public class ReplicationServer implements Closeable {
+    private static final int BATCH_SIZE = 512;
+    private static final long HEARTBEAT_MILLIS = 1_000;
+    // an unauthenticated peer gets this long to answer the challenge
+    private static final int HANDSHAKE_TIMEOUT_MILLIS = 3_000;
+
+    private final InetSocketAddress address;
+    private final ReplicationLog log;
+    private final PaymentEventStore eventStore;
+    private final byte[] secret;
+    private final Set<Socket> followers = ConcurrentHashMap.newKeySet();
+    private volatile ServerSocket serverSocket;
+
+    public ReplicationServer(InetSocketAddress address, ReplicationLog log, PaymentEventStore eventStore, String secret) {
+        this.address = address;
+        this.log = log;
+        this.eventStore = eventStore;
+        this.secret = SharedSecret.secretBytes("payment.replication.secret", secret);
+    }
+
+    public void start() throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(address);
+
+        Thread acceptor = new Thread(this::acceptLoop, "replication-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int followerCount() {
+        return followers.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (serverSocket != null) {
+            serverSocket.close();
+        }
+        for (Socket socket : followers) {
+            socket.close();
+        }
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                followers.add(socket);
+                Thread streamer = new Thread(() -> stream(socket), "replication-" + socket.getRemoteSocketAddress());
+                streamer.setDaemon(true);
+                streamer.start();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.println("[WARN] replication accept failed. error=" + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void stream(Socket socket) {
+        try (socket;
+             DataInputStream in = new DataInputStream(socket.getInputStream());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            long next = handshake(socket, in, out);
+            if (next < 0) {
+                System.err.println("[WARN] replication peer failed authentication. peer=" + socket.getRemoteSocketAddress());
+                return;
+            }
+            while (!socket.isClosed()) {
+                List<PaymentEvent> batch = log.read(next, BATCH_SIZE, HEARTBEAT_MILLIS);
+                if (batch == null) {
+                    next = sendSnapshot(out);
+                    continue;
+                }
+                long leaderSequence = log.lastSequence();
+                if (batch.isEmpty()) {
+                    out.writeByte(ReplicationProtocol.HEARTBEAT);
+                    out.writeLong(leaderSequence);
+                    out.writeLong(System.currentTimeMillis());
+                }
+                for (PaymentEvent event : batch) {
+                    byte[] payload = PaymentEventCodec.encode(event);
+                    out.writeByte(ReplicationProtocol.EVENT);
+                    out.writeLong(next++);
+                    out.writeLong(leaderSequence);
+                    out.writeInt(payload.length);
+                    out.write(payload);
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            if (!socket.isClosed()) {
+                System.err.println("[WARN] replication stream closed. follower=" + socket.getRemoteSocketAddress() + ", error=" + e.getMessage());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            followers.remove(socket);
+        }
+    }
+
+    // challenges the follower and proves this leader to it. Returns the first sequence the follower wants, 0 if it
+    // needs a snapshot because it comes from another epoch, or -1 if it failed authentication.
+    private long handshake(Socket socket, DataInputStream in, DataOutputStream out) throws IOException {
+        socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+        byte[] leaderNonce = SharedSecret.nonce();
+        out.write(leaderNonce);
+        out.flush();
+
+        byte[] followerNonce = new byte[SharedSecret.NONCE_BYTES];
+        byte[] proof = new byte[SharedSecret.PROOF_BYTES];
+        in.readFully(followerNonce);
+        in.readFully(proof);
+        long followerEpoch = in.readLong();
+        long next = in.readLong();
+        if (!SharedSecret.verify(secret, ReplicationProtocol.FOLLOWER, leaderNonce, proof)) {
+            return -1;
+        }
+        out.write(SharedSecret.proof(secret, ReplicationProtocol.LEADER, followerNonce));
+        out.writeLong(log.epoch());
+        out.flush();
+        socket.setSoTimeout(0);
+        return followerEpoch == log.epoch() ? Math.max(1, next) : 0;
+    }
+
+    // sends every stored event and returns the sequence to tail from. The follower skips events it already has,
+    // so it does not matter that the snapshot and the retained log overlap.
+    private long sendSnapshot(DataOutputStream out) throws IOException {
+        long resume = log.firstSequence();
+        out.writeByte(ReplicationProtocol.SNAPSHOT);
+        for (String paymentId : eventStore.listAggregateIds()) {
+            for (PaymentEvent event : eventStore.listByPaymentId(paymentId)) {
+                byte[] payload = PaymentEventCodec.encode(event);
+                out.writeByte(ReplicationProtocol.SNAPSHOT_EVENT);
+                out.writeInt(payload.length);
+                out.write(payload);
+            }
+        }
+        out.writeByte(ReplicationProtocol.SNAPSHOT_END);
+        out.writeLong(resume);
+        out.flush();
+        return resume;
+    }
+}
@@ -0,0 +1,30 @@
+package com.payment.replication.model;
+
+public class ReplicationStatus {
+    private final String role;
+    private final boolean connected;
+    private final long appliedSequence;
+    private final long leaderSequence;
+    private final long lagEvents;
+    private final long lagMillis;
+    private final int followers; // leader only
+
+    public ReplicationStatus(String role, boolean connected, long appliedSequence, long leaderSequence,
+                             long lagEvents, long lagMillis, int followers) {
+        this.role = role;
+        this.connected = connected;
+        this.appliedSequence = appliedSequence;
+        this.leaderSequence = leaderSequence;
+        this.lagEvents = lagEvents;
+        this.lagMillis = lagMillis;
+        this.followers = followers;
+    }
+
+    public String getRole() { return role; }
+    public boolean isConnected() { return connected; }
+    public long getAppliedSequence() { return appliedSequence; }
+    public long getLeaderSequence() { return leaderSequence; }
+    public long getLagEvents() { return lagEvents; }
+    public long getLagMillis() { return lagMillis; }
+    public int getFollowers() { return followers; }
+}
@@ -1,23 +1,125 @@
 package com.payment.repository;
 
 import com.payment.domain.Payment;
+import com.payment.domain.PaymentStatus;
+import com.payment.exception.PaymentVersionConflictException;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
+// InMemoryPaymentRepository: keeps its own copy of every payment and hands out copies, so a caller mutating
+// a payment it read changes nothing until it saves. Saves of one payment are serialized by a lock stripe,
+// which lets a durable wrapper log the new state before it becomes visible. Like the JDBC store it checks
+// versions: a save only applies to the version that was read (0 for a new payment).
+// A durable save queues its record under the stripe lock but waits for the disk after releasing it, so payments
+// sharing a stripe do not queue behind each other's fsync. Until its state is visible the payment is in
+// flight, and another save of it fails as a version conflict. Nobody can have read the unlogged version, so
+// that save would have failed on its version anyway.
 @Repository
 public class InMemoryPaymentRepository implements PaymentRepository{
+    private static final int STRIPES = 256;
+
     private final Map<String, Payment> store = new ConcurrentHashMap<>();
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet(); // changed under the payment's stripe
+    private final Object[] stripes = new Object[STRIPES];
+
+    public InMemoryPaymentRepository() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+    }
 
     @Override
     public void save(Payment payment) {
-        store.put(payment.getId(), payment);
+        synchronized (stripeFor(payment.getId())) {
+            Payment stored = nextState(payment);
+            store.put(stored.getId(), stored);
+            payment.setVersion(stored.getVersion());
+        }
+    }
+
+    // log gets the state about to be stored and returns the wait for it to be durable, which runs outside the
+    // stripe lock; if either throws, the stored payment is left unchanged
+    public void save(Payment payment, Function<Payment, Runnable> log) {
+        Object stripe = stripeFor(payment.getId());
+        Payment stored;
+        Runnable durable;
+        synchronized (stripe) {
+            stored = nextState(payment);
+            durable = log.apply(stored);
+            inFlight.add(stored.getId());
+        }
+
+        try {
+            durable.run();
+        } catch (RuntimeException e) {
+            synchronized (stripe) {
+                inFlight.remove(stored.getId());
+            }
+            throw e;
+        }
+
+        synchronized (stripe) {
+            store.put(stored.getId(), stored);
+            inFlight.remove(stored.getId());
+        }
+        payment.setVersion(stored.getVersion());
+    }
+
+    // puts a recovered state in place without a version check, e.g. while replaying a log
+    public void restore(Payment payment) {
+        synchronized (stripeFor(payment.getId())) {
+            Payment current = store.get(payment.getId());
+            Payment stored = copyOf(payment);
+            stored.setVersion(current == null ? 1 : current.getVersion() + 1);
+            store.put(stored.getId(), stored);
+        }
     }
 
     @Override
     public Optional<Payment> findById(String id) {
-        return Optional.ofNullable(store.get(id));
+        return Optional.ofNullable(store.get(id)).map(InMemoryPaymentRepository::copyOf);
+    }
+
+    @Override
+    public List<Payment> findByStatus(PaymentStatus status) {
+        return store.values().stream()
+                .filter(payment -> payment.getStatus() == status)
+                .map(InMemoryPaymentRepository::copyOf)
+                .toList();
+    }
+
+    // under the payment's stripe lock
+    private Payment nextState(Payment payment) {
+        if (inFlight.contains(payment.getId())) {
+            throw new PaymentVersionConflictException("Payment " + payment.getId()
+                    + " is being modified concurrently; expected version " + payment.getVersion());
+        }
+        Payment current = store.get(payment.getId());
+        long currentVersion = current == null ? 0 : current.getVersion();
+        if (payment.getVersion() != currentVersion) {
+            throw new PaymentVersionConflictException(current == null
+                    ? "Payment " + payment.getId() + " does not exist; expected version " + payment.getVersion()
+                    : "Payment " + payment.getId() + " was modified concurrently; expected version " + payment.getVersion());
+        }
+        Payment stored = copyOf(payment);
+        stored.setVersion(currentVersion + 1);
+        return stored;
+    }
+
+    private Object stripeFor(String id) {
+        return stripes[(id.hashCode() & 0x7fffffff) % STRIPES];
+    }
+
+    private static Payment copyOf(Payment payment) {
+        Payment copy = new Payment(payment.getId(), payment.getAmount(), payment.getCurrency(), payment.getStatus(),
+                payment.getCreatedAt(), payment.getUpdatedAt());
+        copy.setVersion(payment.getVersion());
+        return copy;
     }
 }
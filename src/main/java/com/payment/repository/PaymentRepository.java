@@ -1,10 +1,14 @@
 package com.payment.repository;
 
 import com.payment.domain.Payment;
+import com.payment.domain.PaymentStatus;
+
+import java.util.List;
 import java.util.Optional;
 
 // Repository: abstract persistence of Payment entities
 public interface PaymentRepository {
     void save(Payment payment);
     Optional<Payment> findById(String id);
+    List<Payment> findByStatus(PaymentStatus status);
 }
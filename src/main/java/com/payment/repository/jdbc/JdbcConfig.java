@@ -0,0 +1,29 @@
+package com.payment.repository.jdbc;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+// Payments in a database through the pooled spring.datasource (Hikari), enabled with payment.jdbc.enabled=true.
+// payment.jdbc.max-batch-size caps how many concurrent saves share one JDBC batch and commit. The database and
+// the write-ahead log (payment.wal.enabled) are alternative stores, enabling both is rejected at startup.
+@Configuration
+@ConditionalOnProperty(name = "payment.jdbc.enabled", havingValue = "true")
+public class JdbcConfig {
+
+    @Bean(destroyMethod = "close")
+    @Primary
+    public JdbcPaymentRepository jdbcPaymentRepository(DataSource dataSource,
+                                                       @Value("${payment.jdbc.max-batch-size:64}") int maxBatchSize,
+                                                       @Value("${payment.wal.enabled:false}") boolean walEnabled) throws SQLException {
+        if (walEnabled) {
+            throw new IllegalStateException("payment.jdbc.enabled and payment.wal.enabled are mutually exclusive; enable one payment store");
+        }
+        return new JdbcPaymentRepository(dataSource, maxBatchSize);
+    }
+}
@@ -0,0 +1,324 @@
+package com.payment.repository.jdbc;
+
+import com.payment.domain.Payment;
+import com.payment.domain.PaymentStatus;
+import com.payment.exception.PaymentVersionConflictException;
+import com.payment.repository.PaymentRepository;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * JdbcPaymentRepository: payments in a relational table, written in micro-batches.
+ *
+ * save() queues the write and waits. One writer thread owns a connection with its insert and update
+ * statements prepared once; it takes everything queued (up to maxBatchSize), runs it as one JDBC batch in
+ * one transaction and wakes the callers. Concurrent creates therefore share a round trip and a commit,
+ * while a lone save still goes out immediately.
+ *
+ * Every row carries a version. A payment read from the table knows its version and an update only applies
+ * while the row still has it, so two concurrent read-modify-writes of one payment cannot both win.
+ * Reads are plain SELECTs mapped by hand.
+ */
+public class JdbcPaymentRepository implements PaymentRepository, Closeable {
+    static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS payments ("
+            + "id VARCHAR(64) PRIMARY KEY, "
+            + "amount BIGINT NOT NULL, "
+            + "currency VARCHAR(16) NOT NULL, "
+            + "status VARCHAR(16) NOT NULL, "
+            + "created_at TIMESTAMP(9) WITH TIME ZONE NOT NULL, "
+            + "updated_at TIMESTAMP(9) WITH TIME ZONE NOT NULL, "
+            + "version BIGINT NOT NULL)";
+    private static final String INSERT = "INSERT INTO payments (id, amount, currency, status, created_at, updated_at, version) "
+            + "VALUES (?, ?, ?, ?, ?, ?, 1)";
+    private static final String UPDATE = "UPDATE payments SET status = ?, updated_at = ?, version = version + 1 "
+            + "WHERE id = ? AND version = ?";
+    private static final String FIND = "SELECT id, amount, currency, status, created_at, updated_at, version "
+            + "FROM payments WHERE id = ?";
+    private static final String FIND_BY_STATUS = "SELECT id, amount, currency, status, created_at, updated_at, version "
+            + "FROM payments WHERE status = ?";
+    private static final long SAVE_TIMEOUT_SECONDS = 30;
+
+    private final DataSource dataSource;
+    private final int maxBatchSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition writesPending = lock.newCondition();
+    private final ArrayDeque<PendingWrite> pending = new ArrayDeque<>();
+    private final Thread writer;
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private volatile boolean running = true;
+
+    // owned by the writer thread
+    private Connection connection;
+    private PreparedStatement insert;
+    private PreparedStatement update;
+
+    public JdbcPaymentRepository(DataSource dataSource, int maxBatchSize) throws SQLException {
+        this.dataSource = dataSource;
+        this.maxBatchSize = maxBatchSize;
+        try (Connection c = dataSource.getConnection(); Statement statement = c.createStatement()) {
+            statement.execute(CREATE_TABLE);
+        }
+        this.writer = new Thread(this::writeLoop, "payment-jdbc-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void save(Payment payment) {
+        PendingWrite write = new PendingWrite(payment, payment.getVersion());
+        lock.lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("Payment repository is closed");
+            }
+            pending.add(write);
+            if (pending.size() == 1) {
+                writesPending.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            write.done.get(SAVE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof PaymentVersionConflictException conflict) {
+                throw conflict;
+            }
+            throw new IllegalStateException("Payment write failed. paymentId=" + payment.getId(), e.getCause());
+        } catch (TimeoutException e) {
+            // the write stays queued and may still commit; the caller only stops waiting for it
+            throw new IllegalStateException("Payment write timed out after " + SAVE_TIMEOUT_SECONDS + "s. paymentId=" + payment.getId());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for payment write. paymentId=" + payment.getId());
+        }
+        payment.setVersion(write.expectedVersion + 1);
+    }
+
+    @Override
+    public Optional<Payment> findById(String id) {
+        try (Connection c = dataSource.getConnection(); PreparedStatement find = c.prepareStatement(FIND)) {
+            find.setString(1, id);
+            try (ResultSet row = find.executeQuery()) {
+                if (!row.next()) {
+                    return Optional.empty();
+                }
+                return Optional.of(toPayment(row));
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Payment read failed. paymentId=" + id, e);
+        }
+    }
+
+    @Override
+    public List<Payment> findByStatus(PaymentStatus status) {
+        try (Connection c = dataSource.getConnection(); PreparedStatement find = c.prepareStatement(FIND_BY_STATUS)) {
+            find.setString(1, status.name());
+            try (ResultSet row = find.executeQuery()) {
+                List<Payment> payments = new ArrayList<>();
+                while (row.next()) {
+                    payments.add(toPayment(row));
+                }
+                return payments;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Payment read failed. status=" + status, e);
+        }
+    }
+
+    private static Payment toPayment(ResultSet row) throws SQLException {
+        Payment payment = new Payment(
+                row.getString(1),
+                row.getLong(2),
+                row.getString(3),
+                PaymentStatus.valueOf(row.getString(4)),
+                row.getObject(5, OffsetDateTime.class).toInstant(),
+                row.getObject(6, OffsetDateTime.class).toInstant());
+        payment.setVersion(row.getLong(7));
+        return payment;
+    }
+
+    public long batchCount() {
+        return batches.get();
+    }
+
+    public long writeCount() {
+        return writes.get();
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            running = false;
+            writesPending.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeConnection();
+    }
+
+    private void writeLoop() {
+        while (true) {
+            List<PendingWrite> group;
+            lock.lock();
+            try {
+                while (pending.isEmpty() && running) {
+                    writesPending.awaitUninterruptibly();
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                group = new ArrayList<>(Math.min(pending.size(), maxBatchSize));
+                while (!pending.isEmpty() && group.size() < maxBatchSize) {
+                    group.add(pending.poll());
+                }
+            } finally {
+                lock.unlock();
+            }
+            try {
+                write(group);
+            } catch (RuntimeException e) {
+                // e.g. a driver bug or a payment the statements cannot bind; fail this group, keep writing the next
+                System.err.println("[WARN] payment jdbc batch failed unexpectedly. writes=" + group.size() + ", error=" + e);
+                rollback();
+                group.forEach(write -> write.done.completeExceptionally(e));
+            }
+        }
+    }
+
+    private void write(List<PendingWrite> group) {
+        List<PendingWrite> inserts = new ArrayList<>(group.size());
+        List<PendingWrite> updates = new ArrayList<>();
+        try {
+            openConnection();
+            for (PendingWrite write : group) {
+                Payment payment = write.payment;
+                if (write.expectedVersion == 0) {
+                    insert.setString(1, payment.getId());
+                    insert.setLong(2, payment.getAmount());
+                    insert.setString(3, payment.getCurrency());
+                    insert.setString(4, payment.getStatus().name());
+                    insert.setObject(5, utc(payment.getCreatedAt()));
+                    insert.setObject(6, utc(payment.getUpdatedAt()));
+                    insert.addBatch();
+                    inserts.add(write);
+                } else {
+                    update.setString(1, payment.getStatus().name());
+                    update.setObject(2, utc(payment.getUpdatedAt()));
+                    update.setString(3, payment.getId());
+                    update.setLong(4, write.expectedVersion);
+                    update.addBatch();
+                    updates.add(write);
+                }
+            }
+            if (!inserts.isEmpty()) {
+                insert.executeBatch();
+            }
+            int[] updated = updates.isEmpty() ? new int[0] : update.executeBatch();
+            connection.commit();
+
+            batches.incrementAndGet();
+            writes.addAndGet(group.size());
+            inserts.forEach(write -> write.done.complete(null));
+            for (int i = 0; i < updates.size(); i++) {
+                PendingWrite write = updates.get(i);
+                if (updated[i] == 0) {
+                    write.done.completeExceptionally(new PaymentVersionConflictException(
+                            "Payment " + write.payment.getId() + " was modified concurrently; expected version " + write.expectedVersion));
+                } else {
+                    write.done.complete(null);
+                }
+            }
+        } catch (SQLException e) {
+            rollback();
+            if (group.size() == 1) {
+                group.get(0).done.completeExceptionally(e);
+                return;
+            }
+            // one bad row fails the whole JDBC batch; write the rows one by one so only that row fails
+            for (PendingWrite write : group) {
+                write(List.of(write));
+            }
+        }
+    }
+
+    private void openConnection() throws SQLException {
+        if (connection != null) {
+            return;
+        }
+        connection = dataSource.getConnection();
+        connection.setAutoCommit(false);
+        insert = connection.prepareStatement(INSERT);
+        update = connection.prepareStatement(UPDATE);
+    }
+
+    private void rollback() {
+        try {
+            if (connection != null) {
+                insert.clearBatch();
+                update.clearBatch();
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            // the connection is unusable; the next batch opens a new one
+            closeConnection();
+        }
+    }
+
+    private void closeConnection() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.err.println("[WARN] closing payment jdbc connection failed. error=" + e.getMessage());
+        }
+        connection = null;
+        insert = null;
+        update = null;
+    }
+
+    private static OffsetDateTime utc(Instant instant) {
+        return OffsetDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+
+    private static final class PendingWrite {
+        private final Payment payment;
+        private final long expectedVersion;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private PendingWrite(Payment payment, long expectedVersion) {
+            this.payment = payment;
+            this.expectedVersion = expectedVersion;
+        }
+    }
+}
@@ -0,0 +1,453 @@
+package com.payment.repository.wal;
+
+import com.payment.domain.Payment;
+import com.payment.domain.PaymentStatus;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * PaymentWriteAheadLog: append-only log of payment states with group commit.
+ *
+ * Callers encode their record, add it to a shared buffer and wait. A single flusher thread waits for the
+ * commit window after the first record of a group arrives, then writes the whole buffer and calls fsync
+ * once for every caller in the group. Records arriving during an fsync join the next group, so the
+ * number of fsyncs stays bounded by disk latency rather than by request rate.
+ *
+ * Record format: int payloadLength | int crc32(payload) | payload. Recovery stops at the first torn or
+ * corrupt record and truncates the file there.
+ *
+ * A group whose write or fsync fails is cut off again: the file is truncated back to the end of the last
+ * committed group, so later groups never land behind a torn record (which recovery would drop along with
+ * them). If even that fails, the log stops accepting appends.
+ *
+ * Compaction keeps the file from growing with every status change. A compactor reads the committed part of the
+ * log, writes the last state of every payment to a new file and fsyncs it, while appends carry on. The flusher
+ * then copies the records committed in the meantime behind it, and atomically renames it over the log. Appends
+ * only pause for that short tail copy. It runs by itself once compactThresholdBytes were appended since the
+ * last compaction (0 = only on compact()). A crash at any point leaves either the old or the new file, both
+ * complete. Recovered versions count records, so they restart lower after a compaction; versions only have
+ * to agree within one run.
+ */
+public class PaymentWriteAheadLog implements Closeable {
+    private static final int HEADER_BYTES = 8;
+
+    private final Path path;
+    private final long commitWindowNanos;
+    private final long compactThresholdBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition recordsPending = lock.newCondition();
+    private final Thread flusher;
+    private final AtomicLong commits = new AtomicLong();
+    private final AtomicLong records = new AtomicLong();
+    private final AtomicLong compactions = new AtomicLong();
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream(64 * 1024);
+    private List<CompletableFuture<Void>> waiters = new ArrayList<>();
+    private volatile boolean running = true;
+    private volatile IOException failure;
+    private Compaction compaction; // guarded by lock, handed from compact() to the flusher
+    private FileChannel channel; // flusher thread only, after construction
+    private long committedBytes; // flusher thread only, after construction
+    private volatile long durableBytes; // committedBytes, for the compactor
+    private volatile long compactedBytes; // log size after the last compaction (attempt)
+
+    public PaymentWriteAheadLog(Path path, Duration commitWindow, Consumer<Payment> recovered) throws IOException {
+        this(path, commitWindow, 0, recovered);
+    }
+
+    // replays every intact record to recovered (oldest first) before accepting new appends
+    public PaymentWriteAheadLog(Path path, Duration commitWindow, long compactThresholdBytes, Consumer<Payment> recovered) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.commitWindowNanos = commitWindow.toNanos();
+        this.compactThresholdBytes = compactThresholdBytes;
+
+        long valid = readRecords(channel, channel.size(), recovered);
+        if (valid < channel.size()) {
+            System.err.println("[WARN] truncating torn WAL tail. path=" + path + ", validBytes=" + valid + ", fileBytes=" + channel.size());
+            channel.truncate(valid);
+        }
+        channel.position(valid);
+        this.committedBytes = valid;
+        this.durableBytes = valid;
+        this.compactedBytes = valid;
+
+        this.flusher = new Thread(this::flushLoop, "payment-wal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    // returns once the record is on disk
+    public void append(Payment payment) {
+        enqueue(payment).run();
+    }
+
+    // queues the record and returns the wait for it to reach the disk; records are written in the order they are
+    // queued, so a caller can queue under its own lock and wait after releasing it
+    public Runnable enqueue(Payment payment) {
+        byte[] record = encode(payment);
+        CompletableFuture<Void> durable = new CompletableFuture<>();
+
+        lock.lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("Payment WAL is closed");
+            }
+            if (failure != null) {
+                throw new UncheckedIOException("Payment WAL stopped after a failed write", failure);
+            }
+            pending.writeBytes(record);
+            waiters.add(durable);
+            if (waiters.size() == 1) {
+                recordsPending.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        return () -> {
+            try {
+                durable.join();
+            } catch (CompletionException e) {
+                throw new UncheckedIOException("Payment WAL write failed. paymentId=" + payment.getId(),
+                        e.getCause() instanceof IOException io ? io : new IOException(e.getCause()));
+            }
+        };
+    }
+
+    // rewrites the log as the last state of every payment, plus what was committed while that was written
+    public synchronized void compact() throws IOException {
+        long upTo = durableBytes;
+        Map<String, Payment> latest = new HashMap<>();
+        try (FileChannel from = FileChannel.open(path, StandardOpenOption.READ)) {
+            readRecords(from, upTo, payment -> latest.put(payment.getId(), payment));
+        }
+
+        Path tmp = path.resolveSibling(path.getFileName() + ".compact");
+        FileChannel to = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Compaction swap = new Compaction(tmp, to, upTo);
+        try {
+            // not closed: closing the stream would close the channel the flusher continues on
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(to), 64 * 1024);
+            for (Payment payment : latest.values()) {
+                out.write(encode(payment));
+            }
+            out.flush();
+            to.force(false);
+
+            lock.lock();
+            try {
+                if (!running) {
+                    throw new IllegalStateException("Payment WAL is closed");
+                }
+                compaction = swap;
+                recordsPending.signal();
+            } finally {
+                lock.unlock();
+            }
+        } catch (IOException | RuntimeException e) {
+            swap.discard();
+            throw e;
+        }
+
+        try {
+            swap.done.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        }
+    }
+
+    public long commitCount() {
+        return commits.get();
+    }
+
+    public long recordCount() {
+        return records.get();
+    }
+
+    public long compactionCount() {
+        return compactions.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            running = false;
+            recordsPending.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    private void flushLoop() {
+        while (true) {
+            Compaction swap;
+            lock.lock();
+            try {
+                while (waiters.isEmpty() && compaction == null && running) {
+                    recordsPending.awaitUninterruptibly();
+                }
+                swap = compaction;
+                compaction = null;
+                if (swap == null && waiters.isEmpty()) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (swap != null) {
+                install(swap);
+                continue;
+            }
+
+            // let the rest of the group arrive before paying for the fsync
+            if (commitWindowNanos > 0) {
+                LockSupport.parkNanos(commitWindowNanos);
+            }
+
+            byte[] batch;
+            List<CompletableFuture<Void>> group;
+            lock.lock();
+            try {
+                batch = pending.toByteArray();
+                group = waiters;
+                pending = new ByteArrayOutputStream(Math.max(64 * 1024, batch.length));
+                waiters = new ArrayList<>(group.size());
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(batch);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+                committedBytes += batch.length;
+                durableBytes = committedBytes;
+                commits.incrementAndGet();
+                records.addAndGet(group.size());
+                group.forEach(waiter -> waiter.complete(null));
+            } catch (IOException e) {
+                group.forEach(waiter -> waiter.completeExceptionally(e));
+                discardUncommitted(e);
+            }
+            maybeCompact();
+        }
+    }
+
+    private void maybeCompact() {
+        if (compactThresholdBytes <= 0 || committedBytes - compactedBytes < compactThresholdBytes
+                || !compacting.compareAndSet(false, true)) {
+            return;
+        }
+        Thread compactor = new Thread(() -> {
+            try {
+                compact();
+            } catch (IOException | RuntimeException e) {
+                if (running) {
+                    System.err.println("[WARN] WAL compaction failed. path=" + path + ", error=" + e.getMessage());
+                }
+                // try again once another threshold's worth has been appended, not after every group
+                compactedBytes = durableBytes;
+            } finally {
+                compacting.set(false);
+            }
+        }, "payment-wal-compactor");
+        compactor.setDaemon(true);
+        compactor.start();
+    }
+
+    // flusher thread: nothing is being written, so the tail is exactly [upTo, committedBytes)
+    private void install(Compaction swap) {
+        try {
+            long tail = committedBytes - swap.upTo;
+            long copied = 0;
+            while (copied < tail) {
+                copied += channel.transferTo(swap.upTo + copied, tail - copied, swap.channel);
+            }
+            swap.channel.force(false);
+            long size = swap.channel.size();
+            swap.channel.position(size);
+            Files.move(swap.tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            // the renamed file is the one swap.channel has open
+            FileChannel old = channel;
+            channel = swap.channel;
+            committedBytes = size;
+            durableBytes = size;
+            compactedBytes = size;
+            compactions.incrementAndGet();
+            try {
+                old.close();
+            } catch (IOException e) {
+                // already replaced
+            }
+            swap.done.complete(null);
+        } catch (IOException e) {
+            swap.discard();
+            swap.done.completeExceptionally(e);
+        }
+    }
+
+    // drops whatever part of a failed group reached the file, so the next group follows the last good record
+    private void discardUncommitted(IOException cause) {
+        try {
+            channel.truncate(committedBytes);
+            channel.position(committedBytes);
+            channel.force(false);
+        } catch (IOException e) {
+            e.addSuppressed(cause);
+            System.err.println("[WARN] WAL cannot drop a failed write, refusing further appends. committedBytes=" + committedBytes + ", error=" + e.getMessage());
+            lock.lock();
+            try {
+                failure = e;
+                // appends that arrived before the failure was visible would otherwise wait forever
+                waiters.forEach(waiter -> waiter.completeExceptionally(e));
+                waiters = new ArrayList<>();
+                pending = new ByteArrayOutputStream(64 * 1024);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // hands every intact record before limit to visitor and returns where they end
+    private static long readRecords(FileChannel from, long limit, Consumer<Payment> visitor) throws IOException {
+        from.position(0);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(from), 64 * 1024));
+        long valid = 0;
+        CRC32 crc = new CRC32();
+        while (true) {
+            try {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length <= 0 || valid + HEADER_BYTES + length > limit) {
+                    return valid;
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    return valid;
+                }
+                visitor.accept(decode(payload));
+                valid += HEADER_BYTES + length;
+            } catch (EOFException e) {
+                return valid;
+            }
+        }
+    }
+
+    private static class Compaction {
+        private final Path tmp;
+        private final FileChannel channel;
+        private final long upTo;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Compaction(Path tmp, FileChannel channel, long upTo) {
+            this.tmp = tmp;
+            this.channel = channel;
+            this.upTo = upTo;
+        }
+
+        void discard() {
+            try {
+                channel.close();
+                Files.deleteIfExists(tmp);
+            } catch (IOException e) {
+                System.err.println("[WARN] dropping WAL compaction file failed. file=" + tmp + ", error=" + e.getMessage());
+            }
+        }
+    }
+
+    private static byte[] encode(Payment payment) {
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(buffer);
+            out.writeInt(0); // length, patched below
+            out.writeInt(0); // crc, patched below
+            out.writeUTF(payment.getId());
+            out.writeLong(payment.getAmount());
+            out.writeUTF(payment.getCurrency());
+            // by name, so new statuses can be added to the enum without breaking old logs
+            out.writeUTF(payment.getStatus().name());
+            writeInstant(out, payment.getCreatedAt());
+            writeInstant(out, payment.getUpdatedAt());
+            out.flush();
+
+            byte[] record = buffer.toByteArray();
+            int length = record.length - HEADER_BYTES;
+            CRC32 crc = new CRC32();
+            crc.update(record, HEADER_BYTES, length);
+            ByteBuffer.wrap(record).putInt(length).putInt((int) crc.getValue());
+            return record;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Payment decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        return new Payment(
+                in.readUTF(),
+                in.readLong(),
+                in.readUTF(),
+                PaymentStatus.valueOf(in.readUTF()),
+                readInstant(in),
+                readInstant(in));
+    }
+
+    private static void writeInstant(DataOutputStream out, Instant instant) throws IOException {
+        out.writeLong(instant.getEpochSecond());
+        out.writeInt(instant.getNano());
+    }
+
+    private static Instant readInstant(DataInputStream in) throws IOException {
+        return Instant.ofEpochSecond(in.readLong(), in.readInt());
+    }
+}
@@ -0,0 +1,32 @@
+package com.payment.repository.wal;
+
+import com.payment.repository.InMemoryPaymentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+// Durable payments, enabled with payment.wal.enabled=true
+@Configuration
+@ConditionalOnProperty(name = "payment.wal.enabled", havingValue = "true")
+public class WalConfig {
+
+    @Bean(destroyMethod = "close")
+    public PaymentWriteAheadLog paymentWriteAheadLog(InMemoryPaymentRepository memory,
+                                                     @Value("${payment.wal.path:data/payments.wal}") String path,
+                                                     @Value("${payment.wal.commit-window-micros:0}") long commitWindowMicros,
+                                                     @Value("${payment.wal.compact-threshold-bytes:67108864}") long compactThresholdBytes) throws IOException {
+        return new PaymentWriteAheadLog(Path.of(path), Duration.ofNanos(commitWindowMicros * 1_000), compactThresholdBytes, memory::restore);
+    }
+
+    @Bean
+    @Primary
+    public WalPaymentRepository walPaymentRepository(InMemoryPaymentRepository memory, PaymentWriteAheadLog paymentWriteAheadLog) {
+        return new WalPaymentRepository(memory, paymentWriteAheadLog);
+    }
+}
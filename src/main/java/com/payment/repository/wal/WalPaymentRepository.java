@@ -0,0 +1,39 @@
+package com.payment.repository.wal;
+
+import com.payment.domain.Payment;
+import com.payment.domain.PaymentStatus;
+import com.payment.repository.InMemoryPaymentRepository;
+import com.payment.repository.PaymentRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+// WalPaymentRepository: InMemoryPaymentRepository made durable by logging every save (creates and status
+// transitions alike) to the write-ahead log before it becomes visible. The log gets the copy memory is about
+// to store, so readers never see an unlogged state and a failed append leaves memory as it was. On startup
+// the log is replayed into memory, last state per payment wins. The record is queued under the payment's
+// stripe lock, but the fsync wait happens after the lock is released (see InMemoryPaymentRepository).
+public class WalPaymentRepository implements PaymentRepository {
+    private final InMemoryPaymentRepository memory;
+    private final PaymentWriteAheadLog wal;
+
+    public WalPaymentRepository(InMemoryPaymentRepository memory, PaymentWriteAheadLog wal) {
+        this.memory = memory;
+        this.wal = wal;
+    }
+
+    @Override
+    public void save(Payment payment) {
+        memory.save(payment, wal::enqueue);
+    }
+
+    @Override
+    public Optional<Payment> findById(String id) {
+        return memory.findById(id);
+    }
+
+    @Override
+    public List<Payment> findByStatus(PaymentStatus status) {
+        return memory.findByStatus(status);
+    }
+}
@@ -0,0 +1,60 @@
+package com.payment.security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+/**
+ * SharedSecret: HMAC-SHA256 challenge-response between peers that share a configured secret.
+ *
+ * Each side sends a fresh nonce and answers the other's with proof(role, nonce); the role keeps a proof made
+ * by one side from being replayed as the other's. Used by replication (payment.replication.secret) and the
+ * idempotency cluster RPC (payment.cluster.secret); {@link #hmac} also signs webhook deliveries.
+ */
+public final class SharedSecret {
+    public static final int NONCE_BYTES = 16;
+    public static final int PROOF_BYTES = 32;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private SharedSecret() {
+    }
+
+    public static byte[] secretBytes(String property, String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalArgumentException(property + " must be set on every peer");
+        }
+        return secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static byte[] nonce() {
+        byte[] nonce = new byte[NONCE_BYTES];
+        RANDOM.nextBytes(nonce);
+        return nonce;
+    }
+
+    public static byte[] proof(byte[] secret, String role, byte[] nonce) {
+        return hmac(secret, role.getBytes(StandardCharsets.UTF_8), nonce);
+    }
+
+    // constant time, so a peer cannot learn the proof byte by byte
+    public static boolean verify(byte[] secret, String role, byte[] nonce, byte[] proof) {
+        return MessageDigest.isEqual(proof(secret, role, nonce), proof);
+    }
+
+    public static byte[] hmac(byte[] key, byte[]... parts) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            for (byte[] part : parts) {
+                mac.update(part);
+            }
+            return mac.doFinal();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+}
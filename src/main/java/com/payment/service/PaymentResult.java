@@ -0,0 +1,94 @@
+package com.payment.service;
+
+import com.payment.domain.PaymentStatus;
+import com.payment.dto.PaymentResponse;
+import com.payment.exception.ConflictException;
+import com.payment.exception.IdempotencyInProgressException;
+import com.payment.exception.InvalidPaymentStatusException;
+import com.payment.exception.PaymentNotFoundException;
+
+/**
+ * PaymentResult: what a create, cancel or lookup answered, either a payment or a refusal.
+ *
+ * Refusals (unknown payment, reused or expired idempotency key, request still in progress, wrong status) are
+ * routine under retries and polling, so they are returned as values instead of thrown. Their messages are
+ * fixed, and each refusal is a shared constant, so answering one allocates nothing. The exceptions orElseThrow() raises for the older API are built
+ * without a stack trace for the same reason.
+ */
+public final class PaymentResult {
+    private static final PaymentResult NOT_FOUND = new PaymentResult(PaymentResultStatus.NOT_FOUND, null, "Payment Not Found");
+    private static final PaymentResult IN_PROGRESS = new PaymentResult(PaymentResultStatus.IN_PROGRESS, null, "Request with same Idempotency is still In-Progress");
+    private static final PaymentResult PAYLOAD_MISMATCH = new PaymentResult(PaymentResultStatus.CONFLICT, null, "Idempotency-Key reused with different payload");
+    private static final PaymentResult KEY_EXPIRED = new PaymentResult(PaymentResultStatus.CONFLICT, null, "Idempotency-Key expired; retry with a NEW key");
+    private static final PaymentResult REPLAY_UNAVAILABLE = new PaymentResult(PaymentResultStatus.CONFLICT, null, "Original response not available on this node; retry on the node that created the payment");
+    private static final PaymentResult CONCURRENT_UPDATE = new PaymentResult(PaymentResultStatus.CONFLICT, null, "Payment was changed by another request; retry");
+    private static final PaymentResult[] CANNOT_CANCEL = new PaymentResult[PaymentStatus.values().length];
+
+    static {
+        for (PaymentStatus status : PaymentStatus.values()) {
+            CANNOT_CANCEL[status.ordinal()] = new PaymentResult(PaymentResultStatus.INVALID_STATUS, null,
+                    "Payment cannot be canceled from status: " + status);
+        }
+    }
+
+    private final PaymentResultStatus status;
+    private final PaymentResponse response;
+    private final String message;
+
+    private PaymentResult(PaymentResultStatus status, PaymentResponse response, String message) {
+        this.status = status;
+        this.response = response;
+        this.message = message;
+    }
+
+    public static PaymentResult ok(PaymentResponse response) {
+        return new PaymentResult(PaymentResultStatus.OK, response, null);
+    }
+
+    public static PaymentResult notFound() {
+        return NOT_FOUND;
+    }
+
+    public static PaymentResult inProgress() {
+        return IN_PROGRESS;
+    }
+
+    public static PaymentResult payloadMismatch() {
+        return PAYLOAD_MISMATCH;
+    }
+
+    public static PaymentResult keyExpired() {
+        return KEY_EXPIRED;
+    }
+
+    public static PaymentResult replayUnavailable() {
+        return REPLAY_UNAVAILABLE;
+    }
+
+    public static PaymentResult concurrentUpdate() {
+        return CONCURRENT_UPDATE;
+    }
+
+    public static PaymentResult cannotCancel(PaymentStatus current) {
+        return CANNOT_CANCEL[current.ordinal()];
+    }
+
+    public boolean isOk() {
+        return status == PaymentResultStatus.OK;
+    }
+
+    public PaymentResultStatus getStatus() { return status; }
+    public PaymentResponse getResponse() { return response; }
+    public String getMessage() { return message; }
+
+    // the exception-style answer, for callers of the PaymentResponse methods
+    public PaymentResponse orElseThrow() {
+        return switch (status) {
+            case OK -> response;
+            case IN_PROGRESS -> throw new IdempotencyInProgressException(message);
+            case NOT_FOUND -> throw new PaymentNotFoundException(message);
+            case CONFLICT -> throw new ConflictException(message);
+            case INVALID_STATUS -> throw new InvalidPaymentStatusException(message);
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package com.payment.service;
+
+import org.springframework.http.HttpStatus;
+
+// PaymentResultStatus: kind of answer a payment operation gave, with the HTTP status it is served as
+public enum PaymentResultStatus {
+    OK(HttpStatus.OK),
+    IN_PROGRESS(HttpStatus.ACCEPTED),
+    NOT_FOUND(HttpStatus.NOT_FOUND),
+    CONFLICT(HttpStatus.CONFLICT),           // payload mismatch or expired idempotency key
+    INVALID_STATUS(HttpStatus.CONFLICT);
+
+    private final HttpStatus httpStatus;
+
+    PaymentResultStatus(HttpStatus httpStatus) {
+        this.httpStatus = httpStatus;
+    }
+
+    public HttpStatus getHttpStatus() {
+        return httpStatus;
+    }
+}
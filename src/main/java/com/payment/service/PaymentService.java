@@ -6,14 +6,19 @@ import com.payment.dto.CreatePaymentRequest;
 import com.payment.dto.PaymentResponse;
 import com.payment.event.model.*;
 import com.payment.event.publisher.PaymentEventPublisher;
-import com.payment.exception.ConflictException;
-import com.payment.exception.IdempotencyInProgressException;
-import com.payment.exception.InvalidPaymentStatusException;
-import com.payment.exception.PaymentNotFoundException;
+import com.payment.exception.PaymentVersionConflictException;
+import com.payment.hotkey.HotKeyTracker;
+import com.payment.id.IdGenerator;
 import com.payment.idempotency.model.IdempotencyRecord;
 import com.payment.idempotency.model.IdempotencySaveResult;
 import com.payment.idempotency.model.RecordStatus;
 import com.payment.idempotency.repository.IdempotencyRepository;
+import com.payment.jfr.PaymentOperationEvent;
+import com.payment.jfr.PaymentOutcome;
+import com.payment.jfr.RecordingIdempotencyRepository;
+import com.payment.jfr.RecordingPaymentRepository;
+import com.payment.reconciliation.ChangeTrackingPaymentRepository;
+import com.payment.reconciliation.ReconciliationChangeSet;
 import com.payment.repository.PaymentRepository;
 import org.springframework.stereotype.Service;
 
@@ -22,8 +27,8 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 
 // Service: contains core business logic and enforces payment status transitions
 @Service
@@ -31,16 +36,117 @@ public class PaymentService {
     private final PaymentRepository paymentRepository;
     private final IdempotencyRepository idempotencyRepository;
     private final PaymentEventPublisher publisher;
+    private final IdGenerator idGenerator;
+    private final HotKeyTracker hotKeys;
     private static final Duration IDEMPOTENCY_TTL = Duration.ofSeconds(30);
+    private static final String EXPIRY_REASON = "expired";
 
-    public PaymentService(PaymentRepository paymentRepository, IdempotencyRepository idempotencyRepository, PaymentEventPublisher publisher) {
-        this.paymentRepository = paymentRepository;
-        this.idempotencyRepository = idempotencyRepository;
+    public PaymentService(PaymentRepository paymentRepository, IdempotencyRepository idempotencyRepository, PaymentEventPublisher publisher, IdGenerator idGenerator, HotKeyTracker hotKeys, ReconciliationChangeSet changes) {
+        // repository calls show up in JFR recordings as com.payment.* events; saved payments are queued for reconciliation.
+        // The recorder wraps the store itself, so events name the real repository
+        this.paymentRepository = new ChangeTrackingPaymentRepository(new RecordingPaymentRepository(paymentRepository), changes);
+        this.idempotencyRepository = new RecordingIdempotencyRepository(idempotencyRepository);
         this.publisher = publisher;
+        this.idGenerator = idGenerator;
+        this.hotKeys = hotKeys;
     }
 
 
     public PaymentResponse createPayment(CreatePaymentRequest request, String idempotencyKey) {
+        return tryCreatePayment(request, idempotencyKey).orElseThrow();
+    }
+
+    public PaymentResponse cancelPayment(String id, String idempotencyKey, CancelPaymentRequest request) {
+        return tryCancelPayment(id, idempotencyKey, request).orElseThrow();
+    }
+
+    public PaymentResponse getPayment(String id) {
+        return tryGetPayment(id).orElseThrow();
+    }
+
+    // the try* methods return refusals (404, 409, in progress) as results; only invalid input and failures throw
+    public PaymentResult tryCreatePayment(CreatePaymentRequest request, String idempotencyKey) {
+        PaymentOperationEvent event = new PaymentOperationEvent("create", null, idempotencyKey);
+        event.begin();
+        try {
+            PaymentResult result = create(request, idempotencyKey, event);
+            if (result.isOk()) {
+                event.paymentId(result.getResponse().getId());
+            } else {
+                event.outcome(outcomeOf(result));
+            }
+            return result;
+        } catch (RuntimeException ex) {
+            event.outcome(PaymentOutcome.of(ex));
+            throw ex;
+        } finally {
+            event.finish();
+        }
+    }
+
+    public PaymentResult tryCancelPayment(String id, String idempotencyKey, CancelPaymentRequest request) {
+        PaymentOperationEvent event = new PaymentOperationEvent("cancel", id, idempotencyKey);
+        event.begin();
+        try {
+            PaymentResult result = cancel(id, idempotencyKey, request, event);
+            if (!result.isOk()) {
+                event.outcome(outcomeOf(result));
+            }
+            return result;
+        } catch (RuntimeException ex) {
+            event.outcome(PaymentOutcome.of(ex));
+            throw ex;
+        } finally {
+            event.finish();
+        }
+    }
+
+    public PaymentResult tryGetPayment(String id) {
+        hotKeys.recordPaymentId(id);
+        return paymentRepository.findById(id)
+                .map(payment -> PaymentResult.ok(toResponse(payment)))
+                .orElse(PaymentResult.notFound());
+    }
+
+    // cancels the payments that are still CREATED, each with a PaymentCanceled event whose reason is "expired"
+    public int expirePayments(List<String> paymentIds) {
+        int expired = 0;
+        for (String id : paymentIds) {
+            PaymentOperationEvent event = new PaymentOperationEvent("expire", id, null);
+            event.begin();
+            try {
+                Optional<Payment> paymentOpt = paymentRepository.findById(id);
+                if (paymentOpt.isEmpty()) {
+                    event.outcome(PaymentOutcome.NOT_FOUND);
+                    continue;
+                }
+                Payment payment = paymentOpt.get();
+                if (payment.getStatus() != PaymentStatus.CREATED) {
+                    event.outcome(PaymentOutcome.INVALID_STATUS);
+                    continue;
+                }
+
+                Instant now = Instant.now();
+                payment.setStatus(PaymentStatus.CANCELED);
+                payment.setUpdatedAt(now);
+                paymentRepository.save(payment);
+                publishPaymentCanceled(payment, now, null, EXPIRY_REASON);
+                event.outcome(PaymentOutcome.EXPIRED);
+                expired++;
+            } catch (PaymentVersionConflictException ex) {
+                // a client request changed the payment first
+                event.outcome(PaymentOutcome.CONFLICT);
+            } catch (RuntimeException ex) {
+                event.outcome(PaymentOutcome.of(ex));
+                System.err.println("[WARN] payment expiry failed. paymentId=" + id + ", error=" + ex.getMessage());
+            } finally {
+                event.finish();
+            }
+        }
+        return expired;
+    }
+
+    private PaymentResult create(CreatePaymentRequest request, String idempotencyKey, PaymentOperationEvent event) {
         if (request.getAmount() <= 0) {
             throw new IllegalArgumentException("Amount must be positive");
         }
@@ -52,6 +158,7 @@ public class PaymentService {
 
         // 带有Idempotency，生成新的payment request
         if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+            hotKeys.recordIdempotencyKey(idempotencyKey);
 
             String requestHash = computeRequestHash(request.getAmount(), request.getCurrency());
             Optional<IdempotencyRecord> existingOpt = idempotencyRepository.findByIdempotency(idempotencyKey);
@@ -59,11 +166,11 @@ public class PaymentService {
 
             // 通过Idempotency，进行了重复操作
             if (existingOpt.isPresent()) {
-                return validateAndReturnExistingPayment(existingOpt.get(), requestHash);
+                return validateAndReturnExistingPayment(existingOpt.get(), requestHash, event);
             }
 
             // 新的Payment 带有Idempotency
-            String paymentId = UUID.randomUUID().toString();
+            String paymentId = idGenerator.nextId().toString();
 
             IdempotencyRecord record = new IdempotencyRecord(idempotencyKey, requestHash, paymentId, now, RecordStatus.IN_PROGRESS);
             IdempotencySaveResult saveResult = idempotencyRepository.save(record);
@@ -73,62 +180,92 @@ public class PaymentService {
                 Payment payment = createAndSavePayment(request, paymentId, now);
                 publishPaymentCreated(payment, now, idempotencyKey);
 
-                try {
-                    idempotencyRepository.markCompleted(idempotencyKey);
-                } catch (IllegalStateException ex) {
-                    System.err.println("[WARN] markCompleted failed. key=" + idempotencyKey + ", error=" + ex.getMessage());
-                }
+                PaymentResponse response = toResponse(payment);
+                completeIdempotency(idempotencyKey, response);
 
-                return toResponse(payment);
+                event.outcome(PaymentOutcome.CREATED);
+                return PaymentResult.ok(response);
             } else if (saveResult == IdempotencySaveResult.EXISTED) {
 
                 IdempotencyRecord existingRecord = idempotencyRepository.findByIdempotency(idempotencyKey)
                         .orElseThrow(() -> new IllegalStateException("Idempotency key exists but record missing"));
 
-                return validateAndReturnExistingPayment(existingRecord, requestHash);
+                return validateAndReturnExistingPayment(existingRecord, requestHash, event);
             } else {
                 throw new IllegalStateException("Unexpected idempotency saveResult=" + saveResult);
             }
         }
 
         // 不带有Idempotency，生成新的payment request
-        String paymentId = UUID.randomUUID().toString();
+        String paymentId = idGenerator.nextId().toString();
 
         Payment payment = createAndSavePayment(request, paymentId, now);
         publishPaymentCreated(payment, now, idempotencyKey);
 
-        return toResponse(payment);
+        event.outcome(PaymentOutcome.CREATED);
+        return PaymentResult.ok(toResponse(payment));
     }
 
 
-    public PaymentResponse cancelPayment(String id, String idempotencyKey, CancelPaymentRequest request) {
-        Payment payment = paymentRepository.findById(id)
-                .orElseThrow(() -> new PaymentNotFoundException("Payment Not Found"));
+    private PaymentResult cancel(String id, String idempotencyKey, CancelPaymentRequest request, PaymentOperationEvent event) {
+        hotKeys.recordPaymentId(id);
+        String reason = request == null ? null : request.getReason();
+        boolean idempotent = idempotencyKey != null && !idempotencyKey.isBlank();
+        String requestHash = null;
 
-        if (payment.getStatus() == PaymentStatus.CANCELED) {
-            return toResponse(payment);
+        // a replay is answered from the idempotency record alone
+        if (idempotent) {
+            hotKeys.recordIdempotencyKey(idempotencyKey);
+            requestHash = computeCancelHash(id, reason);
+            Optional<IdempotencyRecord> existingOpt = idempotencyRepository.findByIdempotency(idempotencyKey);
+            if (existingOpt.isPresent()) {
+                return validateAndReturnExistingCancel(existingOpt.get(), requestHash, event);
+            }
         }
 
-        if (payment.getStatus() != PaymentStatus.CREATED) {
-            throw new InvalidPaymentStatusException("Payment cannot be canceled from status: " + payment.getStatus());
+        Optional<Payment> paymentOpt = paymentRepository.findById(id);
+        if (paymentOpt.isEmpty()) {
+            return PaymentResult.notFound();
         }
+        Payment payment = paymentOpt.get();
 
-        payment.setStatus(PaymentStatus.CANCELED);
-        Instant now = Instant.now();
-        payment.setUpdatedAt(now);
-        paymentRepository.save(payment);
+        if (payment.getStatus() != PaymentStatus.CREATED && payment.getStatus() != PaymentStatus.CANCELED) {
+            return PaymentResult.cannotCancel(payment.getStatus());
+        }
 
-        String reason = request == null ? null : request.getReason();
-        publishPaymentCanceled(payment, now, idempotencyKey, reason);
+        // the key is claimed only once the cancel is known to succeed, so rejected requests leave no record behind
+        if (idempotent) {
+            IdempotencyRecord record = new IdempotencyRecord(idempotencyKey, requestHash, id, Instant.now(), RecordStatus.IN_PROGRESS);
+            if (idempotencyRepository.save(record) == IdempotencySaveResult.EXISTED) {
+                IdempotencyRecord existingRecord = idempotencyRepository.findByIdempotency(idempotencyKey)
+                        .orElseThrow(() -> new IllegalStateException("Idempotency key exists but record missing"));
 
-        return toResponse(payment);
-    }
+                return validateAndReturnExistingCancel(existingRecord, requestHash, event);
+            }
+        }
 
-    public PaymentResponse getPayment(String id) {
-        Payment payment =  paymentRepository.findById(id)
-                .orElseThrow(() -> new PaymentNotFoundException("Payment Not Found"));
+        if (payment.getStatus() == PaymentStatus.CANCELED) {
+            event.outcome(PaymentOutcome.ALREADY_CANCELED);
+        } else {
+            payment.setStatus(PaymentStatus.CANCELED);
+            Instant now = Instant.now();
+            payment.setUpdatedAt(now);
+            try {
+                paymentRepository.save(payment);
+            } catch (PaymentVersionConflictException ex) {
+                // lost the race to another cancel or the expiry job; a retry with the same key resolves the record
+                return PaymentResult.concurrentUpdate();
+            }
 
-        return toResponse(payment);
+            publishPaymentCanceled(payment, now, idempotencyKey, reason);
+            event.outcome(PaymentOutcome.CANCELED);
+        }
+
+        PaymentResponse response = toResponse(payment);
+        if (idempotent) {
+            completeIdempotency(idempotencyKey, response);
+        }
+        return PaymentResult.ok(response);
     }
 
     private PaymentResponse toResponse(Payment payment) {
@@ -143,9 +280,15 @@ public class PaymentService {
     }
 
     private String computeRequestHash(long amount, String currency) {
-        try {
-            String canonical = "amount=" + amount + "|currency=" + currency.trim().toUpperCase();
+        return sha256("amount=" + amount + "|currency=" + currency.trim().toUpperCase());
+    }
 
+    private String computeCancelHash(String paymentId, String reason) {
+        return sha256("cancel|paymentId=" + paymentId + "|reason=" + (reason == null ? "" : reason));
+    }
+
+    private String sha256(String canonical) {
+        try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
             byte[] hashBytes = digest.digest(canonical.getBytes(StandardCharsets.UTF_8));
 
@@ -159,9 +302,9 @@ public class PaymentService {
         }
     }
 
-    private PaymentResponse validateAndReturnExistingPayment(IdempotencyRecord record, String requestHash) {
+    private PaymentResult validateAndReturnExistingPayment(IdempotencyRecord record, String requestHash, PaymentOperationEvent event) {
         if (!record.getRequestHash().equals(requestHash)) {
-            throw new ConflictException("Idempotency-Key reused with different payload");
+            return conflict(record, PaymentResult.payloadMismatch());
         }
 
         RecordStatus status = record.getRecordStatus();
@@ -170,7 +313,12 @@ public class PaymentService {
         }
 
         if (status == RecordStatus.EXPIRED) {
-            throw new ConflictException("Idempotency-Key expired; retry with a NEW key");
+            return conflict(record, PaymentResult.keyExpired());
+        }
+
+        if (status == RecordStatus.COMPLETED && record.getResponse() != null) {
+            event.outcome(PaymentOutcome.REPLAYED);
+            return PaymentResult.ok(record.getResponse());
         }
 
         Optional<Payment> paymentOpt = paymentRepository.findById(record.getPaymentId());
@@ -185,30 +333,103 @@ public class PaymentService {
                         System.err.println("[WARN] markExpired failed. key=" + record.getIdempotencyKey() + ", error=" + ex.getMessage());
                     }
 
-                    throw new ConflictException("Idempotency-Key expired; retry with a NEW key");
+                    return conflict(record, PaymentResult.keyExpired());
                 }
 
-                throw new IdempotencyInProgressException("Request with same Idempotency is still In-Progress");
+                return PaymentResult.inProgress();
             }
 
-            try {
-                idempotencyRepository.markCompleted(record.getIdempotencyKey());
-            } catch (IllegalStateException ex) {
-                System.err.println("[WARN] markCompleted failed. key=" + record.getIdempotencyKey() + ", error=" + ex.getMessage());
-            }
+            PaymentResponse response = toResponse(paymentOpt.get());
+            completeIdempotency(record.getIdempotencyKey(), response);
 
-            return toResponse(paymentOpt.get());
+            event.outcome(PaymentOutcome.REPLAYED);
+            return PaymentResult.ok(response);
         }
 
         if (status == RecordStatus.COMPLETED) {
-            Payment payment = paymentOpt.orElseThrow(() ->
-                    new IllegalStateException("Record is COMPLETED but payment missing. paymentId=" + record.getPaymentId()));
-            return toResponse(payment);
+            // in cluster mode the payment lives on the node that created it; without the stored response a
+            // replay routed elsewhere cannot know the payment's current state, so it is refused, not guessed
+            if (paymentOpt.isEmpty()) {
+                return PaymentResult.replayUnavailable();
+            }
+            event.outcome(PaymentOutcome.REPLAYED);
+            return PaymentResult.ok(toResponse(paymentOpt.get()));
         }
 
         throw new IllegalStateException("Unsupported record status=" + status + " for paymentId=" + record.getPaymentId());
     }
 
+    private PaymentResult validateAndReturnExistingCancel(IdempotencyRecord record, String requestHash, PaymentOperationEvent event) {
+        if (!record.getRequestHash().equals(requestHash)) {
+            return conflict(record, PaymentResult.payloadMismatch());
+        }
+
+        RecordStatus status = record.getRecordStatus();
+        if (status == RecordStatus.EXPIRED) {
+            return conflict(record, PaymentResult.keyExpired());
+        }
+
+        if (status == RecordStatus.COMPLETED && record.getResponse() != null) {
+            event.outcome(PaymentOutcome.REPLAYED);
+            return PaymentResult.ok(record.getResponse());
+        }
+
+        // the first request is still running, or stopped between the cancel and completing its record
+        Optional<Payment> paymentOpt = paymentRepository.findById(record.getPaymentId());
+        if (paymentOpt.isEmpty()) {
+            return PaymentResult.notFound();
+        }
+        Payment payment = paymentOpt.get();
+
+        if (payment.getStatus() == PaymentStatus.CANCELED) {
+            PaymentResponse response = toResponse(payment);
+            if (status == RecordStatus.IN_PROGRESS) {
+                completeIdempotency(record.getIdempotencyKey(), response);
+            }
+            event.outcome(PaymentOutcome.REPLAYED);
+            return PaymentResult.ok(response);
+        }
+
+        if (status == RecordStatus.IN_PROGRESS) {
+            if (isExpired(record)) {
+                try {
+                    idempotencyRepository.markExpired(record.getIdempotencyKey());
+                } catch (IllegalStateException ex) {
+                    System.err.println("[WARN] markExpired failed. key=" + record.getIdempotencyKey() + ", error=" + ex.getMessage());
+                }
+
+                return conflict(record, PaymentResult.keyExpired());
+            }
+
+            return PaymentResult.inProgress();
+        }
+
+        throw new IllegalStateException("Unsupported record status=" + status + " for paymentId=" + record.getPaymentId());
+    }
+
+    private void completeIdempotency(String idempotencyKey, PaymentResponse response) {
+        try {
+            idempotencyRepository.markCompleted(idempotencyKey, response);
+        } catch (IllegalStateException ex) {
+            System.err.println("[WARN] markCompleted failed. key=" + idempotencyKey + ", error=" + ex.getMessage());
+        }
+    }
+
+    private PaymentResult conflict(IdempotencyRecord record, PaymentResult result) {
+        hotKeys.recordConflict(record.getIdempotencyKey());
+        return result;
+    }
+
+    private static PaymentOutcome outcomeOf(PaymentResult result) {
+        return switch (result.getStatus()) {
+            case IN_PROGRESS -> PaymentOutcome.IN_PROGRESS;
+            case NOT_FOUND -> PaymentOutcome.NOT_FOUND;
+            case CONFLICT -> PaymentOutcome.CONFLICT;
+            case INVALID_STATUS -> PaymentOutcome.INVALID_STATUS;
+            case OK -> throw new IllegalArgumentException("Not a refusal: " + result.getStatus());
+        };
+    }
+
     private Payment createAndSavePayment(CreatePaymentRequest request, String paymentId, Instant now) {
         Payment payment = new Payment(
                 paymentId,
@@ -231,6 +452,7 @@ public class PaymentService {
 
     private void publishPaymentCreated(Payment payment, Instant now, String idempotencyKey) {
         PaymentEvent event = new PaymentCreatedEvent(
+                idGenerator.nextId(),
                 payment.getId(),
                 now,
                 idempotencyKey,
@@ -242,9 +464,12 @@ public class PaymentService {
 
     private void publishPaymentCanceled(Payment payment, Instant now, String idempotencyKey, String reason) {
         PaymentEvent event = new PaymentCanceledEvent(
+                idGenerator.nextId(),
                 payment.getId(),
                 now,
                 idempotencyKey,
+                payment.getAmount(),
+                payment.getCurrency(),
                 reason);
 
         publisher.publish(event);
@@ -0,0 +1,49 @@
+package com.payment.service;
+
+import com.payment.dto.CancelPaymentRequest;
+import com.payment.dto.CreatePaymentRequest;
+import com.payment.event.model.PaymentEvent;
+import com.payment.event.store.PaymentEventStore;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+// ReactivePaymentService: Mono/Flux counterparts of PaymentService for the WebFlux stack.
+// This is a thread-offload adapter, not a non-blocking store path. Business rules stay in PaymentService, whose
+// calls block (WAL fsync, JDBC writes, cluster RPC, BLOCK event queues), so each one runs on the bounded-elastic
+// scheduler and holds one of its threads (10 per core by default) until it returns. Netty therefore keeps idle
+// connections cheap, but in-flight writes cost a thread just as on Tomcat; README "Reactive Stack" has the
+// measured comparison.
+// Refusals (404/409/in progress) arrive as PaymentResult values; only invalid input and failures surface
+// as error signals.
+@Service
+public class ReactivePaymentService {
+    private final PaymentService paymentService;
+    private final PaymentEventStore eventStore;
+
+    public ReactivePaymentService(PaymentService paymentService, PaymentEventStore eventStore) {
+        this.paymentService = paymentService;
+        this.eventStore = eventStore;
+    }
+
+    public Mono<PaymentResult> tryCreatePayment(CreatePaymentRequest request, String idempotencyKey) {
+        return Mono.fromCallable(() -> paymentService.tryCreatePayment(request, idempotencyKey))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<PaymentResult> tryCancelPayment(String id, String idempotencyKey, CancelPaymentRequest request) {
+        return Mono.fromCallable(() -> paymentService.tryCancelPayment(id, idempotencyKey, request))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<PaymentResult> tryGetPayment(String id) {
+        return Mono.fromCallable(() -> paymentService.tryGetPayment(id))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    // the event store is an in-memory map read, safe on the event loop
+    public Flux<PaymentEvent> listEvents(String paymentId) {
+        return Flux.defer(() -> Flux.fromIterable(eventStore.listByPaymentId(paymentId)));
+    }
+}
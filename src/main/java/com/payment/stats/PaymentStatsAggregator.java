@@ -0,0 +1,87 @@
+package com.payment.stats;
+
+import com.payment.event.handler.PaymentEventHandler;
+import com.payment.event.model.PaymentCanceledEvent;
+import com.payment.event.model.PaymentCreatedEvent;
+import com.payment.event.model.PaymentEvent;
+import com.payment.event.model.PaymentEventType;
+import com.payment.stats.model.PaymentStatsSnapshot;
+import com.payment.stats.model.StatsBreakdown;
+import com.payment.stats.model.StatsWindow;
+import com.payment.stats.model.WindowTotals;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// PaymentStatsAggregator: maintains per-currency and per-event-type aggregates incrementally as events are published,
+// so the stats endpoint never scans repositories or event lists. Everything counts events, not payments: a created
+// and later canceled payment adds one PAYMENT_CREATED and one PAYMENT_CANCELED. Currency totals are kept per event
+// type too, so canceled amounts are never added to created ones
+@Component
+public class PaymentStatsAggregator implements PaymentEventHandler {
+    private final Clock clock;
+    private final Map<String, Map<PaymentEventType, WindowedPaymentStats>> byCurrency = new ConcurrentHashMap<>();
+    private final Map<PaymentEventType, WindowedPaymentStats> byEventType = new EnumMap<>(PaymentEventType.class);
+
+    public PaymentStatsAggregator() {
+        this(Clock.systemUTC());
+    }
+
+    PaymentStatsAggregator(Clock clock) {
+        this.clock = clock;
+        // populated once up front so the map is never structurally modified after construction
+        byEventType.putAll(perEventType());
+    }
+
+    @Override
+    public void handle(PaymentEvent paymentEvent) {
+        if (paymentEvent instanceof PaymentCreatedEvent created) {
+            record(PaymentEventType.PAYMENT_CREATED, created.getCurrency(), created.getAmount());
+        } else if (paymentEvent instanceof PaymentCanceledEvent canceled) {
+            record(PaymentEventType.PAYMENT_CANCELED, canceled.getCurrency(), canceled.getAmount());
+        }
+    }
+
+    public PaymentStatsSnapshot snapshot() {
+        Map<String, StatsBreakdown> windows = new LinkedHashMap<>();
+        for (StatsWindow window : StatsWindow.values()) {
+            windows.put(window.getLabel(), breakdown(stats -> stats.window(window)));
+        }
+        return new PaymentStatsSnapshot(clock.instant(), windows, breakdown(WindowedPaymentStats::total));
+    }
+
+    private void record(PaymentEventType type, String currency, long amount) {
+        byEventType.get(type).record(amount);
+        if (currency != null && !currency.isBlank()) {
+            byCurrency.computeIfAbsent(currency.trim().toUpperCase(), k -> perEventType()).get(type).record(amount);
+        }
+    }
+
+    // filled completely before it is published, so readers never see it change shape
+    private Map<PaymentEventType, WindowedPaymentStats> perEventType() {
+        Map<PaymentEventType, WindowedPaymentStats> stats = new EnumMap<>(PaymentEventType.class);
+        for (PaymentEventType type : PaymentEventType.values()) {
+            stats.put(type, new WindowedPaymentStats(clock));
+        }
+        return stats;
+    }
+
+    private StatsBreakdown breakdown(Function<WindowedPaymentStats, WindowTotals> reader) {
+        Map<String, Map<PaymentEventType, WindowTotals>> currencies = new TreeMap<>();
+        byCurrency.forEach((currency, stats) -> currencies.put(currency, read(stats, reader)));
+        return new StatsBreakdown(currencies, read(byEventType, reader));
+    }
+
+    private static Map<PaymentEventType, WindowTotals> read(Map<PaymentEventType, WindowedPaymentStats> stats,
+                                                            Function<WindowedPaymentStats, WindowTotals> reader) {
+        Map<PaymentEventType, WindowTotals> totals = new EnumMap<>(PaymentEventType.class);
+        stats.forEach((type, windowed) -> totals.put(type, reader.apply(windowed)));
+        return totals;
+    }
+}
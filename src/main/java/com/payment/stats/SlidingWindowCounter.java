@@ -0,0 +1,76 @@
+package com.payment.stats;
+
+import com.payment.stats.model.WindowTotals;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// SlidingWindowCounter: ring of fixed-width time buckets backed by LongAdder.
+// A slot is recycled lazily by the first writer that lands in a newer bucket, so
+// writes never scan and reads only touch the fixed number of buckets in the ring.
+public class SlidingWindowCounter {
+    private final long bucketMillis;
+    private final AtomicReferenceArray<Bucket> buckets;
+    private final Clock clock;
+
+    public SlidingWindowCounter(Duration window, int bucketCount, Clock clock) {
+        if (bucketCount <= 0) {
+            throw new IllegalArgumentException("bucketCount must be positive");
+        }
+        if (window.toMillis() % bucketCount != 0) {
+            throw new IllegalArgumentException("window must be divisible into " + bucketCount + " buckets");
+        }
+        this.bucketMillis = window.toMillis() / bucketCount;
+        this.buckets = new AtomicReferenceArray<>(bucketCount);
+        this.clock = clock;
+    }
+
+    public void add(long amount) {
+        Bucket bucket = bucketFor(clock.millis() / bucketMillis);
+        bucket.count.increment();
+        bucket.amount.add(amount);
+    }
+
+    public WindowTotals sum() {
+        long newest = clock.millis() / bucketMillis;
+        long oldest = newest - buckets.length() + 1;
+
+        long count = 0;
+        long amount = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null && bucket.epoch >= oldest && bucket.epoch <= newest) {
+                count += bucket.count.sum();
+                amount += bucket.amount.sum();
+            }
+        }
+        return new WindowTotals(count, amount);
+    }
+
+    private Bucket bucketFor(long epoch) {
+        int slot = (int) (epoch % buckets.length());
+        while (true) {
+            Bucket current = buckets.get(slot);
+            // a writer that stalled for a whole window lands in the newer bucket rather than resurrecting an old one
+            if (current != null && current.epoch >= epoch) {
+                return current;
+            }
+            Bucket fresh = new Bucket(epoch);
+            if (buckets.compareAndSet(slot, current, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private static final class Bucket {
+        private final long epoch;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder amount = new LongAdder();
+
+        private Bucket(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+}
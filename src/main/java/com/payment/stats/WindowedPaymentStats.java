@@ -0,0 +1,40 @@
+package com.payment.stats;
+
+import com.payment.stats.model.StatsWindow;
+import com.payment.stats.model.WindowTotals;
+
+import java.time.Clock;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// WindowedPaymentStats: count/amount for one aggregate key (an event type, or a currency and event type), all-time and per sliding window
+public class WindowedPaymentStats {
+    private static final int BUCKETS_PER_WINDOW = 60;
+
+    private final Map<StatsWindow, SlidingWindowCounter> windows = new EnumMap<>(StatsWindow.class);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalAmount = new LongAdder();
+
+    public WindowedPaymentStats(Clock clock) {
+        for (StatsWindow window : StatsWindow.values()) {
+            windows.put(window, new SlidingWindowCounter(window.getDuration(), BUCKETS_PER_WINDOW, clock));
+        }
+    }
+
+    public void record(long amount) {
+        totalCount.increment();
+        totalAmount.add(amount);
+        for (SlidingWindowCounter counter : windows.values()) {
+            counter.add(amount);
+        }
+    }
+
+    public WindowTotals window(StatsWindow window) {
+        return windows.get(window).sum();
+    }
+
+    public WindowTotals total() {
+        return new WindowTotals(totalCount.sum(), totalAmount.sum());
+    }
+}
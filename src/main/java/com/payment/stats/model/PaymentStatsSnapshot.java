@@ -0,0 +1,28 @@
+package com.payment.stats.model;
+
+import java.time.Instant;
+import java.util.Map;
+
+public class PaymentStatsSnapshot {
+    private final Instant generatedAt;
+    private final Map<String, StatsBreakdown> windows; // keyed by window label, e.g. "1m"
+    private final StatsBreakdown total;
+
+    public PaymentStatsSnapshot(Instant generatedAt, Map<String, StatsBreakdown> windows, StatsBreakdown total) {
+        this.generatedAt = generatedAt;
+        this.windows = windows;
+        this.total = total;
+    }
+
+    public Instant getGeneratedAt() {
+        return generatedAt;
+    }
+
+    public Map<String, StatsBreakdown> getWindows() {
+        return windows;
+    }
+
+    public StatsBreakdown getTotal() {
+        return total;
+    }
+}
@@ -0,0 +1,23 @@
+package com.payment.stats.model;
+
+import com.payment.event.model.PaymentEventType;
+
+import java.util.Map;
+
+public class StatsBreakdown {
+    private final Map<String, Map<PaymentEventType, WindowTotals>> byCurrency; // currency -> event type -> totals
+    private final Map<PaymentEventType, WindowTotals> byEventType;
+
+    public StatsBreakdown(Map<String, Map<PaymentEventType, WindowTotals>> byCurrency, Map<PaymentEventType, WindowTotals> byEventType) {
+        this.byCurrency = byCurrency;
+        this.byEventType = byEventType;
+    }
+
+    public Map<String, Map<PaymentEventType, WindowTotals>> getByCurrency() {
+        return byCurrency;
+    }
+
+    public Map<PaymentEventType, WindowTotals> getByEventType() {
+        return byEventType;
+    }
+}
@@ -0,0 +1,25 @@
+package com.payment.stats.model;
+
+import java.time.Duration;
+
+public enum StatsWindow {
+    ONE_MINUTE("1m", Duration.ofMinutes(1)),
+    FIVE_MINUTES("5m", Duration.ofMinutes(5)),
+    ONE_HOUR("1h", Duration.ofHours(1));
+
+    private final String label;
+    private final Duration duration;
+
+    StatsWindow(String label, Duration duration) {
+        this.label = label;
+        this.duration = duration;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+}
@@ -0,0 +1,19 @@
+package com.payment.stats.model;
+
+public class WindowTotals {
+    private final long count;
+    private final long amount;
+
+    public WindowTotals(long count, long amount) {
+        this.count = count;
+        this.amount = amount;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+}
@@ -0,0 +1,150 @@
+package com.payment.webhook;
+
+import com.payment.event.model.PaymentEvent;
+import com.payment.webhook.model.WebhookEndpointStats;
+import com.payment.webhook.model.WebhookSubscription;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+// EndpointQueue: batching and the concurrency limit for one subscription. State changes happen under its lock
+// and return the work they make possible (sends, a batch to move to the retry store, arming the linger timer),
+// which the caller carries out after the lock is released.
+class EndpointQueue {
+    private final WebhookSubscription subscription;
+    private final int batchSize;
+    private final int maxPending;
+    private final ArrayDeque<PaymentEvent> pending = new ArrayDeque<>();
+    private final ArrayDeque<WebhookBatch> dueRetries = new ArrayDeque<>();
+    private final Set<WebhookBatch> inFlight = new HashSet<>();
+    private int waitingRetries;
+    private boolean lingerScheduled;
+    private boolean closed;
+
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder failedAttempts = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+
+    static final class Actions {
+        final List<WebhookBatch> send = new ArrayList<>(2);
+        WebhookBatch overflow;
+        boolean armLinger;
+    }
+
+    EndpointQueue(WebhookSubscription subscription, int batchSize, int maxPending) {
+        this.subscription = subscription;
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+    }
+
+    WebhookSubscription subscription() {
+        return subscription;
+    }
+
+    synchronized Actions add(PaymentEvent event) {
+        Actions actions = new Actions();
+        if (closed) {
+            return actions;
+        }
+        pending.add(event);
+        if (pending.size() > maxPending) {
+            // the endpoint is not keeping up: the oldest events take the durable retry path instead of growing memory
+            actions.overflow = takeBatch();
+        }
+        fill(actions, false);
+        return actions;
+    }
+
+    synchronized Actions lingerExpired() {
+        lingerScheduled = false;
+        Actions actions = new Actions();
+        if (!closed) {
+            fill(actions, true);
+        }
+        return actions;
+    }
+
+    synchronized void retryScheduled() {
+        waitingRetries++;
+    }
+
+    // false if the queue was closed meanwhile; the batch is then left to the retry store
+    synchronized boolean retryDue(WebhookBatch batch, Actions actions) {
+        waitingRetries--;
+        if (closed) {
+            return false;
+        }
+        dueRetries.add(batch);
+        fill(actions, false);
+        return true;
+    }
+
+    synchronized Actions completed(WebhookBatch batch) {
+        inFlight.remove(batch);
+        Actions actions = new Actions();
+        if (!closed) {
+            fill(actions, false);
+        }
+        return actions;
+    }
+
+    // stops the queue and hands back every batch that has not been delivered, pending events included
+    synchronized List<WebhookBatch> close() {
+        closed = true;
+        List<WebhookBatch> undelivered = new ArrayList<>(inFlight);
+        undelivered.addAll(dueRetries);
+        dueRetries.clear();
+        while (!pending.isEmpty()) {
+            undelivered.add(takeBatch());
+        }
+        return undelivered;
+    }
+
+    void recordDelivered(int events) {
+        delivered.add(events);
+    }
+
+    void recordFailedAttempt() {
+        failedAttempts.increment();
+    }
+
+    void recordDeadLettered(int events) {
+        deadLettered.add(events);
+    }
+
+    synchronized WebhookEndpointStats stats() {
+        return new WebhookEndpointStats(subscription.getId(), subscription.getUrl().toString(), pending.size(), inFlight.size(),
+                waitingRetries + dueRetries.size(), delivered.sum(), failedAttempts.sum(), deadLettered.sum());
+    }
+
+    private void fill(Actions actions, boolean flushPartial) {
+        while (inFlight.size() < subscription.getMaxConcurrency()) {
+            WebhookBatch batch = dueRetries.poll();
+            if (batch == null) {
+                if (pending.isEmpty() || (pending.size() < batchSize && !flushPartial)) {
+                    break;
+                }
+                batch = takeBatch();
+            }
+            inFlight.add(batch);
+            actions.send.add(batch);
+        }
+        if (!pending.isEmpty() && !lingerScheduled) {
+            lingerScheduled = true;
+            actions.armLinger = true;
+        }
+    }
+
+    private WebhookBatch takeBatch() {
+        int size = Math.min(batchSize, pending.size());
+        List<PaymentEvent> events = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            events.add(pending.poll());
+        }
+        return new WebhookBatch(subscription.getId(), events);
+    }
+}
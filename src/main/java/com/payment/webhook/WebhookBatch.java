@@ -0,0 +1,61 @@
+package com.payment.webhook;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.event.model.PaymentEvent;
+
+import java.util.List;
+import java.util.UUID;
+
+// WebhookBatch: events for one endpoint sent as a single POST. The delivery id stays the same across retries
+// so receivers can drop duplicates (delivery is at-least-once).
+class WebhookBatch {
+    private final UUID deliveryId;
+    private final String subscriptionId;
+    private final int eventCount;
+    private List<PaymentEvent> events; // until serialized
+    private byte[] body;
+    private int attempt;
+    private boolean persisted;
+    private volatile boolean settled; // delivered or given up
+
+    WebhookBatch(String subscriptionId, List<PaymentEvent> events) {
+        this.deliveryId = UUID.randomUUID();
+        this.subscriptionId = subscriptionId;
+        this.eventCount = events.size();
+        this.events = events;
+    }
+
+    // read back from the retry store
+    WebhookBatch(UUID deliveryId, String subscriptionId, int eventCount, byte[] body, int attempt) {
+        this.deliveryId = deliveryId;
+        this.subscriptionId = subscriptionId;
+        this.eventCount = eventCount;
+        this.body = body;
+        this.attempt = attempt;
+        this.persisted = true;
+    }
+
+    synchronized byte[] body(ObjectMapper objectMapper) {
+        if (body == null) {
+            try {
+                body = objectMapper.writeValueAsBytes(events);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Failed to serialize webhook batch " + deliveryId, e);
+            }
+            events = null;
+        }
+        return body;
+    }
+
+    UUID getDeliveryId() { return deliveryId; }
+    String getSubscriptionId() { return subscriptionId; }
+    int getEventCount() { return eventCount; }
+    int getAttempt() { return attempt; }
+    boolean isPersisted() { return persisted; }
+    boolean isSettled() { return settled; }
+
+    int recordFailedAttempt() { return ++attempt; }
+    void markPersisted() { persisted = true; }
+    void markSettled() { settled = true; }
+}
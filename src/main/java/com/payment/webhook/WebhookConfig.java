@@ -0,0 +1,31 @@
+package com.payment.webhook;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.nio.file.Path;
+
+// Webhook delivery, enabled with payment.webhooks.enabled=true. payment.webhooks.data-dir (default data/webhooks,
+// next to the payment WAL) holds subscriptions.json and the retry/ queue; it must survive restarts, so it is
+// never under the temp dir.
+@Configuration
+@ConditionalOnProperty(name = "payment.webhooks.enabled", havingValue = "true")
+public class WebhookConfig {
+
+    @Bean
+    public WebhookSubscriptionRegistry webhookSubscriptionRegistry(ObjectMapper objectMapper, Environment environment) {
+        return new WebhookSubscriptionRegistry(dataDir(environment).resolve("subscriptions.json"), objectMapper);
+    }
+
+    @Bean(destroyMethod = "close")
+    public WebhookDeliveryHandler webhookDeliveryHandler(WebhookSubscriptionRegistry registry, ObjectMapper objectMapper, Environment environment) {
+        return new WebhookDeliveryHandler(registry, dataDir(environment).resolve("retry"), objectMapper, environment);
+    }
+
+    private static Path dataDir(Environment environment) {
+        return Path.of(environment.getProperty("payment.webhooks.data-dir", "data/webhooks"));
+    }
+}
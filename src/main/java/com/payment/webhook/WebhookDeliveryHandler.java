@@ -0,0 +1,351 @@
+package com.payment.webhook;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.dto.CreateWebhookSubscriptionRequest;
+import com.payment.event.handler.PaymentEventHandler;
+import com.payment.event.model.PaymentEvent;
+import com.payment.exception.InvalidWebhookSubscriptionException;
+import com.payment.exception.WebhookSubscriptionNotFoundException;
+import com.payment.security.SharedSecret;
+import com.payment.webhook.model.WebhookEndpointStats;
+import com.payment.webhook.model.WebhookSubscription;
+import org.springframework.core.env.Environment;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * WebhookDeliveryHandler: pushes payment events to subscribed merchant endpoints.
+ *
+ * The handler runs on its own async worker, so the request path only pays for an enqueue. Per endpoint,
+ * events are batched into one POST (up to batch-size events, or whatever arrived within linger-ms) and at most
+ * maxConcurrency batches are in flight. Sends use one shared non-blocking HttpClient that keeps connections
+ * alive, so no thread is held per delivery. A failed batch is written to the retry store and retried with
+ * exponential backoff and jitter until max-attempts; undelivered batches are also written there on shutdown,
+ * once the POSTs still running have finished (bounded by the request timeout).
+ *
+ * Every POST is signed: X-Webhook-Signature is v1=hex(HMAC-SHA256(signingSecret, timestamp + "." + body)),
+ * with the timestamp (unix seconds) in X-Webhook-Timestamp. Each subscription gets its own random secret, shown
+ * once in the subscribe response. Targets are checked by {@link WebhookTargetPolicy} on subscribe and before
+ * every send, and redirects are never followed.
+ *
+ * Delivery is not ordered across batches. Up to maxConcurrency batches race each other, a retried batch arrives
+ * after newer ones, and events an endpoint cannot keep up with (over max-pending-per-endpoint) are moved to the
+ * retry path as one batch and sent after events that arrived later. Receivers order events by occurredAt.
+ *
+ *   payment.webhooks.batch-size / linger-ms / max-pending-per-endpoint / max-concurrency-per-endpoint
+ *   payment.webhooks.request-timeout-ms / allow-private-targets
+ *   payment.webhooks.retry.initial-backoff-ms / max-backoff-ms / max-attempts
+ */
+public class WebhookDeliveryHandler implements PaymentEventHandler {
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
+    private final WebhookSubscriptionRegistry registry;
+    private final WebhookRetryStore retryStore;
+    private final ObjectMapper objectMapper;
+    private final WebhookTargetPolicy targetPolicy;
+    private final Map<String, EndpointQueue> queues = new ConcurrentHashMap<>();
+    private final Set<CompletableFuture<?>> runningSends = ConcurrentHashMap.newKeySet();
+
+    private final int batchSize;
+    private final Duration linger;
+    private final int maxPending;
+    private final int defaultMaxConcurrency;
+    private final Duration requestTimeout;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final int maxAttempts;
+
+    private final ScheduledExecutorService timer;
+    private final ExecutorService httpExecutor;
+    private final HttpClient httpClient;
+
+    public WebhookDeliveryHandler(WebhookSubscriptionRegistry registry, Path retryDir, ObjectMapper objectMapper, Environment environment) {
+        this.registry = registry;
+        this.retryStore = new WebhookRetryStore(retryDir);
+        this.objectMapper = objectMapper;
+        this.batchSize = environment.getProperty("payment.webhooks.batch-size", Integer.class, 100);
+        this.linger = Duration.ofMillis(environment.getProperty("payment.webhooks.linger-ms", Long.class, 50L));
+        this.maxPending = environment.getProperty("payment.webhooks.max-pending-per-endpoint", Integer.class, 10_000);
+        this.defaultMaxConcurrency = environment.getProperty("payment.webhooks.max-concurrency-per-endpoint", Integer.class, 4);
+        this.requestTimeout = Duration.ofMillis(environment.getProperty("payment.webhooks.request-timeout-ms", Long.class, 10_000L));
+        this.initialBackoffMillis = environment.getProperty("payment.webhooks.retry.initial-backoff-ms", Long.class, 1_000L);
+        this.maxBackoffMillis = environment.getProperty("payment.webhooks.retry.max-backoff-ms", Long.class, 300_000L);
+        this.maxAttempts = environment.getProperty("payment.webhooks.retry.max-attempts", Integer.class, 12);
+        this.targetPolicy = new WebhookTargetPolicy(environment.getProperty("payment.webhooks.allow-private-targets", Boolean.class, false));
+
+        this.timer = Executors.newSingleThreadScheduledExecutor(daemon("webhook-timer"));
+        this.httpExecutor = Executors.newFixedThreadPool(2, daemon("webhook-http"));
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(requestTimeout)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .executor(httpExecutor)
+                .build();
+
+        for (WebhookSubscription subscription : registry.all()) {
+            if (subscription.getSigningSecret() == null) {
+                System.err.println("[WARN] webhook subscription has no signing secret and gets no events, re-create it. subscription=" + subscription.getId());
+            }
+            queueFor(subscription);
+        }
+        resumeStoredRetries();
+    }
+
+    @Override
+    public void handle(PaymentEvent paymentEvent) {
+        for (WebhookSubscription subscription : registry.all()) {
+            // unsigned deliveries could be forged by anyone who knows the url
+            if (subscription.getSigningSecret() != null && subscription.matches(paymentEvent.getEventType())) {
+                EndpointQueue queue = queueFor(subscription);
+                apply(queue, queue.add(paymentEvent));
+            }
+        }
+    }
+
+    public WebhookSubscription subscribe(CreateWebhookSubscriptionRequest request) {
+        URI url;
+        try {
+            url = request.getUrl() == null ? null : URI.create(request.getUrl());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidWebhookSubscriptionException("Invalid webhook url: " + request.getUrl());
+        }
+        if (url == null || url.getHost() == null || !("http".equals(url.getScheme()) || "https".equals(url.getScheme()))) {
+            throw new InvalidWebhookSubscriptionException("Webhook url must be an absolute http(s) url");
+        }
+        targetPolicy.check(url);
+        int maxConcurrency = request.getMaxConcurrency() == null ? defaultMaxConcurrency : request.getMaxConcurrency();
+        if (maxConcurrency < 1) {
+            throw new InvalidWebhookSubscriptionException("maxConcurrency must be at least 1");
+        }
+
+        WebhookSubscription subscription = new WebhookSubscription(UUID.randomUUID().toString(), url,
+                request.getEventTypes(), maxConcurrency, Instant.now(), newSigningSecret());
+        registry.add(subscription);
+        queueFor(subscription);
+        return subscription;
+    }
+
+    public void unsubscribe(String subscriptionId) {
+        if (!registry.remove(subscriptionId)) {
+            throw new WebhookSubscriptionNotFoundException("Webhook subscription not found: " + subscriptionId);
+        }
+        EndpointQueue queue = queues.remove(subscriptionId);
+        if (queue != null) {
+            queue.close().forEach(retryStore::delete);
+        }
+    }
+
+    public List<WebhookSubscription> subscriptions() {
+        return registry.all();
+    }
+
+    public List<WebhookEndpointStats> stats() {
+        List<WebhookEndpointStats> stats = new ArrayList<>();
+        for (EndpointQueue queue : queues.values()) {
+            stats.add(queue.stats());
+        }
+        return stats;
+    }
+
+    public void close() {
+        timer.shutdownNow();
+        List<WebhookBatch> undelivered = new ArrayList<>();
+        for (EndpointQueue queue : queues.values()) {
+            undelivered.addAll(queue.close());
+        }
+        // a completion that runs while its batch is being persisted could delete or rewrite the file under us
+        awaitRunningSends();
+        for (WebhookBatch batch : undelivered) {
+            if (!batch.isSettled()) {
+                persist(batch);
+            }
+        }
+        httpExecutor.shutdownNow();
+    }
+
+    private void awaitRunningSends() {
+        try {
+            CompletableFuture.allOf(runningSends.toArray(new CompletableFuture<?>[0]))
+                    .get(requestTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            System.err.println("[WARN] webhook completion failed during shutdown. error=" + e.getCause());
+        } catch (TimeoutException e) {
+            System.err.println("[WARN] webhook sends still running at shutdown, persisting their batches. count=" + runningSends.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private EndpointQueue queueFor(WebhookSubscription subscription) {
+        return queues.computeIfAbsent(subscription.getId(), id -> new EndpointQueue(subscription, batchSize, maxPending));
+    }
+
+    private void apply(EndpointQueue queue, EndpointQueue.Actions actions) {
+        if (actions.overflow != null) {
+            defer(queue, actions.overflow);
+        }
+        if (actions.armLinger) {
+            schedule(() -> apply(queue, queue.lingerExpired()), linger.toMillis());
+        }
+        for (WebhookBatch batch : actions.send) {
+            send(queue, batch);
+        }
+    }
+
+    private void send(EndpointQueue queue, WebhookBatch batch) {
+        WebhookSubscription subscription = queue.subscription();
+        try {
+            targetPolicy.check(subscription.getUrl());
+        } catch (InvalidWebhookSubscriptionException e) {
+            onAttemptFinished(queue, batch, false, e.getMessage());
+            return;
+        }
+        byte[] body = batch.body(objectMapper);
+        String timestamp = Long.toString(Instant.now().getEpochSecond());
+        HttpRequest request = HttpRequest.newBuilder(subscription.getUrl())
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .header("X-Webhook-Subscription", batch.getSubscriptionId())
+                .header("X-Webhook-Delivery", batch.getDeliveryId().toString())
+                .header("X-Webhook-Attempt", Integer.toString(batch.getAttempt() + 1))
+                .header("X-Webhook-Timestamp", timestamp)
+                .header("X-Webhook-Signature", "v1=" + signature(subscription.getSigningSecret(), timestamp, body))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        // handle(), not whenComplete(): the attempt completes normally even when the POST failed
+        CompletableFuture<?> attempt = httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    boolean delivered = error == null && response.statusCode() / 100 == 2;
+                    onAttemptFinished(queue, batch, delivered, error == null ? "status=" + response.statusCode() : error.toString());
+                    return null;
+                });
+        runningSends.add(attempt);
+        attempt.whenComplete((ignored, error) -> runningSends.remove(attempt));
+    }
+
+    private void onAttemptFinished(EndpointQueue queue, WebhookBatch batch, boolean delivered, String outcome) {
+        if (delivered) {
+            batch.markSettled();
+            queue.recordDelivered(batch.getEventCount());
+            if (batch.isPersisted()) {
+                retryStore.delete(batch);
+            }
+        } else {
+            queue.recordFailedAttempt();
+            if (batch.recordFailedAttempt() >= maxAttempts) {
+                batch.markSettled();
+                queue.recordDeadLettered(batch.getEventCount());
+                retryStore.delete(batch);
+                System.err.println("[WARN] webhook batch dropped after " + batch.getAttempt() + " attempts. subscription="
+                        + batch.getSubscriptionId() + ", deliveryId=" + batch.getDeliveryId() + ", last=" + outcome);
+            } else if (queues.get(batch.getSubscriptionId()) == queue) {
+                defer(queue, batch);
+            }
+        }
+        apply(queue, queue.completed(batch));
+    }
+
+    private void defer(EndpointQueue queue, WebhookBatch batch) {
+        persist(batch);
+        scheduleRetry(queue, batch, backoffMillis(batch.getAttempt()));
+    }
+
+    private void scheduleRetry(EndpointQueue queue, WebhookBatch batch, long delayMillis) {
+        queue.retryScheduled();
+        schedule(() -> {
+            EndpointQueue.Actions actions = new EndpointQueue.Actions();
+            if (queue.retryDue(batch, actions)) {
+                apply(queue, actions);
+            }
+        }, delayMillis);
+    }
+
+    private void persist(WebhookBatch batch) {
+        try {
+            retryStore.save(batch, batch.body(objectMapper));
+        } catch (IOException e) {
+            // still retried from memory, only lost if the process stops first
+            System.err.println("[WARN] webhook retry file write failed. deliveryId=" + batch.getDeliveryId() + ", error=" + e.getMessage());
+        }
+    }
+
+    private void resumeStoredRetries() {
+        List<WebhookBatch> stored;
+        try {
+            stored = retryStore.load();
+        } catch (IOException e) {
+            System.err.println("[WARN] webhook retry store unreadable. error=" + e.getMessage());
+            return;
+        }
+        for (WebhookBatch batch : stored) {
+            EndpointQueue queue = queues.get(batch.getSubscriptionId());
+            if (queue == null) {
+                retryStore.delete(batch);
+                continue;
+            }
+            scheduleRetry(queue, batch, 0);
+        }
+    }
+
+    static String signature(String signingSecret, String timestamp, byte[] body) {
+        byte[] mac = SharedSecret.hmac(signingSecret.getBytes(StandardCharsets.UTF_8),
+                timestamp.getBytes(StandardCharsets.UTF_8), new byte[]{'.'}, body);
+        return HexFormat.of().formatHex(mac);
+    }
+
+    private static String newSigningSecret() {
+        byte[] secret = new byte[32];
+        SECURE_RANDOM.nextBytes(secret);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+    }
+
+    private long backoffMillis(int attempt) {
+        long exponential = initialBackoffMillis << Math.min(attempt - 1, 30);
+        long capped = Math.min(maxBackoffMillis, exponential < 0 ? maxBackoffMillis : exponential);
+        // half fixed, half random, so endpoints that failed together do not retry together
+        return capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+    }
+
+    private void schedule(Runnable task, long delayMillis) {
+        try {
+            timer.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // shutting down: undelivered batches are persisted by close()
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
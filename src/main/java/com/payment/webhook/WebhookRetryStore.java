@@ -0,0 +1,101 @@
+package com.payment.webhook;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// WebhookRetryStore: one fsynced file per batch waiting for a retry, replaced on every failed attempt and
+// deleted once the batch is delivered or given up. Whatever is in the directory at startup is retried.
+// Every save writes its own temp file and renames it into place, so concurrent saves of one batch (a failed
+// attempt racing shutdown) never interleave; the last rename wins.
+class WebhookRetryStore {
+    private static final String SUFFIX = ".batch";
+    private static final String TMP_SUFFIX = ".tmp";
+
+    private final Path dir;
+
+    WebhookRetryStore(Path dir) {
+        this.dir = dir;
+    }
+
+    void save(WebhookBatch batch, byte[] body) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(body.length + 64);
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeUTF(batch.getDeliveryId().toString());
+        out.writeUTF(batch.getSubscriptionId());
+        out.writeInt(batch.getAttempt());
+        out.writeInt(batch.getEventCount());
+        out.writeInt(body.length);
+        out.write(body);
+        out.flush();
+
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, batch.getDeliveryId() + ".", TMP_SUFFIX);
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                channel.force(true);
+            }
+            Files.move(tmp, file(batch), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        batch.markPersisted();
+    }
+
+    void delete(WebhookBatch batch) {
+        try {
+            Files.deleteIfExists(file(batch));
+        } catch (IOException e) {
+            System.err.println("[WARN] webhook retry file delete failed. deliveryId=" + batch.getDeliveryId() + ", error=" + e.getMessage());
+        }
+    }
+
+    List<WebhookBatch> load() throws IOException {
+        List<WebhookBatch> batches = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return batches;
+        }
+        // left behind by a crash between write and rename; the previous .batch file, if any, is still intact
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(dir, "*" + TMP_SUFFIX)) {
+            for (Path path : leftovers) {
+                Files.deleteIfExists(path);
+            }
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (Path path : files) {
+                try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(path)))) {
+                    UUID deliveryId = UUID.fromString(in.readUTF());
+                    String subscriptionId = in.readUTF();
+                    int attempt = in.readInt();
+                    int eventCount = in.readInt();
+                    byte[] body = new byte[in.readInt()];
+                    in.readFully(body);
+                    batches.add(new WebhookBatch(deliveryId, subscriptionId, eventCount, body, attempt));
+                } catch (IOException | IllegalArgumentException e) {
+                    System.err.println("[WARN] unreadable webhook retry file skipped. file=" + path + ", error=" + e.getMessage());
+                }
+            }
+        }
+        return batches;
+    }
+
+    private Path file(WebhookBatch batch) {
+        return dir.resolve(batch.getDeliveryId() + SUFFIX);
+    }
+}
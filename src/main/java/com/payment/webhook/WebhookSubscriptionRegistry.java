@@ -0,0 +1,90 @@
+package com.payment.webhook;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.webhook.model.WebhookSubscription;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// WebhookSubscriptionRegistry: subscriptions kept in memory and rewritten to one JSON file on every change,
+// so they (and the retries queued for them) survive a restart. Reads take a snapshot and never lock.
+public class WebhookSubscriptionRegistry {
+    private final Path file;
+    private final ObjectMapper objectMapper;
+    private final Map<String, WebhookSubscription> byId = new LinkedHashMap<>(); // guarded by this
+    private volatile List<WebhookSubscription> snapshot = List.of();
+
+    public WebhookSubscriptionRegistry(Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+        load();
+    }
+
+    public List<WebhookSubscription> all() {
+        return snapshot;
+    }
+
+    public Optional<WebhookSubscription> find(String id) {
+        for (WebhookSubscription subscription : snapshot) {
+            if (subscription.getId().equals(id)) {
+                return Optional.of(subscription);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public synchronized void add(WebhookSubscription subscription) {
+        byId.put(subscription.getId(), subscription);
+        publish();
+    }
+
+    public synchronized boolean remove(String id) {
+        if (byId.remove(id) == null) {
+            return false;
+        }
+        publish();
+        return true;
+    }
+
+    private void publish() {
+        List<WebhookSubscription> current = List.copyOf(byId.values());
+        write(current);
+        snapshot = current;
+    }
+
+    private void write(Collection<WebhookSubscription> subscriptions) {
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            objectMapper.writeValue(tmp.toFile(), new ArrayList<>(subscriptions));
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to persist webhook subscriptions to " + file, e);
+        }
+    }
+
+    private synchronized void load() {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try {
+            List<WebhookSubscription> stored = objectMapper.readValue(file.toFile(), new TypeReference<List<WebhookSubscription>>() {});
+            for (WebhookSubscription subscription : stored) {
+                byId.put(subscription.getId(), subscription);
+            }
+            snapshot = List.copyOf(byId.values());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read webhook subscriptions from " + file, e);
+        }
+    }
+}
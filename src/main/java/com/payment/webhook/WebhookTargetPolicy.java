@@ -0,0 +1,55 @@
+package com.payment.webhook;
+
+import com.payment.exception.InvalidWebhookSubscriptionException;
+
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+
+// WebhookTargetPolicy: keeps webhooks from reaching into the service's own network. A url is refused when any
+// address its host resolves to is loopback, link-local (this includes the 169.254.169.254 metadata endpoint),
+// private (10/8, 172.16/12, 192.168/16, 100.64/10, fc00::/7), wildcard or multicast. Checked on subscribe and
+// again before every send, so a name that is later pointed at an internal address is refused too.
+// payment.webhooks.allow-private-targets=true turns the check off (local development only).
+class WebhookTargetPolicy {
+    private final boolean allowPrivate;
+
+    WebhookTargetPolicy(boolean allowPrivate) {
+        this.allowPrivate = allowPrivate;
+    }
+
+    void check(URI url) {
+        if (allowPrivate) {
+            return;
+        }
+        InetAddress[] addresses;
+        try {
+            addresses = InetAddress.getAllByName(url.getHost());
+        } catch (UnknownHostException e) {
+            throw new InvalidWebhookSubscriptionException("Webhook host cannot be resolved: " + url.getHost());
+        }
+        for (InetAddress address : addresses) {
+            if (isInternal(address)) {
+                throw new InvalidWebhookSubscriptionException("Webhook url must not point at an internal address: " + url.getHost());
+            }
+        }
+    }
+
+    static boolean isInternal(InetAddress address) {
+        if (address.isAnyLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress()
+                || address.isSiteLocalAddress() || address.isMulticastAddress()) {
+            return true;
+        }
+        byte[] bytes = address.getAddress();
+        if (address instanceof Inet4Address) {
+            int first = bytes[0] & 0xff;
+            int second = bytes[1] & 0xff;
+            // 0/8 "this network" and 100.64/10 carrier-grade NAT
+            return first == 0 || (first == 100 && (second & 0xc0) == 64);
+        }
+        // fc00::/7 unique local
+        return address instanceof Inet6Address && (bytes[0] & 0xfe) == 0xfc;
+    }
+}
@@ -0,0 +1,33 @@
+package com.payment.webhook.model;
+
+public class WebhookEndpointStats {
+    private final String subscriptionId;
+    private final String url;
+    private final int pendingEvents;        // waiting to be batched
+    private final int inFlightBatches;
+    private final int retryBatches;         // failed batches waiting for their next attempt
+    private final long deliveredEvents;
+    private final long failedAttempts;
+    private final long deadLetteredEvents;  // given up after the last retry
+
+    public WebhookEndpointStats(String subscriptionId, String url, int pendingEvents, int inFlightBatches, int retryBatches,
+                                long deliveredEvents, long failedAttempts, long deadLetteredEvents) {
+        this.subscriptionId = subscriptionId;
+        this.url = url;
+        this.pendingEvents = pendingEvents;
+        this.inFlightBatches = inFlightBatches;
+        this.retryBatches = retryBatches;
+        this.deliveredEvents = deliveredEvents;
+        this.failedAttempts = failedAttempts;
+        this.deadLetteredEvents = deadLetteredEvents;
+    }
+
+    public String getSubscriptionId() { return subscriptionId; }
+    public String getUrl() { return url; }
+    public int getPendingEvents() { return pendingEvents; }
+    public int getInFlightBatches() { return inFlightBatches; }
+    public int getRetryBatches() { return retryBatches; }
+    public long getDeliveredEvents() { return deliveredEvents; }
+    public long getFailedAttempts() { return failedAttempts; }
+    public long getDeadLetteredEvents() { return deadLetteredEvents; }
+}
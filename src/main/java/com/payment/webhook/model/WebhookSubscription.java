@@ -0,0 +1,44 @@
+package com.payment.webhook.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.payment.event.model.PaymentEventType;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.Set;
+
+public class WebhookSubscription {
+    private final String id;
+    private final URI url;
+    private final Set<PaymentEventType> eventTypes; // empty = every event type
+    private final int maxConcurrency;
+    private final Instant createdAt;
+    private final String signingSecret; // HMAC key for X-Webhook-Signature, null for subscriptions that predate it
+
+    @JsonCreator
+    public WebhookSubscription(@JsonProperty("id") String id,
+                               @JsonProperty("url") URI url,
+                               @JsonProperty("eventTypes") Set<PaymentEventType> eventTypes,
+                               @JsonProperty("maxConcurrency") int maxConcurrency,
+                               @JsonProperty("createdAt") Instant createdAt,
+                               @JsonProperty("signingSecret") String signingSecret) {
+        this.id = id;
+        this.url = url;
+        this.eventTypes = eventTypes == null ? Set.of() : Set.copyOf(eventTypes);
+        this.maxConcurrency = maxConcurrency;
+        this.createdAt = createdAt;
+        this.signingSecret = signingSecret;
+    }
+
+    public boolean matches(PaymentEventType eventType) {
+        return eventTypes.isEmpty() || eventTypes.contains(eventType);
+    }
+
+    public String getId() { return id; }
+    public URI getUrl() { return url; }
+    public Set<PaymentEventType> getEventTypes() { return eventTypes; }
+    public int getMaxConcurrency() { return maxConcurrency; }
+    public Instant getCreatedAt() { return createdAt; }
+    public String getSigningSecret() { return signingSecret; }
+}
@@ -1,11 +1,27 @@
 package com.payment;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
 
 @SpringBootTest
 class PaymentSystemApplicationTests {
 
+	@TempDir
+	static Path dataDir;
+
+	@DynamicPropertySource
+	static void dataDir(DynamicPropertyRegistry registry) {
+		registry.add("payment.webhooks.enabled", () -> "true");
+		registry.add("payment.webhooks.data-dir", () -> dataDir.toString());
+		registry.add("payment.events.spill-dir", () -> dataDir.resolve("event-spill").toString());
+		registry.add("payment.projection.checkpoint-dir", () -> dataDir.resolve("projection-checkpoints").toString());
+	}
+
 	@Test
 	void contextLoads() {
 	}
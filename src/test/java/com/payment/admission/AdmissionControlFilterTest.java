@@ -0,0 +1,114 @@
+package com.payment.admission;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.idempotency.model.IdempotencyRecord;
+import com.payment.idempotency.model.RecordStatus;
+import com.payment.idempotency.repository.IdempotencyRepository;
+import com.payment.idempotency.repository.InMemoryIdempotencyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlFilterTest {
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private AdaptiveConcurrencyLimiter limiter;
+    private IdempotencyRepository idempotencyRepository;
+    private AdmissionControlFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        // limit 10, 2 slots reserved for GETs and replays
+        limiter = new AdaptiveConcurrencyLimiter(10, 1, 100, 0.2);
+        idempotencyRepository = new InMemoryIdempotencyRepository();
+        filter = new AdmissionControlFilter(limiter, null, "X-Client-Id", idempotencyRepository, objectMapper);
+    }
+
+    @Test
+    void saturated_service_sheds_new_creates_but_serves_gets_and_replays() throws Exception {
+        idempotencyRepository.save(new IdempotencyRecord("replayed-key", "hash", "p-1", Instant.now(), RecordStatus.COMPLETED));
+        for (int i = 0; i < 8; i++) {
+            assertTrue(limiter.tryAcquire(RequestPriority.NEW_WORK));
+        }
+
+        MockHttpServletResponse create = send(post("new-key"));
+        assertEquals(503, create.getStatus());
+        assertEquals("1", create.getHeader("Retry-After"));
+
+        assertEquals(200, send(new MockHttpServletRequest("GET", "/v1/payments/p-1")).getStatus());
+        assertEquals(200, send(post("replayed-key")).getStatus());
+        assertEquals(8, limiter.stats().getInFlight());
+    }
+
+    @Test
+    void client_over_its_token_bucket_gets_429() throws Exception {
+        filter = new AdmissionControlFilter(limiter, new ClientRateLimiter(1, 2, 100), "X-Client-Id", idempotencyRepository, objectMapper);
+
+        assertEquals(200, send(post("k1", "client-a")).getStatus());
+        assertEquals(200, send(post("k2", "client-a")).getStatus());
+        MockHttpServletResponse limited = send(post("k3", "client-a"));
+        assertEquals(429, limited.getStatus());
+        assertEquals("1", limited.getHeader("Retry-After"));
+        JsonNode body = objectMapper.readTree(limited.getContentAsString());
+        assertEquals(429, body.get("status").asInt());
+        assertEquals("Too Many Requests", body.get("error").asText());
+        assertEquals("Client rate limit exceeded", body.get("message").asText());
+        assertEquals("/v1/payments", body.get("path").asText());
+        assertTrue(body.hasNonNull("timestamp"));
+
+        assertEquals(200, send(post("k4", "client-b")).getStatus());
+    }
+
+    @Test
+    void limit_shrinks_when_latency_rises_and_grows_back_when_it_recovers() {
+        long fast = TimeUnit.MILLISECONDS.toNanos(5);
+        runSaturated(fast, 50);
+        int baseline = limiter.stats().getLimit();
+
+        runSaturated(fast * 10, 20);
+        int congested = limiter.stats().getLimit();
+        assertTrue(congested < baseline, "limit should drop under rising latency: " + baseline + " -> " + congested);
+
+        runSaturated(fast, 200);
+        assertTrue(limiter.stats().getLimit() > congested);
+    }
+
+    // fills the limiter, then completes every request with the given latency
+    private void runSaturated(long rttNanos, int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            int acquired = 0;
+            while (limiter.tryAcquire(RequestPriority.PRIORITY)) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limiter.release(rttNanos, true);
+            }
+        }
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest post(String idempotencyKey) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/v1/payments");
+        request.addHeader("Idempotency-Key", idempotencyKey);
+        return request;
+    }
+
+    private static MockHttpServletRequest post(String idempotencyKey, String clientId) {
+        MockHttpServletRequest request = post(idempotencyKey);
+        request.addHeader("X-Client-Id", clientId);
+        return request;
+    }
+}
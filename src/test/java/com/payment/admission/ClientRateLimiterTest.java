@@ -0,0 +1,45 @@
+package com.payment.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientRateLimiterTest {
+
+    @Test
+    void tryAcquire_fullTableOfActiveClients_shouldStayBounded() {
+        ClientRateLimiter limiter = new ClientRateLimiter(1, 2, 100);
+        long now = System.nanoTime();
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(0, limiter.tryAcquire("client-" + i, now));
+        }
+
+        assertEquals(100, limiter.clientCount());
+    }
+
+    @Test
+    void tryAcquire_afterRefillPeriod_shouldSweepIdleClients() {
+        ClientRateLimiter limiter = new ClientRateLimiter(1, 2, 3);
+        long now = System.nanoTime();
+        limiter.tryAcquire("a", now);
+        limiter.tryAcquire("b", now);
+        limiter.tryAcquire("c", now);
+
+        // every bucket has refilled: one sweep drops them all
+        long later = now + TimeUnit.SECONDS.toNanos(10);
+        limiter.tryAcquire("d", later);
+        assertEquals(1, limiter.clientCount());
+    }
+
+    @Test
+    void tryAcquire_knownClient_shouldKeepItsBucket() {
+        ClientRateLimiter limiter = new ClientRateLimiter(1, 2, 3);
+        long now = System.nanoTime();
+        assertEquals(0, limiter.tryAcquire("a", now));
+        assertEquals(0, limiter.tryAcquire("a", now));
+        assertTrue(limiter.tryAcquire("a", now) > 0);
+        assertEquals(1, limiter.rejectedCount());
+    }
+}
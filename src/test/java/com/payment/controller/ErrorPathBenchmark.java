@@ -0,0 +1,153 @@
+package com.payment.controller;
+
+import com.payment.PaymentSystemApplication;
+import com.payment.dto.CreatePaymentRequest;
+import com.payment.exception.ConflictException;
+import com.payment.exception.PaymentNotFoundException;
+import com.payment.service.PaymentService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ErrorPathBenchmark: 404 and 409 responses per second on the servlet stack, served from PaymentResult
+ * (/v1/payments) next to the old path, where the refusal is thrown with a stack trace and turned into a
+ * response by Spring's exception resolvers and the /error dispatch (/bench/throwing/...).
+ *
+ *   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.payment.controller.ErrorPathBenchmark -Dexec.args="32 5"
+ *
+ * Arguments: client threads (default 32), seconds per scenario (default 5). Run the JVM on more than one
+ * core if possible; the client threads share the machine with Tomcat.
+ */
+public class ErrorPathBenchmark {
+    private static final String CREATE_BODY = "{\"amount\":%d,\"currency\":\"USD\"}";
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        Duration duration = Duration.ofSeconds(args.length > 1 ? Long.parseLong(args[1]) : 5);
+
+        ServletWebServerApplicationContext context = (ServletWebServerApplicationContext) new SpringApplicationBuilder(PaymentSystemApplication.class)
+                .initializers(ctx -> ((GenericApplicationContext) ctx).registerBean("throwingRoutes", RouterFunction.class,
+                        () -> throwingRoutes(ctx.getBean(PaymentService.class))))
+                .run("--server.port=0", "--payment.admission.enabled=false", "--logging.level.root=WARN");
+        try {
+            String base = "http://127.0.0.1:" + context.getWebServer().getPort();
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            send(client, post(base + "/v1/payments", "bench-key", 100), 200);
+
+            System.out.printf("threads=%d duration=%s%n", threads, duration);
+            System.out.printf("%-30s %12s%n", "scenario", "responses/s");
+            scenario(client, threads, duration, "404 thrown", get(base + "/bench/throwing/payments/missing"), 404);
+            scenario(client, threads, duration, "404 result", get(base + "/v1/payments/missing"), 404);
+            scenario(client, threads, duration, "409 thrown", post(base + "/bench/throwing/payments", "bench-key", 200), 409);
+            scenario(client, threads, duration, "409 result", post(base + "/v1/payments", "bench-key", 200), 409);
+        } finally {
+            context.close();
+        }
+    }
+
+    // the pre-PaymentResult behaviour: exceptions with a stack trace, resolved by @ResponseStatus
+    private static RouterFunction<ServerResponse> throwingRoutes(PaymentService service) {
+        return RouterFunctions.route()
+                .GET("/bench/throwing/payments/{id}", request -> {
+                    try {
+                        return ServerResponse.ok().body(service.getPayment(request.pathVariable("id")));
+                    } catch (PaymentNotFoundException e) {
+                        throw new TracedNotFoundException(e.getMessage());
+                    }
+                })
+                .POST("/bench/throwing/payments", request -> {
+                    try {
+                        CreatePaymentRequest body = request.body(CreatePaymentRequest.class);
+                        return ServerResponse.ok().body(service.createPayment(body, request.headers().firstHeader("Idempotency-Key")));
+                    } catch (ConflictException e) {
+                        throw new TracedConflictException(e.getMessage());
+                    }
+                })
+                .build();
+    }
+
+    private static void scenario(HttpClient client, int threads, Duration duration, String name, HttpRequest request, int expected) throws Exception {
+        run(client, threads, Duration.ofSeconds(2), request, expected);
+        double rate = run(client, threads, duration, request, expected);
+        System.out.printf("%-30s %,12.0f%n", name, rate);
+    }
+
+    private static double run(HttpClient client, int threads, Duration duration, HttpRequest request, int expected) throws Exception {
+        LongAdder responses = new LongAdder();
+        AtomicBoolean stop = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    while (!stop.get()) {
+                        send(client, request, expected);
+                        responses.increment();
+                    }
+                    return null;
+                }));
+            }
+            Thread.sleep(duration.toMillis());
+            stop.set(true);
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return responses.sum() / (double) duration.toSeconds();
+    }
+
+    private static void send(HttpClient client, HttpRequest request, int expected) throws Exception {
+        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status != expected) {
+            throw new IllegalStateException("Expected " + expected + " but got " + status + " from " + request.uri());
+        }
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+
+    private static HttpRequest post(String url, String idempotencyKey, long amount) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .header("Idempotency-Key", idempotencyKey)
+                .POST(HttpRequest.BodyPublishers.ofString(CREATE_BODY.formatted(amount)))
+                .build();
+    }
+
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    private static class TracedNotFoundException extends RuntimeException {
+        TracedNotFoundException(String message) {
+            super(message);
+        }
+    }
+
+    @ResponseStatus(HttpStatus.CONFLICT)
+    private static class TracedConflictException extends RuntimeException {
+        TracedConflictException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.payment.controller;
+
+import com.payment.domain.PaymentStatus;
+import com.payment.dto.PaymentResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.netty.NettyWebServer;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.main.web-application-type=reactive")
+class ReactivePaymentControllerTests {
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void dataDir(DynamicPropertyRegistry registry) {
+        registry.add("payment.webhooks.data-dir", () -> dataDir.toString());
+        registry.add("payment.events.spill-dir", () -> dataDir.resolve("event-spill").toString());
+        registry.add("payment.projection.checkpoint-dir", () -> dataDir.resolve("projection-checkpoints").toString());
+    }
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private ReactiveWebServerApplicationContext context;
+
+    @Test
+    void reactiveMode_shouldRunOnNetty() {
+        assertInstanceOf(NettyWebServer.class, context.getWebServer());
+    }
+
+    @Test
+    void createPayment_withSameIdempotencyKey_shouldReturnSamePayment() {
+        PaymentResponse first = create("reactive-idem-1", 100);
+        PaymentResponse second = create("reactive-idem-1", 100);
+
+        assertEquals(first.getId(), second.getId());
+        assertEquals(PaymentStatus.CREATED, second.getStatus());
+    }
+
+    @Test
+    void createPayment_withSameIdempotencyKeyAndDifferentPayload_shouldReturnConflict() {
+        create("reactive-idem-2", 100);
+
+        client.post().uri("/v1/payments")
+                .header("Idempotency-Key", "reactive-idem-2")
+                .bodyValue(Map.of("amount", 200, "currency", "USD"))
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    void cancelPayment_shouldCancelAndStreamEvents() {
+        PaymentResponse created = create("reactive-idem-3", 300);
+
+        client.post().uri("/v1/payments/{id}/cancel", created.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(PaymentResponse.class)
+                .value(response -> assertEquals(PaymentStatus.CANCELED, response.getStatus()));
+
+        List<Map> events = client.get().uri("/v1/payments/{id}/events", created.getId())
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Map.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertNotNull(events);
+        assertEquals(List.of("PAYMENT_CREATED", "PAYMENT_CANCELED"), events.stream().map(e -> e.get("eventType")).toList());
+    }
+
+    @Test
+    void getPayment_unknownId_shouldReturnNotFound() {
+        client.get().uri("/v1/payments/{id}", "missing")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    private PaymentResponse create(String idempotencyKey, long amount) {
+        return client.post().uri("/v1/payments")
+                .header("Idempotency-Key", idempotencyKey)
+                .bodyValue(Map.of("amount", amount, "currency", "USD"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(PaymentResponse.class)
+                .returnResult()
+                .getResponseBody();
+    }
+}
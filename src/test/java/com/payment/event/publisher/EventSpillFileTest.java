@@ -0,0 +1,61 @@
+package com.payment.event.publisher;
+
+import com.payment.event.model.PaymentCreatedEvent;
+import com.payment.event.model.PaymentEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventSpillFileTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void close_withUndeliveredEvents_shouldReplayOnlyThoseAfterRestart() throws Exception {
+        Path path = dir.resolve("handler.spill");
+        EventSpillFile spill = new EventSpillFile(path);
+        for (int i = 0; i < 5; i++) {
+            spill.append(event("p" + i));
+        }
+        assertEquals(List.of("p0", "p1"), ids(spill.drain(2)));
+        spill.close();
+
+        EventSpillFile restarted = new EventSpillFile(path);
+        assertEquals(3, restarted.recover());
+        // spilled after the restart: delivered behind the recovered events
+        restarted.append(event("p5"));
+        assertEquals(List.of("p2", "p3", "p4", "p5"), ids(restarted.drain(10)));
+        assertFalse(Files.exists(path));
+    }
+
+    @Test
+    void recover_afterCrashMidAppend_shouldKeepCompleteRecords() throws Exception {
+        Path path = dir.resolve("handler.spill");
+        EventSpillFile spill = new EventSpillFile(path);
+        spill.append(event("p0"));
+        spill.append(event("p1"));
+        // crash: no close(), and half of a record at the end
+        Files.write(path, new byte[]{0x73, 0x72, 0x00}, StandardOpenOption.APPEND);
+
+        EventSpillFile restarted = new EventSpillFile(path);
+        assertEquals(2, restarted.recover());
+        assertEquals(List.of("p0", "p1"), ids(restarted.drain(10)));
+        assertEquals(0, new EventSpillFile(path).recover());
+    }
+
+    private static PaymentEvent event(String paymentId) {
+        return new PaymentCreatedEvent(UUID.randomUUID(), paymentId, Instant.now(), null, 100, "USD");
+    }
+
+    private static List<String> ids(List<PaymentEvent> events) {
+        return events.stream().map(PaymentEvent::getAggregateId).toList();
+    }
+}
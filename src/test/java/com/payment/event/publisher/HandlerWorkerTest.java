@@ -0,0 +1,77 @@
+package com.payment.event.publisher;
+
+import com.payment.event.model.PaymentCreatedEvent;
+import com.payment.event.model.PaymentEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HandlerWorkerTest {
+    @TempDir
+    Path spillDir;
+
+    @Test
+    void unreadableSpill_shouldStopRetryingAndRouteNewEventsThroughQueue() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> seen = Collections.synchronizedList(new ArrayList<>());
+        HandlerWorker worker = new HandlerWorker("broken", event -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            seen.add(event.getAggregateId());
+        }, 1, OverflowPolicy.SPILL, spillDir);
+        worker.start();
+        try {
+            worker.submit(event("p0"));
+            waitUntil(() -> worker.stats().getQueueDepth() == 0); // p0 is in the handler
+            worker.submit(event("p1"));
+            worker.submit(event("p2"));
+            worker.submit(event("p3"));
+            assertEquals(2, worker.stats().getSpilled());
+
+            // damage the spill file before the worker reads it
+            Path spill = spillDir.resolve("broken.spill");
+            Files.write(spill, ByteBuffer.allocate(4).putInt(Integer.MAX_VALUE).array());
+            release.countDown();
+
+            waitUntil(() -> worker.stats().getSpillError() != null);
+            assertEquals(2, worker.stats().getDropped());
+            assertEquals(0, worker.stats().getSpilled());
+            assertTrue(Files.exists(spillDir.resolve("broken.spill.failed")));
+
+            worker.submit(event("p4"));
+            waitUntil(() -> seen.contains("p4"));
+            assertEquals(List.of("p0", "p1", "p4"), seen);
+            assertFalse(Files.exists(spill));
+        } finally {
+            worker.stop(Duration.ofSeconds(5));
+        }
+    }
+
+    private static PaymentEvent event(String paymentId) {
+        return new PaymentCreatedEvent(UUID.randomUUID(), paymentId, Instant.now(), null, 100, "USD");
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+}
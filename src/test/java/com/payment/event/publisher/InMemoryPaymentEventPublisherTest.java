@@ -0,0 +1,173 @@
+package com.payment.event.publisher;
+
+import com.payment.event.handler.PaymentEventHandler;
+import com.payment.event.model.PaymentCreatedEvent;
+import com.payment.event.model.PaymentEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryPaymentEventPublisherTest {
+    @TempDir
+    Path spillDir;
+
+    private InMemoryPaymentEventPublisher publisher;
+
+    @AfterEach
+    void tearDown() {
+        if (publisher != null) {
+            publisher.shutdown();
+        }
+    }
+
+    @Test
+    void publish_slowAsyncHandler_shouldNotBlockCallerOrOtherHandlers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingHandler synchronous = new RecordingHandler(true);
+        RecordingHandler fast = new RecordingHandler(false);
+        BlockedHandler slow = new BlockedHandler(release);
+        publisher = new InMemoryPaymentEventPublisher(List.of(synchronous, slow, fast), environment());
+
+        publisher.publish(event("p1"));
+
+        // synchronous handlers have run by the time publish returns
+        assertEquals(List.of("p1"), synchronous.seen);
+        fast.awaitCount(1);
+        assertEquals(List.of("p1"), fast.seen);
+
+        release.countDown();
+    }
+
+    @Test
+    void publish_failingAsyncHandler_shouldOnlyCountFailure() throws Exception {
+        RecordingHandler healthy = new RecordingHandler(false);
+        PaymentEventHandler failing = event -> {
+            throw new IllegalStateException("boom");
+        };
+        publisher = new InMemoryPaymentEventPublisher(List.of(failing, healthy), environment());
+
+        publisher.publish(event("p1"));
+        publisher.publish(event("p2"));
+
+        healthy.awaitCount(2);
+        waitUntil(() -> publisher.stats().get(0).getFailed() == 2);
+        assertEquals(0, publisher.stats().get(1).getFailed());
+    }
+
+    @Test
+    void publish_dropPolicy_shouldCountDroppedEvents() {
+        CountDownLatch release = new CountDownLatch(1);
+        publisher = new InMemoryPaymentEventPublisher(List.of(new BlockedHandler(release)),
+                environment().withProperty("payment.events.handlers.BlockedHandler.queue-capacity", "2")
+                        .withProperty("payment.events.handlers.BlockedHandler.overflow-policy", "DROP"));
+
+        for (int i = 0; i < 10; i++) {
+            publisher.publish(event("p" + i));
+        }
+
+        HandlerStats stats = publisher.stats().get(0);
+        // one event is held by the blocked handler, two sit in the queue
+        assertTrue(stats.getDropped() >= 7);
+        assertEquals(OverflowPolicy.DROP, stats.getOverflowPolicy());
+        release.countDown();
+    }
+
+    @Test
+    void publish_spillPolicy_shouldDeliverEveryEventInOrder() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingHandler recording = new RecordingHandler(false);
+        PaymentEventHandler gated = event -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            recording.handle(event);
+        };
+        publisher = new InMemoryPaymentEventPublisher(List.of(gated),
+                environment().withProperty("payment.events.queue-capacity", "4")
+                        .withProperty("payment.events.overflow-policy", "SPILL"));
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            publisher.publish(event("p" + i));
+            expected.add("p" + i);
+        }
+        assertTrue(publisher.stats().get(0).getSpilled() > 0);
+
+        release.countDown();
+        recording.awaitCount(50);
+
+        assertEquals(expected, recording.seen);
+        assertEquals(0, publisher.stats().get(0).getDropped());
+    }
+
+    private MockEnvironment environment() {
+        return new MockEnvironment().withProperty("payment.events.spill-dir", spillDir.toString());
+    }
+
+    private static PaymentEvent event(String paymentId) {
+        return new PaymentCreatedEvent(UUID.randomUUID(), paymentId, Instant.now(), null, 100, "USD");
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+
+    private static class RecordingHandler implements PaymentEventHandler {
+        private final boolean synchronous;
+        private final List<String> seen = Collections.synchronizedList(new ArrayList<>());
+
+        RecordingHandler(boolean synchronous) {
+            this.synchronous = synchronous;
+        }
+
+        @Override
+        public void handle(PaymentEvent paymentEvent) {
+            seen.add(paymentEvent.getAggregateId());
+        }
+
+        @Override
+        public boolean isSynchronous() {
+            return synchronous;
+        }
+
+        void awaitCount(int count) throws InterruptedException {
+            waitUntil(() -> seen.size() >= count);
+        }
+    }
+
+    private static class BlockedHandler implements PaymentEventHandler {
+        private final CountDownLatch release;
+
+        BlockedHandler(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void handle(PaymentEvent paymentEvent) {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
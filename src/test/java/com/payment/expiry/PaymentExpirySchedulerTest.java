@@ -0,0 +1,126 @@
+package com.payment.expiry;
+
+import com.payment.domain.Payment;
+import com.payment.domain.PaymentStatus;
+import com.payment.dto.CancelPaymentRequest;
+import com.payment.dto.CreatePaymentRequest;
+import com.payment.event.model.PaymentCanceledEvent;
+import com.payment.event.model.PaymentEvent;
+import com.payment.hotkey.HotKeyTracker;
+import com.payment.id.TimeOrderedIdGenerator;
+import com.payment.idempotency.repository.InMemoryIdempotencyRepository;
+import com.payment.reconciliation.ReconciliationChangeSet;
+import com.payment.repository.InMemoryPaymentRepository;
+import com.payment.service.PaymentResult;
+import com.payment.service.PaymentResultStatus;
+import com.payment.service.PaymentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentExpirySchedulerTest {
+    private final InMemoryPaymentRepository paymentRepository = new InMemoryPaymentRepository();
+    private final List<PaymentEvent> published = new CopyOnWriteArrayList<>();
+    private PaymentExpiryScheduler scheduler;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void createdPayment_shouldBeCanceledOnceItsTtlPassed() throws InterruptedException {
+        PaymentService paymentService = start(1);
+        String id = paymentService.createPayment(createRequest(), null).getId();
+        assertEquals(1, scheduler.pendingCount());
+
+        awaitStatus(id, PaymentStatus.CANCELED);
+        List<PaymentCanceledEvent> canceled = canceledEvents(id);
+        assertEquals(1, canceled.size());
+        assertEquals("expired", canceled.get(0).getReason());
+        assertEquals(0, scheduler.pendingCount());
+    }
+
+    @Test
+    void paymentStoredBeforeStartup_shouldStillExpire() throws InterruptedException {
+        Instant longAgo = Instant.now().minusSeconds(3_600);
+        paymentRepository.save(new Payment("recovered", 100, "USD", PaymentStatus.CREATED, longAgo, longAgo));
+
+        start(1);
+
+        awaitStatus("recovered", PaymentStatus.CANCELED);
+        assertEquals(1, canceledEvents("recovered").size());
+    }
+
+    @Test
+    void expiryRacingClientCancel_shouldCancelOnlyOnce() throws Exception {
+        PaymentService paymentService = start(3_600);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 200; i++) {
+                String id = paymentService.createPayment(createRequest(), null).getId();
+                CountDownLatch go = new CountDownLatch(1);
+                Future<?> expiry = executor.submit(() -> {
+                    go.await();
+                    return paymentService.expirePayments(List.of(id));
+                });
+                Future<PaymentResult> cancel = executor.submit(() -> {
+                    go.await();
+                    return paymentService.tryCancelPayment(id, null, new CancelPaymentRequest());
+                });
+                go.countDown();
+                expiry.get();
+                // losing the race is a CONFLICT result, never a second cancel
+                PaymentResultStatus status = cancel.get().getStatus();
+                assertTrue(status == PaymentResultStatus.OK || status == PaymentResultStatus.CONFLICT, "payment " + id + ": " + status);
+
+                assertEquals(1, canceledEvents(id).size(), "payment " + id);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private PaymentService start(long ttlSeconds) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        scheduler = new PaymentExpiryScheduler(beans.getBeanProvider(PaymentService.class), paymentRepository, ttlSeconds, 10, 100);
+        PaymentService paymentService = new PaymentService(paymentRepository, new InMemoryIdempotencyRepository(), event -> {
+            published.add(event);
+            scheduler.handle(event);
+        }, new TimeOrderedIdGenerator(), new HotKeyTracker(20, 1024, 0, ""), new ReconciliationChangeSet());
+        beans.addBean("paymentService", paymentService);
+        return paymentService;
+    }
+
+    private void awaitStatus(String id, PaymentStatus status) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (paymentRepository.findById(id).orElseThrow().getStatus() != status) {
+            assertTrue(System.currentTimeMillis() < deadline, "payment " + id + " never became " + status);
+            Thread.sleep(20);
+        }
+    }
+
+    private List<PaymentCanceledEvent> canceledEvents(String id) {
+        return published.stream()
+                .filter(event -> event instanceof PaymentCanceledEvent && event.getAggregateId().equals(id))
+                .map(PaymentCanceledEvent.class::cast)
+                .toList();
+    }
+
+    private static CreatePaymentRequest createRequest() {
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setAmount(100);
+        request.setCurrency("USD");
+        return request;
+    }
+}
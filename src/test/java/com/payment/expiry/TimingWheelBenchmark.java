@@ -0,0 +1,69 @@
+package com.payment.expiry;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TimingWheelBenchmark: cost of schedule() and cancel() and heap per pending deadline, with tens of millions of
+ * payments pending. Deadlines are spread over a 30 minute ttl at 1 s ticks; half the payments are canceled.
+ *
+ *   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.payment.expiry.TimingWheelBenchmark -Dexec.args="20000000"
+ *
+ * Argument: number of payments (default 20,000,000; give the JVM a few GB of heap).
+ */
+public class TimingWheelBenchmark {
+    private static final long TICK_MILLIS = 1_000;
+    private static final long TTL_MILLIS = 30 * 60 * 1_000;
+
+    public static void main(String[] args) {
+        int payments = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        String[] ids = new String[payments];
+        for (int i = 0; i < payments; i++) {
+            ids[i] = "pay-" + i;
+        }
+
+        LongAdder expired = new LongAdder();
+        TimingWheel wheel = new TimingWheel(TICK_MILLIS, 0, 500, batch -> expired.add(batch.size()));
+        long heapBefore = usedHeap();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < payments; i++) {
+            // creates arrive over the first 10 minutes
+            wheel.schedule(ids[i], (long) i * 600_000 / payments + TTL_MILLIS);
+        }
+        long scheduleNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        wheel.advanceTo(0);
+        long linkNanos = System.nanoTime() - start;
+        long heapPending = usedHeap() - heapBefore;
+
+        start = System.nanoTime();
+        for (int i = 0; i < payments; i += 2) {
+            wheel.cancel(ids[i]);
+        }
+        wheel.advanceTo(0);
+        long cancelNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        wheel.advanceTo(TTL_MILLIS + 600_000);
+        long expireNanos = System.nanoTime() - start;
+
+        System.out.printf("payments=%,d%n", payments);
+        System.out.printf("schedule        %6.1f ns/op%n", (double) scheduleNanos / payments);
+        System.out.printf("link (timer)    %6.1f ns/op%n", (double) linkNanos / payments);
+        System.out.printf("cancel + unlink %6.1f ns/op%n", (double) cancelNanos / (payments / 2));
+        System.out.printf("expire          %6.1f ns/op over %,d ticks%n", (double) expireNanos / Math.max(1, expired.sum()),
+                (TTL_MILLIS + 600_000) / TICK_MILLIS);
+        System.out.printf("heap            %6.0f bytes per pending deadline%n", (double) heapPending / payments);
+        System.out.printf("expired=%,d pending=%,d%n", expired.sum(), wheel.size());
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,74 @@
+package com.payment.expiry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+    private final List<List<String>> batches = new ArrayList<>();
+
+    @Test
+    void advance_shouldExpireEachIdAtItsDeadlineOnEveryLevel() {
+        TimingWheel wheel = new TimingWheel(1, 0, 100, batches::add);
+        long[] deadlines = {1, 5, 255, 256, 300, 65_535, 70_000, 16_777_300, 20_000_000};
+        for (long deadline : deadlines) {
+            wheel.schedule("p-" + deadline, deadline);
+        }
+
+        long now = 0;
+        for (long deadline : deadlines) {
+            wheel.advanceTo(deadline - 1);
+            assertFalse(expired().contains("p-" + deadline), "expired early: " + deadline);
+            wheel.advanceTo(deadline);
+            assertTrue(expired().contains("p-" + deadline), "not expired: " + deadline);
+            now = deadline;
+        }
+        assertEquals(deadlines.length, expired().size());
+        assertEquals(0, wheel.size());
+        assertEquals(20_000_000, now);
+    }
+
+    @Test
+    void cancel_andReschedule_shouldReplaceDeadline() {
+        TimingWheel wheel = new TimingWheel(10, 1_000, 100, batches::add);
+        wheel.schedule("canceled", 1_500);
+        wheel.schedule("moved", 1_500);
+        wheel.advanceTo(1_100); // both linked
+        assertTrue(wheel.cancel("canceled"));
+        wheel.schedule("moved", 5_000);
+
+        wheel.advanceTo(2_000);
+        assertTrue(expired().isEmpty());
+        assertEquals(1, wheel.size());
+        assertFalse(wheel.cancel("canceled"));
+
+        // deadlines round up to the next tick
+        wheel.advanceTo(4_999);
+        assertTrue(expired().isEmpty());
+        wheel.advanceTo(5_000);
+        assertEquals(List.of("moved"), expired());
+    }
+
+    @Test
+    void advance_shouldHandOverExpiredIdsInBatches() {
+        TimingWheel wheel = new TimingWheel(1, 0, 64, batches::add);
+        for (int i = 0; i < 1_000; i++) {
+            wheel.schedule("p-" + i, 10);
+        }
+        wheel.schedule("past", -5);
+        wheel.advanceTo(5);
+        assertEquals(List.of(List.of("past")), batches);
+
+        wheel.advanceTo(10);
+        assertEquals(1 + 16, batches.size());
+        assertTrue(batches.stream().allMatch(batch -> batch.size() <= 64));
+        assertEquals(1_001, expired().size());
+    }
+
+    private List<String> expired() {
+        return batches.stream().flatMap(List::stream).toList();
+    }
+}
@@ -0,0 +1,69 @@
+package com.payment.hotkey;
+
+import com.payment.hotkey.model.HotKey;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeavyHittersTest {
+
+    @Test
+    void hot_keys_surface_above_a_long_tail_of_distinct_keys() {
+        HeavyHitters heavyHitters = new HeavyHitters(5, 1024);
+        for (int i = 0; i < 100_000; i++) {
+            heavyHitters.record("tail-" + i);
+            if (i % 10 == 0) {
+                heavyHitters.record("hot-a");
+            }
+            if (i % 20 == 0) {
+                heavyHitters.record("hot-b");
+            }
+        }
+
+        List<HotKey> top = heavyHitters.top();
+        assertEquals("hot-a", top.get(0).getKey());
+        assertEquals("hot-b", top.get(1).getKey());
+        // count-min only over-counts; with 100k tail keys in 1024 columns the error stays well below the signal
+        assertTrue(top.get(0).getEstimatedCount() >= 10_000);
+        assertTrue(top.get(0).getEstimatedCount() < 11_000);
+        assertTrue(top.size() <= 5);
+    }
+
+    @Test
+    void keys_with_equal_hashCode_do_not_share_counters() {
+        // "Aa" and "BB" have the same String.hashCode(), as does every same-length concatenation of them
+        assertEquals("AaAaAa".hashCode(), "BBBBBB".hashCode());
+        CountMinSketch sketch = new CountMinSketch(1024);
+        for (int i = 0; i < 10_000; i++) {
+            sketch.increment("AaAaAa");
+        }
+
+        assertEquals(10_000, sketch.estimate("AaAaAa"));
+        assertEquals(0, sketch.estimate("BBBBBB"));
+        assertEquals(0, sketch.estimate("AaBBAa"));
+    }
+
+    @Test
+    void decay_lets_old_offenders_fade_out() {
+        HeavyHitters heavyHitters = new HeavyHitters(3, 256);
+        for (int i = 0; i < 1_000; i++) {
+            heavyHitters.record("yesterday");
+        }
+
+        heavyHitters.decay();
+        assertEquals(500, heavyHitters.top().get(0).getEstimatedCount());
+
+        for (int i = 0; i < 10; i++) {
+            heavyHitters.decay();
+        }
+        for (int i = 0; i < 100; i++) {
+            heavyHitters.record("today");
+        }
+        Set<String> keys = heavyHitters.top().stream().map(HotKey::getKey).collect(Collectors.toSet());
+        assertEquals(Set.of("today"), keys);
+    }
+}
@@ -0,0 +1,56 @@
+package com.payment.hotkey;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * HotKeyTrackerBenchmark: nanoseconds per record() for a skewed key stream (10% of calls on a few hot keys).
+ *
+ *   mvn -q test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.payment.hotkey.HotKeyTrackerBenchmark
+ */
+public class HotKeyTrackerBenchmark {
+    private static final int KEYS = 1 << 16;
+    private static final int RECORDS_PER_THREAD = 20_000_000;
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        // keys are built up front, as they arrive from request headers with their hash not yet computed
+        String[] keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = (i % 10 == 0 ? "hot-" + (i % 4) : "key-" + i);
+        }
+
+        HeavyHitters heavyHitters = new HeavyHitters(20, 4096);
+        run(heavyHitters, keys, threads);
+        double nanos = run(heavyHitters, keys, threads);
+        System.out.printf("threads=%d  %.1f ns/record (per thread)%n", threads, nanos);
+        System.out.println(heavyHitters.top().subList(0, 4).stream().map(k -> k.getKey() + "=" + k.getEstimatedCount()).toList());
+    }
+
+    private static double run(HeavyHitters heavyHitters, String[] keys, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t * 7919;
+                futures.add(executor.submit(() -> {
+                    long start = System.nanoTime();
+                    for (int i = 0; i < RECORDS_PER_THREAD; i++) {
+                        heavyHitters.record(keys[(i + offset) & (KEYS - 1)]);
+                    }
+                    return System.nanoTime() - start;
+                }));
+            }
+            long total = 0;
+            for (Future<Long> future : futures) {
+                total += future.get();
+            }
+            return (double) total / threads / RECORDS_PER_THREAD;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
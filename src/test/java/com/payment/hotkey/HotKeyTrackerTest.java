@@ -0,0 +1,31 @@
+package com.payment.hotkey;
+
+import com.payment.hotkey.model.HotKey;
+import com.payment.hotkey.model.HotKeySnapshot;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotKeyTrackerTest {
+
+    @Test
+    void snapshot_shouldReportFingerprintsInsteadOfKeys() {
+        HotKeyTracker tracker = new HotKeyTracker(5, 1024, 0, "ops-secret");
+        for (int i = 0; i < 10; i++) {
+            tracker.recordIdempotencyKey("client-secret-key");
+            tracker.recordPaymentId("pay-123");
+        }
+
+        HotKeySnapshot snapshot = tracker.snapshot();
+        HotKey hot = snapshot.getIdempotencyKeys().get(0);
+        assertNotEquals("client-secret-key", hot.getKey());
+        assertEquals(tracker.fingerprint("client-secret-key"), hot.getKey());
+        assertEquals(16, hot.getKey().length());
+        assertEquals(10, hot.getEstimatedCount());
+        assertEquals(tracker.fingerprint("pay-123"), snapshot.getPaymentIds().get(0).getKey());
+
+        // the same secret gives the same fingerprint in another process
+        assertEquals(hot.getKey(), new HotKeyTracker(5, 1024, 0, "ops-secret").fingerprint("client-secret-key"));
+        assertNotEquals(hot.getKey(), new HotKeyTracker(5, 1024, 0, "").fingerprint("client-secret-key"));
+    }
+}
@@ -0,0 +1,78 @@
+package com.payment.id;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * IdGeneratorBenchmark: id throughput and ordered-index locality for random vs time-ordered UUIDs.
+ *
+ *   mvn -q test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.payment.id.IdGeneratorBenchmark
+ *
+ * Locality is reported as the share of inserts that land at the tail of an ordered map (what a B-tree or
+ * LSM memtable sees as an append) and the time to build the map.
+ */
+public class IdGeneratorBenchmark {
+    private static final int IDS_PER_THREAD = 2_000_000;
+    private static final int INDEX_SIZE = 1_000_000;
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        IdGenerator random = new RandomIdGenerator();
+        IdGenerator timeOrdered = new TimeOrderedIdGenerator();
+
+        // warm up both paths before measuring
+        throughput(random, threads);
+        throughput(timeOrdered, threads);
+
+        System.out.printf("threads=%d%n", threads);
+        System.out.printf("random       %,.0f ids/s%n", throughput(random, threads));
+        System.out.printf("time-ordered %,.0f ids/s%n", throughput(timeOrdered, threads));
+        locality("random", random);
+        locality("time-ordered", timeOrdered);
+    }
+
+    private static double throughput(IdGenerator generator, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long start = System.nanoTime();
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    long sink = 0;
+                    for (int i = 0; i < IDS_PER_THREAD; i++) {
+                        sink ^= generator.nextId().getLeastSignificantBits();
+                    }
+                    return sink;
+                }));
+            }
+            for (Future<Long> future : futures) {
+                future.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            return (double) threads * IDS_PER_THREAD / seconds;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void locality(String name, IdGenerator generator) {
+        TreeMap<UUID, Boolean> index = new TreeMap<>();
+        long appends = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < INDEX_SIZE; i++) {
+            UUID id = generator.nextId();
+            if (index.isEmpty() || id.compareTo(index.lastKey()) > 0) {
+                appends++;
+            }
+            index.put(id, Boolean.TRUE);
+        }
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+        System.out.printf("%-12s tail inserts=%.1f%% build=%.0fms for %,d ids%n",
+                name, 100.0 * appends / INDEX_SIZE, millis, INDEX_SIZE);
+    }
+}
@@ -0,0 +1,91 @@
+package com.payment.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedIdGeneratorTest {
+
+    @Test
+    void nextId_shouldBeVersion7AndCarryTimestamp() {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(() -> 1_700_000_000_000L);
+
+        UUID id = generator.nextId();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        assertEquals(1_700_000_000_000L, id.getMostSignificantBits() >>> 16);
+    }
+
+    @Test
+    void nextId_sameMillisecond_shouldStayStrictlyIncreasing() {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(() -> 1_700_000_000_000L);
+
+        UUID previous = generator.nextId();
+        for (int i = 0; i < 100_000; i++) {
+            UUID next = generator.nextId();
+            assertTrue(next.compareTo(previous) > 0);
+            assertTrue(next.toString().compareTo(previous.toString()) > 0);
+            previous = next;
+        }
+    }
+
+    @Test
+    void nextId_sameThread_shouldDrawFreshRandomBits() {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(() -> 1_700_000_000_000L);
+        long randomMask = (1L << 48) - 1;
+
+        Set<Long> randomBits = new HashSet<>();
+        for (int i = 0; i < 1_000; i++) {
+            randomBits.add(generator.nextId().getLeastSignificantBits() & randomMask);
+        }
+
+        assertEquals(1_000, randomBits.size());
+    }
+
+    @Test
+    void nextId_clockMovesBackwards_shouldStayIncreasing() {
+        long[] now = {1_700_000_000_000L};
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(() -> now[0]);
+
+        UUID before = generator.nextId();
+        now[0] -= 5_000;
+        UUID after = generator.nextId();
+
+        assertTrue(after.compareTo(before) > 0);
+    }
+
+    @Test
+    void nextId_concurrentThreads_shouldNotCollide() throws Exception {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator();
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 50_000; i++) {
+                        ids.add(generator.nextId());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(8 * 50_000, ids.size());
+    }
+}
@@ -0,0 +1,223 @@
+package com.payment.idempotency.cluster;
+
+import com.payment.domain.PaymentStatus;
+import com.payment.dto.PaymentResponse;
+import com.payment.exception.ClusterUnavailableException;
+import com.payment.idempotency.model.IdempotencyRecord;
+import com.payment.idempotency.model.IdempotencySaveResult;
+import com.payment.idempotency.model.RecordStatus;
+import com.payment.idempotency.repository.InMemoryIdempotencyRepository;
+import com.payment.security.SharedSecret;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedIdempotencyRepositoryTest {
+    private static final int NODES = 3;
+    private static final String SECRET = "cluster-secret";
+
+    private final List<IdempotencyRpcServer> servers = new ArrayList<>();
+    private final List<InMemoryIdempotencyRepository> locals = new ArrayList<>();
+    private final List<PartitionedIdempotencyRepository> repositories = new ArrayList<>();
+    private ConsistentHashRing ring;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        List<ClusterNode> nodes = new ArrayList<>();
+        for (int i = 0; i < NODES; i++) {
+            InMemoryIdempotencyRepository local = new InMemoryIdempotencyRepository();
+            IdempotencyRpcServer server = new IdempotencyRpcServer(new InetSocketAddress("127.0.0.1", 0), local, SECRET);
+            server.start();
+            locals.add(local);
+            servers.add(server);
+            nodes.add(new ClusterNode("n" + i, "127.0.0.1", server.getPort()));
+        }
+
+        ring = new ConsistentHashRing(nodes, 128);
+        for (int i = 0; i < NODES; i++) {
+            repositories.add(new PartitionedIdempotencyRepository(nodes.get(i), ring, locals.get(i), Duration.ofSeconds(2), SECRET));
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (PartitionedIdempotencyRepository repository : repositories) {
+            repository.close();
+        }
+        for (IdempotencyRpcServer server : servers) {
+            server.close();
+        }
+    }
+
+    @Test
+    void save_sameKeyOnEveryNode_shouldOnlyBeCreatedOnce() {
+        List<IdempotencySaveResult> results = new ArrayList<>();
+        for (PartitionedIdempotencyRepository repository : repositories) {
+            results.add(repository.save(record("idem-key", "payment-1")));
+        }
+
+        assertEquals(List.of(IdempotencySaveResult.CREATED, IdempotencySaveResult.EXISTED, IdempotencySaveResult.EXISTED), results);
+
+        // only the owner stores the key
+        long holders = locals.stream().filter(local -> local.findByIdempotency("idem-key").isPresent()).count();
+        assertEquals(1, holders);
+    }
+
+    @Test
+    void markCompleted_viaAnyNode_shouldBeVisibleEverywhere() {
+        repositories.get(0).save(record("idem-key", "payment-1"));
+
+        PaymentResponse response = new PaymentResponse("payment-1", 500, "USD", PaymentStatus.CREATED, Instant.EPOCH, Instant.EPOCH);
+        for (PartitionedIdempotencyRepository repository : repositories) {
+            repository.markCompleted("idem-key", response);
+        }
+
+        for (PartitionedIdempotencyRepository repository : repositories) {
+            IdempotencyRecord found = repository.findByIdempotency("idem-key").orElseThrow();
+            assertEquals(RecordStatus.COMPLETED, found.getRecordStatus());
+            assertEquals("payment-1", found.getPaymentId());
+            assertEquals(500, found.getResponse().getAmount());
+            assertEquals(Instant.EPOCH, found.getResponse().getCreatedAt());
+        }
+        assertTrue(repositories.get(1).findByIdempotency("missing").isEmpty());
+    }
+
+    @Test
+    void markCompleted_unknownKeyOnRemoteOwner_shouldThrowIllegalState() {
+        String remoteKey = keyOwnedByOtherThan("n0");
+
+        assertThrows(IllegalStateException.class, () -> repositories.get(0).markCompleted(remoteKey, null));
+    }
+
+    @Test
+    void rpc_localStoreThrows_shouldAnswerWithErrorAndKeepConnection() throws Exception {
+        InMemoryIdempotencyRepository failing = new InMemoryIdempotencyRepository() {
+            @Override
+            public Optional<IdempotencyRecord> findByIdempotency(String idempotencyKey) {
+                if ("boom".equals(idempotencyKey)) {
+                    throw new IllegalArgumentException("store unavailable");
+                }
+                return super.findByIdempotency(idempotencyKey);
+            }
+        };
+        try (IdempotencyRpcServer server = new IdempotencyRpcServer(new InetSocketAddress("127.0.0.1", 0), failing, SECRET)) {
+            server.start();
+            try (IdempotencyRpcClient client = new IdempotencyRpcClient(
+                    new ClusterNode("failing", "127.0.0.1", server.getPort()), Duration.ofSeconds(2), SECRET)) {
+                IllegalStateException ex = assertThrows(IllegalStateException.class, () -> client.findByIdempotency("boom"));
+                assertTrue(ex.getMessage().contains("store unavailable"));
+                assertTrue(client.findByIdempotency("missing").isEmpty());
+            }
+        }
+    }
+
+    @Test
+    void rpc_wrongSecret_shouldBeRefusedBeforeAnyRequest() {
+        repositories.get(0).save(record("idem-key", "payment-1"));
+        ClusterNode owner = ring.ownerOf("idem-key");
+
+        try (IdempotencyRpcClient forger = new IdempotencyRpcClient(owner, Duration.ofSeconds(2), "guessed")) {
+            PaymentResponse forged = new PaymentResponse("payment-1", 1, "USD", PaymentStatus.CANCELED, Instant.EPOCH, Instant.EPOCH);
+            assertThrows(ClusterUnavailableException.class, () -> forger.markCompleted("idem-key", forged));
+        }
+
+        IdempotencyRecord stored = repositories.get(0).findByIdempotency("idem-key").orElseThrow();
+        assertEquals(RecordStatus.IN_PROGRESS, stored.getRecordStatus());
+    }
+
+    @Test
+    void rpc_oversizedFrame_shouldCloseConnectionWithoutAllocating() throws Exception {
+        IdempotencyRpcServer server = servers.get(0);
+        try (Socket socket = new Socket("127.0.0.1", server.getPort())) {
+            socket.setSoTimeout(2_000);
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            byte[] serverNonce = new byte[SharedSecret.NONCE_BYTES];
+            in.readFully(serverNonce);
+            out.write(SharedSecret.nonce());
+            out.write(SharedSecret.proof(SharedSecret.secretBytes("payment.cluster.secret", SECRET), IdempotencyRpc.CLIENT, serverNonce));
+            in.readFully(new byte[SharedSecret.PROOF_BYTES]);
+
+            out.writeInt(Integer.MAX_VALUE);
+            out.flush();
+            assertEquals(-1, in.read());
+        }
+        // the server still answers well-behaved peers
+        repositories.get(1).save(record("after", "payment-2"));
+        assertTrue(repositories.get(2).findByIdempotency("after").isPresent());
+    }
+
+    @Test
+    void save_concurrentPipelinedClaims_shouldEachBeCreatedOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<IdempotencySaveResult>> futures = new ArrayList<>();
+            for (int i = 0; i < 2_000; i++) {
+                String key = "key-" + (i % 500);
+                PartitionedIdempotencyRepository repository = repositories.get(i % NODES);
+                futures.add(executor.submit(() -> repository.save(record(key, "payment-" + key))));
+            }
+
+            long created = 0;
+            for (Future<IdempotencySaveResult> future : futures) {
+                if (future.get() == IdempotencySaveResult.CREATED) {
+                    created++;
+                }
+            }
+            assertEquals(500, created);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void ring_addingNode_shouldMoveOnlyAShareOfKeys() {
+        List<ClusterNode> grown = new ArrayList<>(ring.nodes());
+        grown.add(new ClusterNode("n3", "127.0.0.1", 1));
+        ConsistentHashRing bigger = new ConsistentHashRing(grown, 128);
+
+        Map<String, Integer> perNode = new HashMap<>();
+        int moved = 0;
+        int keys = 20_000;
+        for (int i = 0; i < keys; i++) {
+            String key = "key-" + i;
+            perNode.merge(ring.ownerOf(key).getId(), 1, Integer::sum);
+            if (!ring.ownerOf(key).equals(bigger.ownerOf(key))) {
+                moved++;
+            }
+        }
+
+        // ideal is 1/4 of the keys moving, and 1/3 of the keys per node
+        assertTrue(moved > keys * 0.15 && moved < keys * 0.35, "moved=" + moved);
+        perNode.values().forEach(count -> assertTrue(count > keys / NODES * 0.8, "perNode=" + perNode));
+    }
+
+    private String keyOwnedByOtherThan(String nodeId) {
+        for (int i = 0; ; i++) {
+            if (!ring.ownerOf("k" + i).getId().equals(nodeId)) {
+                return "k" + i;
+            }
+        }
+    }
+
+    private static IdempotencyRecord record(String key, String paymentId) {
+        return new IdempotencyRecord(key, "hash", paymentId, Instant.now(), RecordStatus.IN_PROGRESS);
+    }
+}
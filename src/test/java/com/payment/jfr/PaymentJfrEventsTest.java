@@ -0,0 +1,99 @@
+package com.payment.jfr;
+
+import com.payment.domain.Payment;
+import com.payment.dto.CreatePaymentRequest;
+import com.payment.exception.ConflictException;
+import com.payment.hotkey.HotKeyTracker;
+import com.payment.id.TimeOrderedIdGenerator;
+import com.payment.idempotency.repository.InMemoryIdempotencyRepository;
+import com.payment.reconciliation.ReconciliationChangeSet;
+import com.payment.repository.InMemoryPaymentRepository;
+import com.payment.service.PaymentService;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentJfrEventsTest {
+
+    @Test
+    void service_calls_are_recorded_with_their_idempotency_outcome(@TempDir Path dir) throws Exception {
+        PaymentService service = new PaymentService(new InMemoryPaymentRepository(), new InMemoryIdempotencyRepository(),
+                event -> {}, new TimeOrderedIdGenerator(), new HotKeyTracker(20, 1024, 0, ""), new ReconciliationChangeSet());
+
+        Path file = dir.resolve("payments.jfr");
+        String id;
+        try (Recording recording = new Recording()) {
+            recording.enable("com.payment.PaymentOperation").withThreshold(Duration.ZERO);
+            recording.enable("com.payment.IdempotencyOperation").withThreshold(Duration.ZERO);
+            recording.start();
+
+            id = service.createPayment(request(100, "USD"), "key-1").getId();
+            service.createPayment(request(100, "USD"), "key-1");
+            assertThrows(ConflictException.class, () -> service.createPayment(request(200, "USD"), "key-1"));
+            service.cancelPayment(id, null, null);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        List<String> outcomes = events.stream()
+                .filter(e -> e.getEventType().getName().equals("com.payment.PaymentOperation"))
+                .map(e -> e.getString("operation") + ":" + e.getString("outcome"))
+                .toList();
+        assertEquals(List.of("create:CREATED", "create:REPLAYED", "create:CONFLICT", "cancel:CANCELED"), outcomes);
+        assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("com.payment.PaymentOperation")
+                && e.getString("operation").equals("create") && id.equals(e.getString("paymentId"))));
+
+        assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("com.payment.IdempotencyOperation")
+                && e.getString("operation").equals("find")
+                && e.getString("result").equals("COMPLETED")));
+    }
+
+    @Test
+    void failed_repository_calls_are_recorded_against_the_real_store(@TempDir Path dir) throws Exception {
+        PaymentService service = new PaymentService(new FailingPaymentRepository(), new InMemoryIdempotencyRepository(),
+                event -> {}, new TimeOrderedIdGenerator(), new HotKeyTracker(20, 1024, 0, ""), new ReconciliationChangeSet());
+
+        Path file = dir.resolve("payments.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.payment.PaymentRepositoryOperation").withThreshold(Duration.ZERO);
+            recording.start();
+
+            assertThrows(IllegalStateException.class, () -> service.createPayment(request(100, "USD"), null));
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        RecordedEvent save = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals("com.payment.PaymentRepositoryOperation"))
+                .filter(e -> e.getString("operation").equals("save"))
+                .findFirst().orElseThrow();
+        assertTrue(save.getBoolean("failed"));
+        // the store itself, not the change-tracking wrapper PaymentService puts around it
+        assertEquals("FailingPaymentRepository", save.getString("repository"));
+    }
+
+    private static class FailingPaymentRepository extends InMemoryPaymentRepository {
+        @Override
+        public void save(Payment payment) {
+            throw new IllegalStateException("disk full");
+        }
+    }
+
+    private static CreatePaymentRequest request(long amount, String currency) {
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setAmount(amount);
+        request.setCurrency(currency);
+        return request;
+    }
+}
@@ -0,0 +1,256 @@
+package com.payment.loadgen;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * LoadGenerator: open-model HTTP load generator and soak-test harness for /v1/payments.
+ *
+ * Requests are scheduled at a constant rate independent of how fast responses come back. When the
+ * concurrency limit is reached the schedule keeps running, and the wait is charged to the request's
+ * latency (measured from its intended send time), so stalls are not hidden by coordinated omission.
+ *
+ * Run against a locally started instance:
+ *   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.payment.loadgen.LoadGenerator \
+ *       -Dexec.args="--rate=20000 --duration=5m --concurrency=512 --mix=create=70,cancel=10,get=20"
+ */
+public class LoadGenerator {
+    private static final int RECENT_CAPACITY = 4096;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private final LoadProfile profile;
+    private final HttpClient client;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final AtomicReferenceArray<String> recentPaymentIds = new AtomicReferenceArray<>(RECENT_CAPACITY);
+    private final AtomicReferenceArray<IssuedKey> recentKeys = new AtomicReferenceArray<>(RECENT_CAPACITY);
+    private final AtomicLong newKeyCount = new AtomicLong();
+    private final AtomicLong reusedKeys = new AtomicLong();
+    private final AtomicLong conflictingPayloads = new AtomicLong();
+    private final AtomicLong missedSchedule = new AtomicLong();
+    private final int[] mixThresholds = new int[Operation.values().length];
+    private final int mixTotal;
+
+    public LoadGenerator(LoadProfile profile) {
+        this.profile = profile;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+
+        int cumulative = 0;
+        for (Operation operation : Operation.values()) {
+            cumulative += profile.getMix().getOrDefault(operation, 0);
+            mixThresholds[operation.ordinal()] = cumulative;
+        }
+        this.mixTotal = cumulative;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        LoadProfile profile = LoadProfile.parse(args);
+        System.out.println("[loadgen] " + profile);
+        new LoadGenerator(profile).run();
+    }
+
+    public void run() throws InterruptedException {
+        Semaphore inFlight = new Semaphore(profile.getConcurrency());
+        double intervalNanos = 1_000_000_000.0 / profile.getRate();
+        long start = System.nanoTime();
+        long warmupEnd = start + profile.getWarmup().toNanos();
+        long end = warmupEnd + profile.getDuration().toNanos();
+
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        long reportMillis = profile.getReportInterval().toMillis();
+        reporter.scheduleAtFixedRate(() -> printProgress(start, inFlight), reportMillis, reportMillis, TimeUnit.MILLISECONDS);
+
+        try {
+            for (long i = 0; ; i++) {
+                long intended = start + (long) (i * intervalNanos);
+                if (intended >= end) {
+                    break;
+                }
+                waitUntil(intended);
+                if (!inFlight.tryAcquire()) {
+                    missedSchedule.incrementAndGet();
+                    inFlight.acquire();
+                }
+                dispatch(intended, intended >= warmupEnd, inFlight);
+            }
+            // drain: wait for every in-flight request to finish
+            inFlight.acquire(profile.getConcurrency());
+        } finally {
+            reporter.shutdownNow();
+        }
+
+        printReport(profile.getDuration().toNanos() / 1_000_000_000.0);
+    }
+
+    private void dispatch(long intended, boolean measured, Semaphore inFlight) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Operation operation = pickOperation(random);
+        String paymentId = operation == Operation.CREATE ? null : randomRecent(recentPaymentIds, random);
+        if (paymentId == null) {
+            // nothing to cancel or look up yet
+            operation = Operation.CREATE;
+        }
+        HttpRequest request = operation == Operation.CREATE ? createRequest(random) : readOrCancelRequest(operation, paymentId);
+
+        Operation op = operation;
+        long sent = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    long done = System.nanoTime();
+                    inFlight.release();
+
+                    String outcome = error != null ? errorName(error) : Integer.toString(response.statusCode());
+                    if (measured) {
+                        stats.get(op).record(done - intended, done - sent, outcome);
+                    }
+                    if (op == Operation.CREATE && response != null && response.statusCode() == 200) {
+                        rememberPaymentId(response.body());
+                    }
+                });
+    }
+
+    private HttpRequest createRequest(ThreadLocalRandom random) {
+        double roll = random.nextDouble();
+        IssuedKey issued = null;
+        if (roll < profile.getKeyReuseRatio() + profile.getConflictRatio()) {
+            issued = randomRecent(recentKeys, random);
+        }
+
+        String key;
+        long amount;
+        if (issued == null) {
+            key = "lg-" + runId + "-" + newKeyCount.incrementAndGet();
+            amount = 1 + random.nextInt(10_000);
+            recentKeys.set((int) (newKeyCount.get() % RECENT_CAPACITY), new IssuedKey(key, amount));
+        } else if (roll < profile.getKeyReuseRatio()) {
+            // same key, same payload: should be answered as a replay
+            key = issued.key;
+            amount = issued.amount;
+            reusedKeys.incrementAndGet();
+        } else {
+            // same key, different payload: should be rejected with 409
+            key = issued.key;
+            amount = issued.amount + 1;
+            conflictingPayloads.incrementAndGet();
+        }
+
+        return HttpRequest.newBuilder(resolve("/v1/payments"))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .header("Idempotency-Key", key)
+                .POST(HttpRequest.BodyPublishers.ofString("{\"amount\":" + amount + ",\"currency\":\"USD\"}"))
+                .build();
+    }
+
+    private HttpRequest readOrCancelRequest(Operation operation, String paymentId) {
+        if (operation == Operation.GET) {
+            return HttpRequest.newBuilder(resolve("/v1/payments/" + paymentId))
+                    .timeout(REQUEST_TIMEOUT)
+                    .GET()
+                    .build();
+        }
+        return HttpRequest.newBuilder(resolve("/v1/payments/" + paymentId + "/cancel"))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"reason\":\"loadgen\"}"))
+                .build();
+    }
+
+    private Operation pickOperation(ThreadLocalRandom random) {
+        int roll = random.nextInt(mixTotal);
+        for (Operation operation : Operation.values()) {
+            if (roll < mixThresholds[operation.ordinal()]) {
+                return operation;
+            }
+        }
+        return Operation.CREATE;
+    }
+
+    private void rememberPaymentId(String body) {
+        int start = body.indexOf("\"id\":\"");
+        if (start < 0) {
+            return;
+        }
+        start += 6;
+        int end = body.indexOf('"', start);
+        if (end > start) {
+            recentPaymentIds.set(ThreadLocalRandom.current().nextInt(RECENT_CAPACITY), body.substring(start, end));
+        }
+    }
+
+    private static <T> T randomRecent(AtomicReferenceArray<T> recent, ThreadLocalRandom random) {
+        // the rings fill up quickly, so a few probes are enough to find an occupied slot
+        for (int attempt = 0; attempt < 4; attempt++) {
+            T value = recent.get(random.nextInt(RECENT_CAPACITY));
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private URI resolve(String path) {
+        return URI.create(profile.getBaseUrl() + path);
+    }
+
+    private static void waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private static String errorName(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause.getClass().getSimpleName();
+    }
+
+    private void printProgress(long start, Semaphore inFlight) {
+        long completed = stats.values().stream().mapToLong(OperationStats::count).sum();
+        long errors = stats.values().stream().mapToLong(OperationStats::errors).sum();
+        double elapsed = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("[loadgen] t=%.0fs measured=%d non-200=%d inFlight=%d scheduleMisses=%d%n",
+                elapsed, completed, errors, profile.getConcurrency() - inFlight.availablePermits(), missedSchedule.get());
+    }
+
+    private void printReport(double seconds) {
+        System.out.println();
+        System.out.println("[loadgen] results over " + profile.getDuration() + " (warmup excluded)");
+        for (Operation operation : Operation.values()) {
+            stats.get(operation).print(operation, seconds, System.out);
+        }
+        System.out.printf("creates: newKeys=%d reusedKeys=%d conflictingPayloads=%d; scheduleMisses=%d%n",
+                newKeyCount.get(), reusedKeys.get(), conflictingPayloads.get(), missedSchedule.get());
+    }
+
+    private static final class IssuedKey {
+        private final String key;
+        private final long amount;
+
+        private IssuedKey(String key, long amount) {
+            this.key = key;
+            this.amount = amount;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.payment.loadgen;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+// LoadProfile: run parameters, parsed from --name=value arguments
+public class LoadProfile {
+    private URI baseUrl = URI.create("http://localhost:8080");
+    private int rate = 1_000;
+    private Duration duration = Duration.ofSeconds(60);
+    private Duration warmup = Duration.ofSeconds(10);
+    private Duration reportInterval = Duration.ofSeconds(10);
+    private int concurrency = 256;
+    private final Map<Operation, Integer> mix = new EnumMap<>(Map.of(Operation.CREATE, 70, Operation.CANCEL, 10, Operation.GET, 20));
+    private double keyReuseRatio = 0.10;
+    private double conflictRatio = 0.01;
+
+    public static LoadProfile parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        LoadProfile profile = new LoadProfile();
+        options.forEach((name, value) -> {
+            switch (name) {
+                case "base-url" -> profile.baseUrl = URI.create(value.endsWith("/") ? value.substring(0, value.length() - 1) : value);
+                case "rate" -> profile.rate = Integer.parseInt(value);
+                case "duration" -> profile.duration = parseDuration(value);
+                case "warmup" -> profile.warmup = parseDuration(value);
+                case "report-interval" -> profile.reportInterval = parseDuration(value);
+                case "concurrency" -> profile.concurrency = Integer.parseInt(value);
+                case "mix" -> profile.parseMix(value);
+                case "key-reuse" -> profile.keyReuseRatio = Double.parseDouble(value);
+                case "conflict" -> profile.conflictRatio = Double.parseDouble(value);
+                default -> throw new IllegalArgumentException("Unknown option: --" + name);
+            }
+        });
+
+        if (profile.rate <= 0 || profile.concurrency <= 0) {
+            throw new IllegalArgumentException("rate and concurrency must be positive");
+        }
+        if (profile.keyReuseRatio + profile.conflictRatio > 1.0) {
+            throw new IllegalArgumentException("key-reuse + conflict must not exceed 1.0");
+        }
+        return profile;
+    }
+
+    // e.g. "create=70,cancel=10,get=20"
+    private void parseMix(String value) {
+        mix.clear();
+        for (String part : value.split(",")) {
+            String[] pair = part.split("=");
+            mix.put(Operation.valueOf(pair[0].trim().toUpperCase()), Integer.parseInt(pair[1].trim()));
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("mix weights must add up to a positive number");
+        }
+    }
+
+    // accepts "90s", "5m", "1h" or plain seconds
+    private static Duration parseDuration(String value) {
+        char unit = value.charAt(value.length() - 1);
+        if (Character.isDigit(unit)) {
+            return Duration.ofSeconds(Long.parseLong(value));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (unit) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Unknown duration unit: " + value);
+        };
+    }
+
+    public URI getBaseUrl() { return baseUrl; }
+    public int getRate() { return rate; }
+    public Duration getDuration() { return duration; }
+    public Duration getWarmup() { return warmup; }
+    public Duration getReportInterval() { return reportInterval; }
+    public int getConcurrency() { return concurrency; }
+    public Map<Operation, Integer> getMix() { return mix; }
+    public double getKeyReuseRatio() { return keyReuseRatio; }
+    public double getConflictRatio() { return conflictRatio; }
+
+    @Override
+    public String toString() {
+        return "baseUrl=" + baseUrl + ", rate=" + rate + "/s, duration=" + duration + ", warmup=" + warmup
+                + ", concurrency=" + concurrency + ", mix=" + mix
+                + ", keyReuse=" + keyReuseRatio + ", conflict=" + conflictRatio;
+    }
+}
@@ -0,0 +1,7 @@
+package com.payment.loadgen;
+
+public enum Operation {
+    CREATE,
+    CANCEL,
+    GET
+}
@@ -0,0 +1,52 @@
+package com.payment.loadgen;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// OperationStats: latency and outcome breakdown for one operation type
+public class OperationStats {
+    // measured from the intended send time of the open-model schedule, so queueing behind a stalled
+    // server is charged to the request (coordinated-omission corrected)
+    private final LatencyHistogram responseTime = new LatencyHistogram();
+    // measured from the actual send; the gap between the two shows how far behind the generator fell
+    private final LatencyHistogram serviceTime = new LatencyHistogram();
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+    public void record(long responseNanos, long serviceNanos, String outcome) {
+        responseTime.recordNanos(responseNanos);
+        serviceTime.recordNanos(serviceNanos);
+        outcomes.computeIfAbsent(outcome, k -> new LongAdder()).increment();
+    }
+
+    public long count() {
+        return responseTime.count();
+    }
+
+    public long errors() {
+        return outcomes.entrySet().stream()
+                .filter(e -> !e.getKey().equals("200"))
+                .mapToLong(e -> e.getValue().sum())
+                .sum();
+    }
+
+    public void print(Operation operation, double seconds, PrintStream out) {
+        out.printf("%-6s count=%d (%.0f/s)%n", operation, count(), count() / seconds);
+        out.printf("       response  p50=%s p99=%s p999=%s max=%s%n",
+                format(responseTime.percentileMicros(50)), format(responseTime.percentileMicros(99)),
+                format(responseTime.percentileMicros(99.9)), format(responseTime.maxMicros()));
+        out.printf("       service   p50=%s p99=%s p999=%s max=%s%n",
+                format(serviceTime.percentileMicros(50)), format(serviceTime.percentileMicros(99)),
+                format(serviceTime.percentileMicros(99.9)), format(serviceTime.maxMicros()));
+
+        Map<String, Long> sorted = new TreeMap<>();
+        outcomes.forEach((k, v) -> sorted.put(k, v.sum()));
+        out.println("       outcomes  " + sorted);
+    }
+
+    private static String format(long micros) {
+        return micros >= 1_000 ? String.format("%.2fms", micros / 1_000.0) : micros + "us";
+    }
+}
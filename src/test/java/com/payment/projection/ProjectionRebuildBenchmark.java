@@ -0,0 +1,84 @@
+package com.payment.projection;
+
+import com.payment.event.model.PaymentCanceledEvent;
+import com.payment.event.model.PaymentCreatedEvent;
+import com.payment.event.store.InMemoryPaymentEventStore;
+import com.payment.event.store.PaymentEventStore;
+import com.payment.repository.InMemoryPaymentRepository;
+import com.payment.repository.PaymentRepository;
+import com.payment.repository.jdbc.JdbcPaymentRepository;
+import com.payment.repository.wal.PaymentWriteAheadLog;
+import com.payment.repository.wal.WalPaymentRepository;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * ProjectionRebuildBenchmark: a full rebuild of the payments view into the WAL and the JDBC (H2 file) repository,
+ * first into an empty view (inserts) and then over it again (updates), for a range of install concurrencies.
+ *
+ *   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.payment.projection.ProjectionRebuildBenchmark -Dexec.args="20000"
+ *
+ * Arguments: payments (default 20000).
+ */
+public class ProjectionRebuildBenchmark {
+    private static final int[] CONCURRENCIES = {1, 8, 32, 64};
+
+    public static void main(String[] args) throws Exception {
+        int payments = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        Path dir = Files.createTempDirectory("rebuild-bench");
+        PaymentEventStore eventStore = new InMemoryPaymentEventStore();
+        Instant now = Instant.now();
+        for (int i = 0; i < payments; i++) {
+            eventStore.append(new PaymentCreatedEvent(UUID.randomUUID(), "p-" + i, now, null, 100, "USD"));
+            if (i % 2 == 0) {
+                eventStore.append(new PaymentCanceledEvent(UUID.randomUUID(), "p-" + i, now.plusSeconds(1), null, 100, "USD", null));
+            }
+        }
+        ProjectionRebuilder rebuilder = new ProjectionRebuilder(eventStore, List.of(), 0, 1024, "");
+
+        System.out.printf("payments=%d dir=%s%n", payments, dir);
+        System.out.printf("%-6s %12s %14s %14s%n", "repo", "concurrency", "insert/s", "update/s");
+        try {
+            for (int concurrency : CONCURRENCIES) {
+                PaymentWriteAheadLog wal = new PaymentWriteAheadLog(dir.resolve("c" + concurrency + ".wal"), Duration.ZERO, payment -> { });
+                try {
+                    report("wal", concurrency, payments, rebuilder,
+                            new PaymentViewProjection(new WalPaymentRepository(new InMemoryPaymentRepository(), wal), concurrency));
+                } finally {
+                    wal.close();
+                }
+            }
+            for (int concurrency : CONCURRENCIES) {
+                try (HikariDataSource dataSource = new HikariDataSource()) {
+                    dataSource.setJdbcUrl("jdbc:h2:file:" + dir.resolve("c" + concurrency));
+                    dataSource.setMaximumPoolSize(Math.max(10, concurrency + 1));
+                    try (JdbcPaymentRepository jdbc = new JdbcPaymentRepository(dataSource, 64)) {
+                        report("jdbc", concurrency, payments, rebuilder, new PaymentViewProjection(jdbc, concurrency));
+                    }
+                }
+            }
+        } finally {
+            rebuilder.shutdown();
+        }
+    }
+
+    private static void report(String repo, int concurrency, int payments, ProjectionRebuilder rebuilder,
+                               PaymentViewProjection projection) {
+        double inserts = rate(payments, rebuilder, projection);
+        double updates = rate(payments, rebuilder, projection);
+        System.out.printf("%-6s %12d %,14.0f %,14.0f%n", repo, concurrency, inserts, updates);
+    }
+
+    private static double rate(int payments, ProjectionRebuilder rebuilder, PaymentViewProjection projection) {
+        long start = System.nanoTime();
+        rebuilder.rebuild(projection);
+        return payments / ((System.nanoTime() - start) / 1e9);
+    }
+}
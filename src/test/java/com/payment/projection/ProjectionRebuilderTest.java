@@ -0,0 +1,211 @@
+package com.payment.projection;
+
+import com.payment.domain.Payment;
+import com.payment.domain.PaymentStatus;
+import com.payment.event.model.PaymentCanceledEvent;
+import com.payment.event.model.PaymentCreatedEvent;
+import com.payment.event.model.PaymentEvent;
+import com.payment.event.store.InMemoryPaymentEventStore;
+import com.payment.event.store.PaymentEventStore;
+import com.payment.projection.model.RebuildStatus;
+import com.payment.repository.InMemoryPaymentRepository;
+import com.payment.repository.PaymentRepository;
+import com.payment.repository.jdbc.JdbcPaymentRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectionRebuilderTest {
+    private static final int PAYMENTS = 100;
+
+    @TempDir
+    Path checkpointDir;
+
+    private PaymentEventStore eventStore;
+    private PaymentRepository paymentRepository;
+    private ProjectionRebuilder rebuilder;
+
+    @BeforeEach
+    void setUp() {
+        eventStore = new InMemoryPaymentEventStore();
+        paymentRepository = new InMemoryPaymentRepository();
+
+        Instant now = Instant.now();
+        for (int i = 0; i < PAYMENTS; i++) {
+            eventStore.append(new PaymentCreatedEvent(UUID.randomUUID(), "p-" + i, now, null, 100 + i, "USD"));
+            if (i % 2 == 0) {
+                eventStore.append(new PaymentCanceledEvent(UUID.randomUUID(), "p-" + i, now.plusSeconds(1), null, 100 + i, "USD", null));
+            }
+        }
+        rebuilder = new ProjectionRebuilder(eventStore, List.of(), 4, 8, checkpointDir.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        rebuilder.shutdown();
+    }
+
+    @Test
+    void rebuild_paymentView_shouldRestoreRepositoryFromEvents() {
+        rebuilder.rebuild(new PaymentViewProjection(paymentRepository, 8));
+
+        Payment canceled = paymentRepository.findById("p-2").orElseThrow();
+        assertEquals(PaymentStatus.CANCELED, canceled.getStatus());
+        assertEquals(102, canceled.getAmount());
+
+        Payment created = paymentRepository.findById("p-3").orElseThrow();
+        assertEquals(PaymentStatus.CREATED, created.getStatus());
+
+        assertEquals(RebuildStatus.COMPLETED, rebuilder.progress("payments").getStatus());
+        assertEquals(150, rebuilder.progress("payments").getEventsApplied());
+    }
+
+    @Test
+    void rebuild_overExistingJdbcRows_shouldUpdateThemInPlace(@TempDir Path dir) throws Exception {
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            dataSource.setJdbcUrl("jdbc:h2:file:" + dir.resolve("payments"));
+            try (JdbcPaymentRepository jdbc = new JdbcPaymentRepository(dataSource, 64)) {
+                rebuilder.rebuild(new PaymentViewProjection(jdbc, 8));
+                rebuilder.rebuild(new PaymentViewProjection(jdbc, 8));
+
+                Payment canceled = jdbc.findById("p-2").orElseThrow();
+                assertEquals(PaymentStatus.CANCELED, canceled.getStatus());
+                assertEquals(2, canceled.getVersion());
+                assertEquals(PaymentStatus.CREATED, jdbc.findById("p-3").orElseThrow().getStatus());
+            }
+        }
+    }
+
+    @Test
+    void rebuild_paymentView_shouldKeepPaymentsChangedAfterTheirLastEvent() {
+        rebuilder.rebuild(new PaymentViewProjection(paymentRepository, 8));
+        Payment live = paymentRepository.findById("p-3").orElseThrow();
+        live.setStatus(PaymentStatus.CANCELED);
+        live.setUpdatedAt(Instant.now().plusSeconds(10));
+        paymentRepository.save(live);
+
+        rebuilder.rebuild(new PaymentViewProjection(paymentRepository, 8));
+
+        assertEquals(PaymentStatus.CANCELED, paymentRepository.findById("p-3").orElseThrow().getStatus());
+    }
+
+    @Test
+    void rebuild_resumed_shouldIncludeAggregatesCreatedSinceTheFailure() {
+        FailOnceProjection projection = new FailOnceProjection("p-42");
+        assertThrows(IllegalStateException.class, () -> rebuilder.rebuild(projection));
+
+        eventStore.append(new PaymentCreatedEvent(UUID.randomUUID(), "p-late", Instant.now(), null, 1, "USD"));
+        Map<String, Integer> counts = rebuilder.rebuild(projection);
+
+        assertEquals(PAYMENTS + 1, counts.size());
+        assertEquals(1, counts.get("p-late"));
+    }
+
+    @Test
+    void rebuild_afterFailure_shouldResumeFromCheckpoint() {
+        FailOnceProjection projection = new FailOnceProjection("p-42");
+
+        assertThrows(IllegalStateException.class, () -> rebuilder.rebuild(projection));
+        assertEquals(RebuildStatus.FAILED, rebuilder.progress("event-counts").getStatus());
+
+        Map<String, Integer> counts = rebuilder.rebuild(projection);
+
+        assertEquals(PAYMENTS, counts.size());
+        assertEquals(2, counts.get("p-42"));
+        assertEquals(1, counts.get("p-43"));
+        assertEquals(RebuildStatus.COMPLETED, rebuilder.progress("event-counts").getStatus());
+        assertTrue(rebuilder.progress("event-counts").getResumedPartitions() > 0);
+    }
+
+    @Test
+    void rebuild_afterRestart_shouldResumeFromCheckpointFile() {
+        FailOnceProjection projection = new FailOnceProjection("p-42");
+        assertThrows(IllegalStateException.class, () -> rebuilder.rebuild(projection));
+        assertTrue(Files.exists(checkpointDir.resolve("event-counts.checkpoint")));
+        rebuilder.shutdown();
+
+        rebuilder = new ProjectionRebuilder(eventStore, List.of(), 4, 8, checkpointDir.toString());
+        Map<String, Integer> counts = rebuilder.rebuild(projection);
+
+        assertEquals(PAYMENTS, counts.size());
+        assertEquals(2, counts.get("p-42"));
+        assertTrue(rebuilder.progress("event-counts").getResumedPartitions() > 0);
+        assertFalse(Files.exists(checkpointDir.resolve("event-counts.checkpoint")));
+    }
+
+    private static class FailOnceProjection implements Projection<Map<String, Integer>> {
+        private final String failOn;
+        private final AtomicBoolean failed = new AtomicBoolean();
+
+        FailOnceProjection(String failOn) {
+            this.failOn = failOn;
+        }
+
+        @Override
+        public String name() {
+            return "event-counts";
+        }
+
+        @Override
+        public Map<String, Integer> emptyResult() {
+            return new HashMap<>();
+        }
+
+        @Override
+        public void apply(Map<String, Integer> result, PaymentEvent event) {
+            if (event.getAggregateId().equals(failOn) && failed.compareAndSet(false, true)) {
+                throw new IllegalStateException("boom");
+            }
+            result.merge(event.getAggregateId(), 1, Integer::sum);
+        }
+
+        @Override
+        public Map<String, Integer> merge(Map<String, Integer> left, Map<String, Integer> right) {
+            left.putAll(right);
+            return left;
+        }
+
+        @Override
+        public void install(Map<String, Integer> result) {
+        }
+
+        @Override
+        public PartialCodec<Map<String, Integer>> partialCodec() {
+            return new PartialCodec<>() {
+                @Override
+                public void write(Map<String, Integer> partial, DataOutput out) throws IOException {
+                    out.writeInt(partial.size());
+                    for (Map.Entry<String, Integer> entry : partial.entrySet()) {
+                        out.writeUTF(entry.getKey());
+                        out.writeInt(entry.getValue());
+                    }
+                }
+
+                @Override
+                public Map<String, Integer> read(DataInput in) throws IOException {
+                    Map<String, Integer> partial = new HashMap<>();
+                    for (int i = in.readInt(); i > 0; i--) {
+                        partial.put(in.readUTF(), in.readInt());
+                    }
+                    return partial;
+                }
+            };
+        }
+    }
+}
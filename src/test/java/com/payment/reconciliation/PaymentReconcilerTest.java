@@ -0,0 +1,162 @@
+package com.payment.reconciliation;
+
+import com.payment.domain.Payment;
+import com.payment.domain.PaymentStatus;
+import com.payment.event.model.PaymentCanceledEvent;
+import com.payment.event.model.PaymentCreatedEvent;
+import com.payment.event.model.PaymentEvent;
+import com.payment.event.store.InMemoryPaymentEventStore;
+import com.payment.event.store.PaymentEventStore;
+import com.payment.projection.PaymentViewProjection;
+import com.payment.reconciliation.model.MismatchType;
+import com.payment.reconciliation.model.ReconciliationReport;
+import com.payment.repository.InMemoryPaymentRepository;
+import com.payment.repository.PaymentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentReconcilerTest {
+    private final ReconciliationChangeSet changes = new ReconciliationChangeSet();
+    private final InMemoryPaymentRepository memory = new InMemoryPaymentRepository();
+    private final PaymentRepository repository = new ChangeTrackingPaymentRepository(memory, changes);
+    // stands in for a durable event store: it already holds the history from before the "restart"
+    private PaymentEventStore eventStore = new InMemoryPaymentEventStore() {
+        @Override
+        public boolean isDurable() {
+            return true;
+        }
+    };
+    private PaymentReconciler reconciler;
+
+    @AfterEach
+    void tearDown() {
+        reconciler.shutdown();
+    }
+
+    @Test
+    void reconcile_shouldCheckOnlyChangedPaymentsAndReportDrift() {
+        reconciler = reconciler(0);
+        Instant past = Instant.now().minusSeconds(60);
+
+        // consistent history that was reconciled before
+        for (int i = 0; i < 50; i++) {
+            publishCreated("ok-" + i, past);
+            repository.save(new Payment("ok-" + i, 100, "USD", PaymentStatus.CREATED, past, past));
+        }
+        assertEquals(50, reconciler.reconcile().getLastRunChecked());
+
+        // saved without its PaymentCreated event
+        repository.save(new Payment("no-event", 100, "USD", PaymentStatus.CREATED, past, past));
+        // canceled in the event store only
+        publish(new PaymentCanceledEvent(UUID.randomUUID(), "ok-1", past, null, 100, "USD", null));
+
+        ReconciliationReport report = reconciler.reconcile();
+        assertEquals(2, report.getLastRunChecked());
+        assertEquals(2, report.getMismatchCount());
+        assertEquals(MismatchType.MISSING_EVENTS, type(report, "no-event"));
+        assertEquals(MismatchType.STATUS_MISMATCH, type(report, "ok-1"));
+
+        // fixing a payment closes its mismatch on the next check
+        Payment ok1 = memory.findById("ok-1").orElseThrow();
+        ok1.setStatus(PaymentStatus.CANCELED);
+        repository.save(ok1);
+        report = reconciler.reconcile();
+        assertEquals(1, report.getLastRunChecked());
+        assertEquals(1, report.getMismatchCount());
+        assertEquals(0, reconciler.reconcile().getLastRunChecked());
+    }
+
+    @Test
+    void reconcile_recentMismatch_shouldBeDeferredUntilSettled() {
+        reconciler = reconciler(60_000);
+        Instant now = Instant.now();
+        repository.save(new Payment("in-flight", 100, "USD", PaymentStatus.CREATED, now, now));
+
+        ReconciliationReport report = reconciler.reconcile();
+        assertEquals(1, report.getLastRunDeferred());
+        assertEquals(0, report.getMismatchCount());
+        assertEquals(1, report.getPendingChanges());
+
+        publishCreated("in-flight", now);
+        report = reconciler.reconcile();
+        assertEquals(0, report.getLastRunDeferred());
+        assertEquals(0, report.getMismatchCount());
+        assertEquals(0, report.getPendingChanges());
+    }
+
+    @Test
+    void reconcile_firstRunAfterRestart_shouldCheckEverything() {
+        Instant past = Instant.now().minusSeconds(60);
+        // state recovered from durable stores: nothing of it is in the (empty) change set
+        memory.restore(new Payment("recovered-ok", 100, "USD", PaymentStatus.CREATED, past, past));
+        eventStore.append(new PaymentCreatedEvent(UUID.randomUUID(), "recovered-ok", past, null, 100, "USD"));
+        memory.restore(new Payment("recovered-drift", 100, "USD", PaymentStatus.CANCELED, past, past));
+        eventStore.append(new PaymentCreatedEvent(UUID.randomUUID(), "recovered-drift", past, null, 100, "USD"));
+        eventStore.append(new PaymentCreatedEvent(UUID.randomUUID(), "events-only", past, null, 100, "USD"));
+        reconciler = reconciler(0);
+
+        ReconciliationReport report = reconciler.reconcile();
+        assertEquals(3, report.getLastRunChecked());
+        assertEquals(MismatchType.STATUS_MISMATCH, type(report, "recovered-drift"));
+        assertEquals(MismatchType.MISSING_PAYMENT, type(report, "events-only"));
+        assertEquals(0, reconciler.reconcile().getLastRunChecked());
+    }
+
+    @Test
+    void reconcile_inMemoryEventStore_shouldSkipPaymentsFromBeforeTheRestart() {
+        eventStore = new InMemoryPaymentEventStore();
+        Instant past = Instant.now().minusSeconds(60);
+        // recovered from a durable payment store; their events died with the previous process
+        memory.restore(new Payment("recovered", 100, "USD", PaymentStatus.CREATED, past, past));
+        memory.restore(new Payment("recovered-then-canceled", 100, "USD", PaymentStatus.CANCELED, past, past));
+        reconciler = reconciler(0);
+
+        assertEquals(0, reconciler.reconcile().getLastRunChecked());
+
+        publish(new PaymentCanceledEvent(UUID.randomUUID(), "recovered-then-canceled", Instant.now(), null, 100, "USD", null));
+        repository.save(new Payment("new-no-event", 100, "USD", PaymentStatus.CREATED, Instant.now(), Instant.now()));
+        ReconciliationReport report = reconciler.reconcile();
+        assertEquals(2, report.getLastRunChecked());
+        assertEquals(1, report.getLastRunSkipped());
+        assertEquals(1, report.getMismatchCount());
+        assertEquals(MismatchType.MISSING_EVENTS, type(report, "new-no-event"));
+    }
+
+    @Test
+    void reconcile_manyMismatches_shouldKeepOnlyTheCap() {
+        reconciler = new PaymentReconciler(changes, memory, eventStore, new PaymentViewProjection(memory, 8), 0, 0, 4, 8, 3);
+        Instant past = Instant.now().minusSeconds(60);
+        for (int i = 0; i < 10; i++) {
+            repository.save(new Payment("no-event-" + i, 100, "USD", PaymentStatus.CREATED, past, past));
+        }
+
+        ReconciliationReport report = reconciler.reconcile();
+        assertEquals(3, report.getMismatchCount());
+        assertEquals(7, report.getUntrackedMismatches());
+    }
+
+    private PaymentReconciler reconciler(long settleMillis) {
+        return new PaymentReconciler(changes, memory, eventStore, new PaymentViewProjection(memory, 8), 0, settleMillis, 4, 8, 10_000);
+    }
+
+    private void publishCreated(String paymentId, Instant at) {
+        publish(new PaymentCreatedEvent(UUID.randomUUID(), paymentId, at, null, 100, "USD"));
+    }
+
+    // what the publisher does: the store appender and the change set both see the event
+    private void publish(PaymentEvent event) {
+        eventStore.append(event);
+        changes.handle(event);
+    }
+
+    private static MismatchType type(ReconciliationReport report, String paymentId) {
+        return report.getMismatches().stream()
+                .filter(m -> m.getPaymentId().equals(paymentId))
+                .findFirst().orElseThrow().getType();
+    }
+}
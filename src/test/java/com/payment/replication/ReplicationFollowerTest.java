@@ -0,0 +1,146 @@
+package com.payment.replication;
+
+import com.payment.domain.Payment;
+import com.payment.domain.PaymentStatus;
+import com.payment.event.model.PaymentCanceledEvent;
+import com.payment.event.model.PaymentCreatedEvent;
+import com.payment.event.model.PaymentEvent;
+import com.payment.event.store.InMemoryPaymentEventStore;
+import com.payment.event.store.PaymentEventStore;
+import com.payment.replication.model.ReplicationStatus;
+import com.payment.repository.InMemoryPaymentRepository;
+import com.payment.repository.PaymentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicationFollowerTest {
+    private static final String SECRET = "test-secret";
+
+    private ReplicationLog log;
+    private PaymentEventStore leaderEvents;
+    private ReplicationServer server;
+    private ReplicationFollower follower;
+    private PaymentRepository followerPayments;
+    private PaymentEventStore followerEvents;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        log = new ReplicationLog(4);
+        leaderEvents = new InMemoryPaymentEventStore();
+        server = new ReplicationServer(new InetSocketAddress("127.0.0.1", 0), log, leaderEvents, SECRET);
+        server.start();
+
+        followerPayments = new InMemoryPaymentRepository();
+        followerEvents = new InMemoryPaymentEventStore();
+        follower = new ReplicationFollower(new InetSocketAddress("127.0.0.1", server.getPort()), SECRET, followerPayments, followerEvents);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        follower.close();
+        server.close();
+    }
+
+    @Test
+    void follower_shouldCatchUpOnHistoryAndTailNewEvents() throws Exception {
+        Instant now = Instant.now();
+        publish(new PaymentCreatedEvent(UUID.randomUUID(), "p1", now, null, 100, "USD"));
+        publish(new PaymentCreatedEvent(UUID.randomUUID(), "p2", now, "idem", 200, "EUR"));
+
+        follower.start();
+        waitUntil(() -> follower.getAppliedSequence() == 2);
+
+        publish(new PaymentCanceledEvent(UUID.randomUUID(), "p1", now.plusSeconds(1), null, 100, "USD", "dup"));
+        waitUntil(() -> follower.getAppliedSequence() == 3);
+
+        Payment canceled = followerPayments.findById("p1").orElseThrow();
+        assertEquals(PaymentStatus.CANCELED, canceled.getStatus());
+        assertEquals(now.plusSeconds(1), canceled.getUpdatedAt());
+        assertEquals(200, followerPayments.findById("p2").orElseThrow().getAmount());
+        assertEquals(2, followerEvents.listByPaymentId("p1").size());
+
+        ReplicationStatus status = follower.status();
+        assertTrue(status.isConnected());
+        assertEquals(3, status.getLeaderSequence());
+        assertEquals(0, status.getLagEvents());
+        assertEquals(1, server.followerCount());
+    }
+
+    @Test
+    void follower_withWrongSecret_shouldReceiveNothing() throws Exception {
+        publish(new PaymentCreatedEvent(UUID.randomUUID(), "p1", Instant.now(), null, 100, "USD"));
+        PaymentRepository intruderPayments = new InMemoryPaymentRepository();
+        try (ReplicationFollower intruder = new ReplicationFollower(new InetSocketAddress("127.0.0.1", server.getPort()),
+                "wrong-secret", intruderPayments, new InMemoryPaymentEventStore())) {
+            intruder.start();
+            Thread.sleep(500);
+
+            assertEquals(0, intruder.getAppliedSequence());
+            assertFalse(intruder.status().isConnected());
+            assertTrue(intruderPayments.findById("p1").isEmpty());
+        }
+    }
+
+    @Test
+    void follower_behindTheRetainedLog_shouldResyncFromSnapshot() throws Exception {
+        Instant now = Instant.now();
+        for (int i = 0; i < 10; i++) {
+            publish(new PaymentCreatedEvent(UUID.randomUUID(), "p" + i, now, null, 100 + i, "USD"));
+        }
+
+        follower.start();
+        waitUntil(() -> follower.getAppliedSequence() == 10);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(100 + i, followerPayments.findById("p" + i).orElseThrow().getAmount());
+            assertEquals(1, followerEvents.listByPaymentId("p" + i).size());
+        }
+    }
+
+    @Test
+    void follower_afterLeaderRestart_shouldResyncIntoNewEpoch() throws Exception {
+        Instant now = Instant.now();
+        PaymentCreatedEvent first = new PaymentCreatedEvent(UUID.randomUUID(), "p1", now, null, 100, "USD");
+        publish(first);
+        publish(new PaymentCreatedEvent(UUID.randomUUID(), "p2", now, null, 200, "USD"));
+        follower.start();
+        waitUntil(() -> follower.getAppliedSequence() == 2);
+
+        // the restarted leader numbers from 1 again; its event store still has p1
+        int port = server.getPort();
+        server.close();
+        Thread.sleep(5); // a new epoch
+        log = new ReplicationLog(4);
+        leaderEvents = new InMemoryPaymentEventStore();
+        server = new ReplicationServer(new InetSocketAddress("127.0.0.1", port), log, leaderEvents, SECRET);
+        server.start();
+        publish(first);
+        publish(new PaymentCanceledEvent(UUID.randomUUID(), "p1", now.plusSeconds(1), null, 100, "USD", null));
+
+        waitUntil(() -> followerPayments.findById("p1").orElseThrow().getStatus() == PaymentStatus.CANCELED);
+        waitUntil(() -> follower.getAppliedSequence() == 2);
+        assertEquals(2, followerEvents.listByPaymentId("p1").size());
+    }
+
+    private void publish(PaymentEvent event) {
+        leaderEvents.append(event);
+        log.handle(event);
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+}
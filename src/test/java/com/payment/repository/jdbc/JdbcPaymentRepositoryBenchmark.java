@@ -0,0 +1,80 @@
+package com.payment.repository.jdbc;
+
+import com.payment.domain.Payment;
+import com.payment.domain.PaymentStatus;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JdbcPaymentRepositoryBenchmark: creates per second against a file-based H2 database for each maximum batch
+ * size. Batch size 1 is the statement-per-save baseline.
+ *
+ *   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.payment.repository.jdbc.JdbcPaymentRepositoryBenchmark -Dexec.args="64 5"
+ *
+ * Arguments: writer threads (default 64), seconds per setting (default 5).
+ */
+public class JdbcPaymentRepositoryBenchmark {
+    private static final int[] BATCH_SIZES = {1, 8, 32, 64, 256};
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        Duration duration = Duration.ofSeconds(args.length > 1 ? Long.parseLong(args[1]) : 5);
+        Path dir = Files.createTempDirectory("jdbc-bench");
+
+        System.out.printf("threads=%d duration=%s dir=%s%n", threads, duration, dir);
+        System.out.printf("%-14s %12s %12s %10s%n", "max batch", "creates/s", "commits/s", "avg batch");
+
+        for (int batchSize : BATCH_SIZES) {
+            try (HikariDataSource dataSource = new HikariDataSource()) {
+                dataSource.setJdbcUrl("jdbc:h2:file:" + dir.resolve("batch-" + batchSize));
+                JdbcPaymentRepository repository = new JdbcPaymentRepository(dataSource, batchSize);
+                double rate = run(threads, duration, repository);
+                repository.close();
+                System.out.printf("%-14d %,12.0f %,12.0f %10.1f%n", batchSize, rate,
+                        repository.batchCount() / (double) duration.toSeconds(),
+                        repository.writeCount() / (double) Math.max(1, repository.batchCount()));
+            }
+        }
+    }
+
+    private static double run(int threads, Duration duration, JdbcPaymentRepository repository) throws Exception {
+        LongAdder saved = new LongAdder();
+        AtomicBoolean stop = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    Instant now = Instant.now();
+                    long i = 0;
+                    while (!stop.get()) {
+                        repository.save(new Payment("p-" + thread + "-" + i++, 100, "USD", PaymentStatus.CREATED, now, now));
+                        saved.increment();
+                    }
+                    return null;
+                }));
+            }
+            Thread.sleep(duration.toMillis());
+            stop.set(true);
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return saved.sum() / (double) duration.toSeconds();
+    }
+}
@@ -0,0 +1,120 @@
+package com.payment.repository.jdbc;
+
+import com.payment.domain.Payment;
+import com.payment.domain.PaymentStatus;
+import com.payment.exception.PaymentVersionConflictException;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcPaymentRepositoryTest {
+    @TempDir
+    Path dir;
+
+    private HikariDataSource dataSource;
+    private JdbcPaymentRepository repository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:file:" + dir.resolve("payments"));
+        repository = new JdbcPaymentRepository(dataSource, 64);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+        dataSource.close();
+    }
+
+    @Test
+    void save_thenFind_shouldRoundTripAndBumpVersion() {
+        Instant now = Instant.parse("2026-01-01T10:15:30.123456789Z");
+        Payment payment = new Payment("p1", 100, "USD", PaymentStatus.CREATED, now, now);
+        repository.save(payment);
+        assertEquals(1, payment.getVersion());
+
+        Payment stored = repository.findById("p1").orElseThrow();
+        assertEquals(100, stored.getAmount());
+        assertEquals("USD", stored.getCurrency());
+        assertEquals(now, stored.getCreatedAt());
+        assertEquals(1, stored.getVersion());
+
+        stored.setStatus(PaymentStatus.CANCELED);
+        stored.setUpdatedAt(now.plusSeconds(5));
+        repository.save(stored);
+
+        Payment canceled = repository.findById("p1").orElseThrow();
+        assertEquals(PaymentStatus.CANCELED, canceled.getStatus());
+        assertEquals(now.plusSeconds(5), canceled.getUpdatedAt());
+        assertEquals(2, canceled.getVersion());
+        assertTrue(repository.findById("missing").isEmpty());
+    }
+
+    @Test
+    void save_staleVersion_shouldConflict() {
+        Instant now = Instant.now();
+        repository.save(new Payment("p1", 100, "USD", PaymentStatus.CREATED, now, now));
+
+        Payment first = repository.findById("p1").orElseThrow();
+        Payment second = repository.findById("p1").orElseThrow();
+        first.setStatus(PaymentStatus.CANCELED);
+        repository.save(first);
+
+        second.setStatus(PaymentStatus.CANCELED);
+        assertThrows(PaymentVersionConflictException.class, () -> repository.save(second));
+        assertEquals(2, repository.findById("p1").orElseThrow().getVersion());
+    }
+
+    @Test
+    void save_duplicateInsertInBatch_shouldFailOnlyThatWrite() throws Exception {
+        Instant now = Instant.now();
+        repository.save(new Payment("dup", 100, "USD", PaymentStatus.CREATED, now, now));
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String id = i == 100 ? "dup" : "p" + i;
+                futures.add(executor.submit(() -> repository.save(new Payment(id, 1, "USD", PaymentStatus.CREATED, now, now))));
+            }
+            int failed = 0;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (Exception e) {
+                    failed++;
+                }
+            }
+            assertEquals(1, failed);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(repository.findById("p199").isPresent());
+        assertEquals(200, repository.writeCount());
+        assertTrue(repository.batchCount() <= repository.writeCount());
+    }
+
+    @Test
+    void save_unexpectedFailure_shouldFailThatWriteAndKeepWriting() {
+        Instant now = Instant.now();
+        // a missing status cannot be bound and throws inside the writer thread
+        assertThrows(IllegalStateException.class,
+                () -> repository.save(new Payment("broken", 100, "USD", null, now, now)));
+
+        repository.save(new Payment("p1", 100, "USD", PaymentStatus.CREATED, now, now));
+        assertTrue(repository.findById("p1").isPresent());
+    }
+}
@@ -0,0 +1,220 @@
+package com.payment.repository.wal;
+
+import com.payment.domain.Payment;
+import com.payment.domain.PaymentStatus;
+import com.payment.exception.PaymentVersionConflictException;
+import com.payment.repository.InMemoryPaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentWriteAheadLogTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void recovery_shouldRestoreLastStateOfEveryPayment() throws Exception {
+        Path path = dir.resolve("payments.wal");
+        Instant now = Instant.now();
+
+        InMemoryPaymentRepository memory = new InMemoryPaymentRepository();
+        PaymentWriteAheadLog wal = new PaymentWriteAheadLog(path, Duration.ofMillis(1), memory::restore);
+        WalPaymentRepository repository = new WalPaymentRepository(memory, wal);
+
+        Payment first = new Payment("p1", 100, "USD", PaymentStatus.CREATED, now, now);
+        repository.save(first);
+        repository.save(new Payment("p2", 200, "EUR", PaymentStatus.CREATED, now, now));
+        first.setStatus(PaymentStatus.CANCELED);
+        first.setUpdatedAt(now.plusSeconds(5));
+        repository.save(first);
+        wal.close();
+
+        InMemoryPaymentRepository recovered = new InMemoryPaymentRepository();
+        new PaymentWriteAheadLog(path, Duration.ZERO, recovered::restore).close();
+
+        Payment p1 = recovered.findById("p1").orElseThrow();
+        assertEquals(PaymentStatus.CANCELED, p1.getStatus());
+        assertEquals(now.plusSeconds(5), p1.getUpdatedAt());
+        assertEquals(200, recovered.findById("p2").orElseThrow().getAmount());
+    }
+
+    @Test
+    void save_failedAppend_shouldLeaveStoredStateUntouched() throws Exception {
+        Instant now = Instant.now();
+        InMemoryPaymentRepository memory = new InMemoryPaymentRepository();
+        PaymentWriteAheadLog wal = new PaymentWriteAheadLog(dir.resolve("payments.wal"), Duration.ZERO, memory::restore);
+        WalPaymentRepository repository = new WalPaymentRepository(memory, wal);
+        repository.save(new Payment("p1", 100, "USD", PaymentStatus.CREATED, now, now));
+
+        Payment read = repository.findById("p1").orElseThrow();
+        read.setStatus(PaymentStatus.CANCELED);
+        assertEquals(PaymentStatus.CREATED, repository.findById("p1").orElseThrow().getStatus());
+
+        wal.close();
+        assertThrows(IllegalStateException.class, () -> repository.save(read));
+        assertEquals(PaymentStatus.CREATED, repository.findById("p1").orElseThrow().getStatus());
+    }
+
+    @Test
+    void recovery_tornTail_shouldKeepIntactRecordsAndTruncate() throws Exception {
+        Path path = dir.resolve("payments.wal");
+        Instant now = Instant.now();
+
+        PaymentWriteAheadLog wal = new PaymentWriteAheadLog(path, Duration.ZERO, payment -> { });
+        wal.append(new Payment("p1", 100, "USD", PaymentStatus.CREATED, now, now));
+        wal.close();
+        long intactSize = Files.size(path);
+
+        // simulate a crash in the middle of the next record
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 40, 1, 2, 3}));
+        }
+
+        List<Payment> recovered = new ArrayList<>();
+        PaymentWriteAheadLog reopened = new PaymentWriteAheadLog(path, Duration.ZERO, recovered::add);
+        assertEquals(intactSize, Files.size(path));
+        reopened.append(new Payment("p2", 5, "USD", PaymentStatus.CREATED, now, now));
+        reopened.close();
+
+        assertEquals(List.of("p1"), recovered.stream().map(Payment::getId).toList());
+
+        List<String> afterRestart = new ArrayList<>();
+        new PaymentWriteAheadLog(path, Duration.ZERO, payment -> afterRestart.add(payment.getId())).close();
+        assertEquals(List.of("p1", "p2"), afterRestart);
+    }
+
+    @Test
+    void append_concurrentCallers_shouldShareFsyncs() throws Exception {
+        PaymentWriteAheadLog wal = new PaymentWriteAheadLog(dir.resolve("payments.wal"), Duration.ofMillis(2), payment -> { });
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            Instant now = Instant.now();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 800; i++) {
+                String id = "p" + i;
+                futures.add(executor.submit(() -> wal.append(new Payment(id, 1, "USD", PaymentStatus.CREATED, now, now))));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+            wal.close();
+        }
+
+        assertEquals(800, wal.recordCount());
+        assertTrue(wal.commitCount() < 800 / 4, "commits=" + wal.commitCount());
+    }
+
+    @Test
+    void compact_shouldKeepLastStatesAndAppendsAfterwards() throws Exception {
+        Path path = dir.resolve("payments.wal");
+        Instant now = Instant.now();
+        InMemoryPaymentRepository memory = new InMemoryPaymentRepository();
+        PaymentWriteAheadLog wal = new PaymentWriteAheadLog(path, Duration.ZERO, memory::restore);
+        WalPaymentRepository repository = new WalPaymentRepository(memory, wal);
+        for (int i = 0; i < 50; i++) {
+            Payment payment = new Payment("p" + i, i, "USD", PaymentStatus.CREATED, now, now);
+            repository.save(payment);
+            payment.setStatus(PaymentStatus.CANCELED);
+            repository.save(payment);
+        }
+        long before = Files.size(path);
+
+        wal.compact();
+        assertEquals(1, wal.compactionCount());
+        assertTrue(Files.size(path) < before * 3 / 5, "before=" + before + ", after=" + Files.size(path));
+
+        repository.save(new Payment("late", 7, "USD", PaymentStatus.CREATED, now, now));
+        wal.close();
+
+        InMemoryPaymentRepository recovered = new InMemoryPaymentRepository();
+        new PaymentWriteAheadLog(path, Duration.ZERO, recovered::restore).close();
+        for (int i = 0; i < 50; i++) {
+            assertEquals(PaymentStatus.CANCELED, recovered.findById("p" + i).orElseThrow().getStatus());
+        }
+        assertEquals(7, recovered.findById("late").orElseThrow().getAmount());
+    }
+
+    @Test
+    void append_pastCompactThreshold_shouldCompactInTheBackground() throws Exception {
+        Path path = dir.resolve("payments.wal");
+        Instant now = Instant.now();
+        PaymentWriteAheadLog wal = new PaymentWriteAheadLog(path, Duration.ZERO, 4 * 1024, payment -> { });
+        Payment payment = new Payment("p1", 100, "USD", PaymentStatus.CREATED, now, now);
+        for (int i = 0; i < 500; i++) {
+            payment.setUpdatedAt(now.plusSeconds(i));
+            wal.append(payment);
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (wal.compactionCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        wal.close();
+
+        assertTrue(wal.compactionCount() > 0);
+        assertTrue(Files.size(path) < 8 * 1024, "size=" + Files.size(path));
+        List<Payment> recovered = new ArrayList<>();
+        new PaymentWriteAheadLog(path, Duration.ZERO, recovered::add).close();
+        assertEquals(now.plusSeconds(499), recovered.get(recovered.size() - 1).getUpdatedAt());
+    }
+
+    @Test
+    void save_whileLogging_shouldNotHoldOtherPaymentsOfTheStripe() throws Exception {
+        InMemoryPaymentRepository memory = new InMemoryPaymentRepository();
+        Instant now = Instant.now();
+        // two ids on the same lock stripe
+        String first = "p0";
+        String second = null;
+        for (int i = 1; second == null; i++) {
+            if ((("p" + i).hashCode() & 0x7fffffff) % 256 == (first.hashCode() & 0x7fffffff) % 256) {
+                second = "p" + i;
+            }
+        }
+
+        CountDownLatch logging = new CountDownLatch(1);
+        CountDownLatch durable = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> slow = executor.submit(() -> memory.save(new Payment(first, 1, "USD", PaymentStatus.CREATED, now, now),
+                    stored -> () -> {
+                        logging.countDown();
+                        try {
+                            durable.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }));
+            assertTrue(logging.await(5, TimeUnit.SECONDS));
+
+            memory.save(new Payment(second, 2, "USD", PaymentStatus.CREATED, now, now), stored -> () -> { });
+            assertTrue(memory.findById(second).isPresent());
+            // not visible before it is durable, and a concurrent save of it conflicts
+            assertTrue(memory.findById(first).isEmpty());
+            assertThrows(PaymentVersionConflictException.class,
+                    () -> memory.save(new Payment(first, 3, "USD", PaymentStatus.CREATED, now, now)));
+
+            durable.countDown();
+            slow.get(5, TimeUnit.SECONDS);
+            assertEquals(1, memory.findById(first).orElseThrow().getAmount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
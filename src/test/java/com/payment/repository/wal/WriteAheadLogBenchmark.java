@@ -0,0 +1,103 @@
+package com.payment.repository.wal;
+
+import com.payment.domain.Payment;
+import com.payment.domain.PaymentStatus;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * WriteAheadLogBenchmark: durable creates per second against the group-commit window, next to an
+ * fsync-per-save baseline.
+ *
+ *   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.payment.repository.wal.WriteAheadLogBenchmark -Dexec.args="64 5"
+ *
+ * Arguments: writer threads (default 64), seconds per setting (default 5).
+ */
+public class WriteAheadLogBenchmark {
+    private static final long[] WINDOWS_MICROS = {0, 50, 200, 500, 1_000, 2_000, 5_000};
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        Duration duration = Duration.ofSeconds(args.length > 1 ? Long.parseLong(args[1]) : 5);
+        Path dir = Files.createTempDirectory("wal-bench");
+
+        System.out.printf("threads=%d duration=%s dir=%s%n", threads, duration, dir);
+        System.out.printf("%-22s %12s %12s %10s%n", "setting", "creates/s", "fsyncs/s", "avg group");
+
+        double baseline = run(threads, duration, fsyncPerSave(dir.resolve("baseline.wal")));
+        System.out.printf("%-22s %,12.0f %,12.0f %10.1f%n", "fsync per save", baseline, baseline, 1.0);
+
+        for (long window : WINDOWS_MICROS) {
+            Path path = dir.resolve("window-" + window + ".wal");
+            PaymentWriteAheadLog wal = new PaymentWriteAheadLog(path, Duration.ofNanos(window * 1_000), payment -> { });
+            double rate = run(threads, duration, wal::append);
+            wal.close();
+            double fsyncs = wal.commitCount() / (double) duration.toSeconds();
+            System.out.printf("%-22s %,12.0f %,12.0f %10.1f%n", "window " + window + "us", rate, fsyncs,
+                    wal.recordCount() / (double) Math.max(1, wal.commitCount()));
+        }
+    }
+
+    private static double run(int threads, Duration duration, Writer writer) throws Exception {
+        LongAdder saved = new LongAdder();
+        AtomicBoolean stop = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    Instant now = Instant.now();
+                    long i = 0;
+                    while (!stop.get()) {
+                        writer.save(new Payment("p-" + thread + "-" + i++, 100, "USD", PaymentStatus.CREATED, now, now));
+                        saved.increment();
+                    }
+                    return null;
+                }));
+            }
+            Thread.sleep(duration.toMillis());
+            stop.set(true);
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return saved.sum() / (double) duration.toSeconds();
+    }
+
+    private static Writer fsyncPerSave(Path path) throws Exception {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        byte[] record = new byte[96];
+        return payment -> {
+            synchronized (channel) {
+                try {
+                    channel.write(ByteBuffer.wrap(record));
+                    channel.force(false);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+    }
+
+    @FunctionalInterface
+    private interface Writer {
+        void save(Payment payment);
+    }
+}
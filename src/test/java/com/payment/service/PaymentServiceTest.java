@@ -2,14 +2,18 @@ package com.payment.service;
 
 import com.payment.domain.Payment;
 import com.payment.domain.PaymentStatus;
+import com.payment.dto.CancelPaymentRequest;
 import com.payment.dto.CreatePaymentRequest;
 import com.payment.dto.PaymentResponse;
 import com.payment.exception.ConflictException;
 import com.payment.exception.IdempotencyInProgressException;
+import com.payment.hotkey.HotKeyTracker;
+import com.payment.id.TimeOrderedIdGenerator;
 import com.payment.idempotency.model.IdempotencyRecord;
 import com.payment.idempotency.model.RecordStatus;
 import com.payment.idempotency.repository.IdempotencyRepository;
 import com.payment.idempotency.repository.InMemoryIdempotencyRepository;
+import com.payment.reconciliation.ReconciliationChangeSet;
 import com.payment.repository.InMemoryPaymentRepository;
 import com.payment.repository.PaymentRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -19,8 +23,10 @@ import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -33,7 +39,7 @@ class PaymentServiceTest {
     void setUp() {
         paymentRepository = new InMemoryPaymentRepository();
         idempotencyRepository = new InMemoryIdempotencyRepository();
-        paymentService = new PaymentService(paymentRepository, idempotencyRepository, null);
+        paymentService = new PaymentService(paymentRepository, idempotencyRepository, event -> {}, new TimeOrderedIdGenerator(), new HotKeyTracker(20, 1024, 0, ""), new ReconciliationChangeSet());
     }
 
     //  1) 无 idempotencyKey → 创建新 payment
@@ -196,6 +202,57 @@ class PaymentServiceTest {
 
 
     }
+    // 6b) 同 key + record=COMPLETED + payment 不在本节点（cluster 模式）+ 无缓存 response → ConflictException，不伪造 response
+    @Test
+    void createPayment_withIdempotency_completedRecord_paymentCreatedOnAnotherNode_shouldRefuseReplay() {
+        String idempotencyKey = "idem-key";
+        String paymentId = UUID.randomUUID().toString();
+
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setAmount(100);
+        request.setCurrency("USD");
+
+        idempotencyRepository.save(new IdempotencyRecord(
+                idempotencyKey,
+                computeRequestHash(request.getAmount(), request.getCurrency()),
+                paymentId,
+                Instant.now(),
+                RecordStatus.COMPLETED
+        ));
+
+        assertThrows(ConflictException.class, () -> paymentService.createPayment(request, idempotencyKey));
+        assertTrue(paymentRepository.findById(paymentId).isEmpty());
+    }
+
+    // 6c) 同 key + record=COMPLETED + 有缓存 response → 原样返回缓存的 response（payment 不在本节点也可以）
+    @Test
+    void createPayment_withIdempotency_completedRecordWithResponse_shouldReplayStoredResponse() {
+        String idempotencyKey = "idem-key";
+        String paymentId = UUID.randomUUID().toString();
+        Instant createdAt = Instant.now();
+
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setAmount(100);
+        request.setCurrency("USD");
+
+        IdempotencyRecord record = new IdempotencyRecord(
+                idempotencyKey,
+                computeRequestHash(request.getAmount(), request.getCurrency()),
+                paymentId,
+                createdAt,
+                RecordStatus.IN_PROGRESS
+        );
+        idempotencyRepository.save(record);
+        PaymentResponse stored = new PaymentResponse(paymentId, 100, "USD", PaymentStatus.CREATED, createdAt, createdAt);
+        idempotencyRepository.markCompleted(idempotencyKey, stored);
+
+        PaymentResponse response = paymentService.createPayment(request, idempotencyKey);
+
+        assertEquals(paymentId, response.getId());
+        assertEquals(createdAt, response.getCreatedAt());
+        assertTrue(paymentRepository.findById(paymentId).isEmpty());
+    }
+
     // 7) 同 key + record=IN_PROGRESS + payment 不存在 + 已过期 → 标记 EXPIRED，然后抛 ConflictException
 
     // 8) recordStatus=EXPIRED → 直接 ConflictException
@@ -208,10 +265,118 @@ class PaymentServiceTest {
 
     // 12) 已是 CANCELED → 再 cancel，幂等返回（仍 CANCELED）
 
+    // 12b) cancel 带 idempotencyKey 重试 → 直接返回记录中缓存的 response（不再查 payment）
+    @Test
+    void cancelPayment_withIdempotency_retry_shouldReplayCachedResponse() {
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setAmount(100);
+        request.setCurrency("USD");
+        String paymentId = paymentService.createPayment(request, "create-key").getId();
+
+        CancelPaymentRequest cancelRequest = new CancelPaymentRequest();
+        cancelRequest.setReason("customer request");
+        PaymentResponse first = paymentService.cancelPayment(paymentId, "cancel-key", cancelRequest);
+        PaymentResponse replay = paymentService.cancelPayment(paymentId, "cancel-key", cancelRequest);
+
+        assertEquals(PaymentStatus.CANCELED, first.getStatus());
+        assertSame(first, replay);
+        assertEquals(RecordStatus.COMPLETED, idempotencyRepository.findByIdempotency("cancel-key").get().getRecordStatus());
+        assertSame(paymentService.createPayment(request, "create-key"),
+                idempotencyRepository.findByIdempotency("create-key").get().getResponse());
+    }
+
+    // 12c) cancel 同 key 不同 payload，或复用 create 的 key → ConflictException
+    @Test
+    void cancelPayment_withIdempotency_differentPayloadOrCreateKey_shouldThrowConflict() {
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setAmount(100);
+        request.setCurrency("USD");
+        String paymentId = paymentService.createPayment(request, "create-key").getId();
+
+        CancelPaymentRequest cancelRequest = new CancelPaymentRequest();
+        cancelRequest.setReason("customer request");
+        paymentService.cancelPayment(paymentId, "cancel-key", cancelRequest);
+
+        CancelPaymentRequest otherReason = new CancelPaymentRequest();
+        otherReason.setReason("fraud");
+        assertThrows(ConflictException.class, () -> paymentService.cancelPayment(paymentId, "cancel-key", otherReason));
+        assertThrows(ConflictException.class, () -> paymentService.cancelPayment(paymentId, "create-key", cancelRequest));
+    }
+
+    // 12d) 过期：仍为 CREATED 的 payment 被取消（reason=expired），已取消的不再处理
+    @Test
+    void expirePayments_shouldCancelOnlyCreatedPayments() {
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setAmount(100);
+        request.setCurrency("USD");
+        String stale = paymentService.createPayment(request, null).getId();
+        String canceled = paymentService.createPayment(request, null).getId();
+        paymentService.cancelPayment(canceled, null, null);
+
+        assertEquals(1, paymentService.expirePayments(List.of(stale, canceled, "missing")));
+        assertEquals(PaymentStatus.CANCELED, paymentRepository.findById(stale).orElseThrow().getStatus());
+        assertEquals(0, paymentService.expirePayments(List.of(stale)));
+    }
+
+    // 12e) cancel 读到 payment 后被并发取消（版本冲突）→ CONFLICT 结果，不抛异常；同 key 重试返回已取消的状态
+    @Test
+    void tryCancelPayment_losingVersionRace_shouldReturnConflict() {
+        AtomicBoolean raced = new AtomicBoolean();
+        InMemoryPaymentRepository racing = new InMemoryPaymentRepository() {
+            @Override
+            public Optional<Payment> findById(String id) {
+                Optional<Payment> read = super.findById(id);
+                if (read.isPresent() && read.get().getStatus() == PaymentStatus.CREATED && raced.compareAndSet(false, true)) {
+                    // another request cancels between this read and the caller's save
+                    Payment concurrent = super.findById(id).orElseThrow();
+                    concurrent.setStatus(PaymentStatus.CANCELED);
+                    save(concurrent);
+                }
+                return read;
+            }
+        };
+        PaymentService service = new PaymentService(racing, idempotencyRepository, event -> {}, new TimeOrderedIdGenerator(), new HotKeyTracker(20, 1024, 0, ""), new ReconciliationChangeSet());
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setAmount(100);
+        request.setCurrency("USD");
+        raced.set(true);
+        String paymentId = service.createPayment(request, null).getId();
+        raced.set(false);
+
+        PaymentResult result = service.tryCancelPayment(paymentId, "cancel-key", null);
+        assertEquals(PaymentResultStatus.CONFLICT, result.getStatus());
+
+        PaymentResponse retry = service.cancelPayment(paymentId, "cancel-key", null);
+        assertEquals(PaymentStatus.CANCELED, retry.getStatus());
+        assertEquals(RecordStatus.COMPLETED, idempotencyRepository.findByIdempotency("cancel-key").get().getRecordStatus());
+    }
+
     // 13) 非 CREATED（如果你以后加 AUTH/CAPTURE）→ cancel 抛 InvalidPaymentStatusException
 
     // 14) payment 不存在 → PaymentNotFoundException（404）
 
+    // 14b) try* 接口：拒绝以结果返回，不抛异常（404 / 409）
+    @Test
+    void tryApi_refusals_shouldReturnResultsWithoutThrowing() {
+        PaymentResult missing = paymentService.tryCancelPayment("missing", null, null);
+        assertEquals(PaymentResultStatus.NOT_FOUND, missing.getStatus());
+        assertSame(missing, paymentService.tryGetPayment("missing"));
+
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setAmount(100);
+        request.setCurrency("USD");
+        assertTrue(paymentService.tryCreatePayment(request, "idem-key").isOk());
+
+        request.setAmount(200);
+        PaymentResult conflict = paymentService.tryCreatePayment(request, "idem-key");
+        assertEquals(PaymentResultStatus.CONFLICT, conflict.getStatus());
+        assertEquals(409, conflict.getStatus().getHttpStatus().value());
+        assertEquals("Idempotency-Key reused with different payload", conflict.getMessage());
+
+        ConflictException ex = assertThrows(ConflictException.class, conflict::orElseThrow);
+        assertEquals(0, ex.getStackTrace().length);
+    }
+
     // 15) 存在 → 返回正确数据
 
     // 16) 不存在 → PaymentNotFoundException（404）
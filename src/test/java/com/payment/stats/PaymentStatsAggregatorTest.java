@@ -0,0 +1,99 @@
+package com.payment.stats;
+
+import com.payment.event.model.PaymentCanceledEvent;
+import com.payment.event.model.PaymentCreatedEvent;
+import com.payment.event.model.PaymentEventType;
+import com.payment.stats.model.PaymentStatsSnapshot;
+import com.payment.stats.model.WindowTotals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentStatsAggregatorTest {
+    private static final PaymentEventType CREATED = PaymentEventType.PAYMENT_CREATED;
+
+    private MutableClock clock;
+    private PaymentStatsAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+        aggregator = new PaymentStatsAggregator(clock);
+    }
+
+    @Test
+    void handle_shouldAggregateByCurrencyAndEventType() {
+        aggregator.handle(new PaymentCreatedEvent(UUID.randomUUID(), "p1", clock.instant(), null, 100, "USD"));
+        aggregator.handle(new PaymentCreatedEvent(UUID.randomUUID(), "p2", clock.instant(), null, 50, " usd "));
+        aggregator.handle(new PaymentCreatedEvent(UUID.randomUUID(), "p3", clock.instant(), null, 70, "EUR"));
+        aggregator.handle(new PaymentCanceledEvent(UUID.randomUUID(), "p1", clock.instant(), null, 100, "USD", null));
+
+        PaymentStatsSnapshot snapshot = aggregator.snapshot();
+
+        Map<PaymentEventType, WindowTotals> usd = snapshot.getWindows().get("1m").getByCurrency().get("USD");
+        assertEquals(2, usd.get(PaymentEventType.PAYMENT_CREATED).getCount());
+        assertEquals(150, usd.get(PaymentEventType.PAYMENT_CREATED).getAmount());
+        // a cancel is not added to the created total
+        assertEquals(1, usd.get(PaymentEventType.PAYMENT_CANCELED).getCount());
+        assertEquals(100, usd.get(PaymentEventType.PAYMENT_CANCELED).getAmount());
+        assertEquals(70, snapshot.getWindows().get("1m").getByCurrency().get("EUR").get(PaymentEventType.PAYMENT_CREATED).getAmount());
+        assertEquals(0, snapshot.getWindows().get("1m").getByCurrency().get("EUR").get(PaymentEventType.PAYMENT_CANCELED).getCount());
+        assertEquals(3, snapshot.getTotal().getByEventType().get(PaymentEventType.PAYMENT_CREATED).getCount());
+        assertEquals(100, snapshot.getTotal().getByEventType().get(PaymentEventType.PAYMENT_CANCELED).getAmount());
+    }
+
+    @Test
+    void snapshot_shouldDropEventsOlderThanWindow() {
+        aggregator.handle(new PaymentCreatedEvent(UUID.randomUUID(), "p1", clock.instant(), null, 100, "USD"));
+
+        clock.advance(Duration.ofMinutes(2));
+        aggregator.handle(new PaymentCreatedEvent(UUID.randomUUID(), "p2", clock.instant(), null, 30, "USD"));
+
+        PaymentStatsSnapshot snapshot = aggregator.snapshot();
+
+        assertEquals(30, snapshot.getWindows().get("1m").getByCurrency().get("USD").get(CREATED).getAmount());
+        assertEquals(130, snapshot.getWindows().get("5m").getByCurrency().get("USD").get(CREATED).getAmount());
+        assertEquals(130, snapshot.getWindows().get("1h").getByCurrency().get("USD").get(CREATED).getAmount());
+
+        clock.advance(Duration.ofHours(2));
+
+        assertEquals(0, aggregator.snapshot().getWindows().get("1h").getByCurrency().get("USD").get(CREATED).getCount());
+        assertEquals(2, aggregator.snapshot().getTotal().getByCurrency().get("USD").get(CREATED).getCount());
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
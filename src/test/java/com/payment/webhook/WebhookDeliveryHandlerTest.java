@@ -0,0 +1,217 @@
+package com.payment.webhook;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.dto.CreateWebhookSubscriptionRequest;
+import com.payment.event.model.PaymentCreatedEvent;
+import com.payment.event.model.PaymentEvent;
+import com.payment.exception.InvalidWebhookSubscriptionException;
+import com.payment.webhook.model.WebhookEndpointStats;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebhookDeliveryHandlerTest {
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private final List<String> deliveryIds = new CopyOnWriteArrayList<>();
+    private final List<Boolean> signaturesValid = new CopyOnWriteArrayList<>();
+    private volatile String signingSecret;
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+    private volatile int failuresLeft;
+    private volatile long responseDelayMillis;
+
+    @TempDir
+    Path dataDir;
+    private HttpServer stub;
+    private WebhookDeliveryHandler handler;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stub.setExecutor(Executors.newFixedThreadPool(8));
+        stub.createContext("/hook", this::receive);
+        stub.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (handler != null) {
+            handler.close();
+        }
+        stub.stop(0);
+    }
+
+    @Test
+    void events_are_batched_per_endpoint_within_its_concurrency_limit() throws Exception {
+        responseDelayMillis = 50;
+        handler = handler(new MockEnvironment().withProperty("payment.webhooks.batch-size", "5"));
+        subscribe(2);
+
+        for (int i = 0; i < 23; i++) {
+            handler.handle(event());
+        }
+
+        waitUntil(() -> stats().getDeliveredEvents() == 23);
+        assertEquals(23, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 5));
+        assertTrue(batchSizes.size() <= 6, "expected batched POSTs, got " + batchSizes);
+        assertTrue(maxConcurrent.get() <= 2);
+    }
+
+    @Test
+    void failed_batches_are_retried_with_the_same_delivery_id() throws Exception {
+        failuresLeft = 2;
+        handler = handler(new MockEnvironment().withProperty("payment.webhooks.retry.initial-backoff-ms", "10"));
+        subscribe(1);
+
+        handler.handle(event());
+        handler.handle(event());
+
+        waitUntil(() -> stats().getDeliveredEvents() == 2);
+        assertEquals(2, stats().getFailedAttempts());
+        assertEquals(3, deliveryIds.size());
+        assertEquals(1, deliveryIds.stream().distinct().count());
+        waitUntil(() -> retryFileCount() == 0);
+    }
+
+    @Test
+    void batches_waiting_for_a_retry_survive_a_restart() throws Exception {
+        failuresLeft = Integer.MAX_VALUE;
+        MockEnvironment environment = new MockEnvironment().withProperty("payment.webhooks.retry.initial-backoff-ms", "60000");
+        handler = handler(environment);
+        subscribe(1);
+
+        handler.handle(event());
+        handler.handle(event());
+        waitUntil(() -> stats().getFailedAttempts() == 1);
+        handler.close();
+        assertEquals(1, retryFileCount());
+
+        failuresLeft = 0;
+        handler = handler(environment);
+
+        waitUntil(() -> stats().getDeliveredEvents() == 2);
+        assertEquals(2, deliveryIds.size());
+        assertEquals(deliveryIds.get(0), deliveryIds.get(1));
+        waitUntil(() -> retryFileCount() == 0);
+    }
+
+    @Test
+    void deliveries_are_signed_with_the_subscription_secret() throws Exception {
+        handler = handler(new MockEnvironment());
+        subscribe(1);
+
+        handler.handle(event());
+
+        waitUntil(() -> stats().getDeliveredEvents() == 1);
+        assertNotNull(signingSecret);
+        assertEquals(List.of(true), signaturesValid);
+    }
+
+    @Test
+    void subscribe_internalTarget_shouldBeRejected() {
+        handler = handler(new MockEnvironment().withProperty("payment.webhooks.allow-private-targets", "false"));
+
+        for (String url : List.of("http://127.0.0.1:8080/hook", "http://169.254.169.254/latest/meta-data",
+                "http://10.0.0.5/hook", "http://192.168.1.1/hook", "http://[::1]/hook", "http://[fd00:ec2::254]/hook")) {
+            CreateWebhookSubscriptionRequest request = new CreateWebhookSubscriptionRequest();
+            request.setUrl(url);
+            assertThrows(InvalidWebhookSubscriptionException.class, () -> handler.subscribe(request), url);
+        }
+        assertTrue(handler.subscriptions().isEmpty());
+    }
+
+    private void receive(HttpExchange exchange) throws IOException {
+        int now = concurrent.incrementAndGet();
+        maxConcurrent.accumulateAndGet(now, Math::max);
+        try {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            deliveryIds.add(exchange.getRequestHeaders().getFirst("X-Webhook-Delivery"));
+            String timestamp = exchange.getRequestHeaders().getFirst("X-Webhook-Timestamp");
+            signaturesValid.add(("v1=" + WebhookDeliveryHandler.signature(signingSecret, timestamp, body))
+                    .equals(exchange.getRequestHeaders().getFirst("X-Webhook-Signature")));
+            if (responseDelayMillis > 0) {
+                Thread.sleep(responseDelayMillis);
+            }
+            int status = 200;
+            if (failuresLeft > 0) {
+                failuresLeft--;
+                status = 503;
+            } else {
+                batchSizes.add(objectMapper.readTree(body).size());
+            }
+            exchange.sendResponseHeaders(status, -1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            concurrent.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    private WebhookDeliveryHandler handler(MockEnvironment environment) {
+        environment.setProperty("payment.webhooks.linger-ms", "20");
+        // the stub endpoint listens on loopback
+        if (!environment.containsProperty("payment.webhooks.allow-private-targets")) {
+            environment.setProperty("payment.webhooks.allow-private-targets", "true");
+        }
+        WebhookSubscriptionRegistry registry = new WebhookSubscriptionRegistry(dataDir.resolve("subscriptions.json"), objectMapper);
+        return new WebhookDeliveryHandler(registry, dataDir.resolve("retry"), objectMapper, environment);
+    }
+
+    private void subscribe(int maxConcurrency) {
+        CreateWebhookSubscriptionRequest request = new CreateWebhookSubscriptionRequest();
+        request.setUrl("http://127.0.0.1:" + stub.getAddress().getPort() + "/hook");
+        request.setMaxConcurrency(maxConcurrency);
+        signingSecret = handler.subscribe(request).getSigningSecret();
+    }
+
+    private WebhookEndpointStats stats() {
+        return handler.stats().get(0);
+    }
+
+    private long retryFileCount() {
+        Path retryDir = dataDir.resolve("retry");
+        if (!Files.isDirectory(retryDir)) {
+            return 0;
+        }
+        try (var files = Files.list(retryDir)) {
+            return files.filter(path -> path.toString().endsWith(".batch")).count();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static PaymentEvent event() {
+        return new PaymentCreatedEvent(UUID.randomUUID(), UUID.randomUUID().toString(), Instant.now(), null, 100, "USD");
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.payment.webhook;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebhookRetryStoreTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void save_sameBatchConcurrently_shouldLeaveOneReadableFile() throws Exception {
+        WebhookRetryStore store = new WebhookRetryStore(dir);
+        byte[] body = "[{\"id\":1}]".getBytes(StandardCharsets.UTF_8);
+        WebhookBatch batch = new WebhookBatch(UUID.randomUUID(), "sub-1", 1, body, 2);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> saves = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                saves.add(executor.submit(() -> {
+                    store.save(batch, body);
+                    return null;
+                }));
+            }
+            for (Future<?> save : saves) {
+                save.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try (var files = Files.list(dir)) {
+            assertEquals(List.of(batch.getDeliveryId() + ".batch"), files.map(path -> path.getFileName().toString()).toList());
+        }
+        List<WebhookBatch> loaded = store.load();
+        assertEquals(1, loaded.size());
+        assertEquals(batch.getDeliveryId(), loaded.get(0).getDeliveryId());
+        assertArrayEquals(body, loaded.get(0).body(null));
+    }
+
+    @Test
+    void load_shouldDropTempFilesLeftByACrash() throws Exception {
+        Files.write(dir.resolve(UUID.randomUUID() + ".123.tmp"), new byte[]{1, 2, 3});
+
+        assertTrue(new WebhookRetryStore(dir).load().isEmpty());
+        try (var files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+}